@@ -0,0 +1,95 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.controller.TaskService;
+import com.scheduler.model.BatchOperation;
+import com.scheduler.model.Task;
+import com.scheduler.storage.BinarySnapshotFormat;
+
+// Synthetic task sets and data directories shared by the benchmarks
+final class BenchmarkData {
+    static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    // Tasks with ids 1..count spread over a year of due dates
+    static List<Task> tasks(int count, Random random) {
+        Task.Priority[] priorities = Task.Priority.values();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Task task = new Task("Task " + i, "Benchmark task number " + i,
+                    BASE.plusMinutes(random.nextInt(365 * 24 * 60)),
+                    priorities[random.nextInt(priorities.length)]);
+            task.setId(i);
+            task.setCompleted(random.nextInt(4) == 0);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // A fresh data directory holding the tasks as a binary or JSON snapshot
+    static Path dataDir(List<Task> tasks, boolean binary) throws IOException {
+        Path dir = Files.createTempDirectory("task-scheduler-bench");
+        if (binary) {
+            BinarySnapshotFormat.write(dir.resolve("tasks.bin"), tasks.size() + 1, tasks);
+        } else {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.registerModule(new JavaTimeModule());
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("nextId", tasks.size() + 1);
+            snapshot.put("tasks", tasks);
+            objectMapper.writeValue(dir.resolve("tasks.json").toFile(), snapshot);
+        }
+        return dir;
+    }
+
+    // persistence is a scheduler.persistence mode (wal, snapshot or none), or h2
+    // for the embedded database, which is filled from the snapshot in one batch
+    static TaskService service(Path dataDir, String persistence) throws IOException {
+        if (!"h2".equals(persistence)) {
+            System.setProperty("scheduler.storage", "memory");
+            System.setProperty("scheduler.persistence", persistence);
+            return new TaskService(dataDir);
+        }
+        System.setProperty("scheduler.storage", "h2");
+        TaskService taskService = new TaskService(dataDir);
+        List<BatchOperation> creates = new ArrayList<>();
+        for (Task task : BinarySnapshotFormat.read(dataDir.resolve("tasks.bin")).getTasks()) {
+            creates.add(new BatchOperation(BatchOperation.Type.CREATE, null, task, null));
+        }
+        taskService.applyBatch(creates);
+        return taskService;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // The service prints on every mutation; keep that out of the JMH console
+    static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.scheduler.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.scheduler.index.DependencyGraph;
+import com.scheduler.model.Task;
+
+/**
+ * Recomputation of {@link DependencyGraph}. The tasks form layers of
+ * {@code width}, each depending on up to three random tasks of the layer
+ * before. Changing the duration of a task in the first or last layer only
+ * recomputes as far as the change propagates; {@code load} computes the whole
+ * graph, with layers as wide as 10000 computed in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyGraphBenchmark {
+    @Param({ "10000", "100000" })
+    private int size;
+
+    @Param({ "100", "10000" })
+    private int width;
+
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private DependencyGraph graph;
+    private int duration;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task("Task " + i, "", BenchmarkData.BASE.plusHours(i / width * 8), Task.Priority.MEDIUM);
+            task.setId(i);
+            task.setDurationMinutes(30 + random.nextInt(240));
+            if (i > width) {
+                int layerStart = (i - 1) / width * width - width + 1;
+                List<Integer> prerequisites = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    prerequisites.add(layerStart + random.nextInt(width));
+                }
+                task.setDependsOn(prerequisites);
+            }
+            tasks.put(i, task);
+        }
+        graph = new DependencyGraph(tasks::get);
+        graph.load(consumer -> tasks.values().forEach(consumer));
+    }
+
+    @Benchmark
+    public int load() {
+        DependencyGraph loaded = new DependencyGraph(tasks::get);
+        loaded.load(consumer -> tasks.values().forEach(consumer));
+        return loaded.blockedCount();
+    }
+
+    @Benchmark
+    public void changeLeaf(Blackhole blackhole) {
+        change(size, blackhole);
+    }
+
+    @Benchmark
+    public void changeRoot(Blackhole blackhole) {
+        change(1, blackhole);
+    }
+
+    @Benchmark
+    public boolean cycleCheck() {
+        // A root depending on the last task: the search walks back through every layer
+        return graph.createsCycle(1, List.of(size), Map.of());
+    }
+
+    private void change(int id, Blackhole blackhole) {
+        Task task = new Task(tasks.get(id));
+        task.setDurationMinutes(30 + (duration++ & 127));
+        tasks.put(id, task);
+        graph.apply(Map.of(id, task), (taskId, atRiskMillis, dueMillis) -> blackhole.consume(taskId));
+    }
+}
@@ -0,0 +1,95 @@
+package com.scheduler.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.scheduler.index.SortedTaskIndex;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.Task;
+import com.scheduler.storage.ColumnarTaskStore;
+
+/**
+ * Heap retained per task by the task table and the sorted index, measured
+ * after a full GC. "objects" is the earlier layout (a Task per id in a hash
+ * map, plus a skip list from key to Task and a map from id to key);
+ * "columnar" is {@link ColumnarTaskStore} with the key-only
+ * {@link SortedTaskIndex}. Titles and descriptions are excluded, since both
+ * layouts keep the same strings.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.scheduler.benchmarks.HeapFootprint [--tasks 1000000]
+ * </pre>
+ */
+public class HeapFootprint {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parseOptions(args);
+        int count = Integer.parseInt(options.getOrDefault("tasks", "1000000"));
+
+        List<Task> tasks = BenchmarkData.tasks(count, new Random(42));
+        long baseline = usedHeap();
+
+        Map<Integer, Task> byId = new ConcurrentHashMap<>();
+        ConcurrentSkipListMap<TaskKey, Task> ordered = new ConcurrentSkipListMap<>();
+        Map<Integer, TaskKey> keys = new ConcurrentHashMap<>();
+        for (Task task : tasks) {
+            // A private copy with its own dates, as a task loaded from disk had
+            Task stored = new Task(task);
+            stored.setDueDate(copy(task.getDueDate()));
+            stored.setCreatedAt(copy(task.getCreatedAt()));
+            TaskKey key = TaskKey.of(stored);
+            byId.put(stored.getId(), stored);
+            ordered.put(key, stored);
+            keys.put(stored.getId(), key);
+        }
+        long objects = usedHeap() - baseline;
+        // Also keeps the structures reachable until they are measured
+        check(byId.size() + ordered.size() + keys.size(), 3 * count);
+        report("objects", objects, count);
+        byId = null;
+        ordered = null;
+        keys = null;
+
+        baseline = usedHeap();
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        SortedTaskIndex index = new SortedTaskIndex();
+        for (Task task : tasks) {
+            store.put(task);
+            index.add(TaskKey.of(task));
+        }
+        long columnar = usedHeap() - baseline;
+        check(store.size() + index.size(), 2 * count);
+        report("columnar", columnar, count);
+        System.out.printf("ratio      %.1fx%n", (double) objects / columnar);
+        check(tasks.size(), count);
+    }
+
+    private static void check(int entries, int expected) {
+        if (entries != expected) {
+            throw new IllegalStateException("Expected " + expected + " entries, found " + entries);
+        }
+    }
+
+    private static LocalDateTime copy(LocalDateTime dateTime) {
+        return ColumnarTaskStore.fromEpochNanos(ColumnarTaskStore.toEpochNanos(dateTime));
+    }
+
+    private static void report(String layout, long bytes, int count) {
+        System.out.printf("%-10s %,d bytes, %.1f bytes/task%n", layout, bytes, (double) bytes / count);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,362 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scheduler.Main;
+
+/**
+ * Drives the REST routes with concurrent closed-loop clients and reports
+ * per-route latency percentiles. Each client sends its next request as soon
+ * as the previous one completes, so the numbers are service times under
+ * load rather than latencies at a fixed arrival rate.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.scheduler.benchmarks.LoadGenerator \
+ *     [--url http://localhost:8080] [--clients 16] [--warmup 10] [--duration 30] \
+ *     [--seed-tasks 10000] [--report-dir load-report] [--start-server [--server-threads virtual]]
+ * </pre>
+ *
+ * With {@code --start-server} the application is started in this JVM, with
+ * its data directory under the current working directory, and
+ * {@code --server-threads} picks its request threads (see
+ * {@code scheduler.http.threads}). Requests the server turns away with 429
+ * are counted as rejected, not as errors, so runs with more clients than the
+ * server admits still compare on throughput.
+ */
+public class LoadGenerator {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final String[] PRIORITIES = { "HIGH", "MEDIUM", "LOW" };
+
+    private enum Route {
+        LIST_PAGE(35), GET_BY_ID(30), CREATE(10), UPDATE(10), TOGGLE(10), DELETE(5);
+
+        private final int weight;
+
+        Route(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<Integer> seededIds = new ArrayList<>();
+
+    private LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int seedTasks = Integer.parseInt(options.getOrDefault("seed-tasks", "10000"));
+        Path reportDir = Paths.get(options.getOrDefault("report-dir", "load-report"));
+
+        if (options.containsKey("start-server")) {
+            if (options.containsKey("server-threads")) {
+                System.setProperty("scheduler.http.threads", options.get("server-threads"));
+            }
+            // Main.main blocks for the lifetime of the server
+            Thread server = new Thread(() -> Main.main(new String[0]), "server-main");
+            server.setDaemon(true);
+            server.start();
+        }
+
+        LoadGenerator generator = new LoadGenerator(url);
+        generator.awaitHealthy();
+        generator.seed(seedTasks);
+
+        System.out.println("Warming up for " + warmupSeconds + " s with " + clients + " clients");
+        generator.run(clients, warmupSeconds);
+        System.out.println("Measuring for " + durationSeconds + " s with " + clients + " clients");
+        Map<Route, RouteStats> stats = generator.run(clients, durationSeconds);
+
+        generator.report(stats, durationSeconds, reportDir);
+        System.exit(0);
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    private void awaitHealthy() throws InterruptedException {
+        for (int attempt = 0; attempt < 60; attempt++) {
+            try {
+                if (send(HttpRequest.newBuilder(uri("/api/health")).GET()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Server at " + baseUrl + " did not become healthy");
+    }
+
+    // Creates the tasks that reads and updates pick from, through the batch route
+    private void seed(int count) throws IOException, InterruptedException {
+        for (int created = 0; created < count; created += SEED_BATCH_SIZE) {
+            List<Map<String, Object>> operations = new ArrayList<>();
+            for (int i = created; i < Math.min(count, created + SEED_BATCH_SIZE); i++) {
+                Map<String, Object> operation = new LinkedHashMap<>();
+                operation.put("op", "create");
+                operation.put("task", randomTask("Seed task " + i));
+                operations.add(operation);
+            }
+            HttpResponse<String> response = send(json(HttpRequest.newBuilder(uri("/api/tasks/batch")), "POST", operations));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed: " + response.body());
+            }
+            for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                seededIds.add(result.path("task").path("id").asInt());
+            }
+        }
+        System.out.println("Seeded " + seededIds.size() + " tasks");
+    }
+
+    private Map<Route, RouteStats> run(int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Map<Route, RouteStats>> perClient = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Map<Route, RouteStats> stats = newStats();
+            perClient.add(stats);
+            Thread thread = new Thread(() -> {
+                try {
+                    runClient(stats, deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        Map<Route, RouteStats> merged = newStats();
+        for (Map<Route, RouteStats> stats : perClient) {
+            for (Route route : Route.values()) {
+                merged.get(route).add(stats.get(route));
+            }
+        }
+        return merged;
+    }
+
+    private void runClient(Map<Route, RouteStats> stats, long deadline) {
+        // Tasks this client created and may delete again
+        List<Integer> ownIds = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            Route route = pickRoute();
+            if (route == Route.DELETE && ownIds.isEmpty()) {
+                route = Route.CREATE;
+            }
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = execute(route, ownIds);
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            stats.get(route).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), status);
+        }
+    }
+
+    private int execute(Route route, List<Integer> ownIds) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = seededIds.get(random.nextInt(seededIds.size()));
+        switch (route) {
+            case LIST_PAGE:
+                return send(HttpRequest.newBuilder(uri("/api/tasks?limit=100")).GET()).statusCode();
+            case GET_BY_ID:
+                return send(HttpRequest.newBuilder(uri("/api/tasks/" + id)).GET()).statusCode();
+            case CREATE: {
+                HttpResponse<String> response = send(json(HttpRequest.newBuilder(uri("/api/tasks")), "POST",
+                        randomTask("Load task")));
+                if (response.statusCode() == 201) {
+                    ownIds.add(objectMapper.readTree(response.body()).path("id").asInt());
+                }
+                return response.statusCode();
+            }
+            case UPDATE:
+                return send(json(HttpRequest.newBuilder(uri("/api/tasks/" + id)), "PUT",
+                        randomTask("Updated task"))).statusCode();
+            case TOGGLE:
+                return send(json(HttpRequest.newBuilder(uri("/api/tasks/" + id + "/completion")), "PATCH",
+                        Map.of("completed", random.nextBoolean()))).statusCode();
+            case DELETE:
+                return send(HttpRequest.newBuilder(uri("/api/tasks/" + ownIds.remove(ownIds.size() - 1)))
+                        .DELETE()).statusCode();
+            default:
+                throw new IllegalStateException("Unknown route " + route);
+        }
+    }
+
+    private void report(Map<Route, RouteStats> stats, int durationSeconds, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        RouteStats total = new RouteStats();
+        System.out.printf("%n%-10s %9s %7s %8s %9s %9s %9s %9s %9s %9s%n", "route", "requests", "errors",
+                "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Route route : Route.values()) {
+            RouteStats routeStats = stats.get(route);
+            total.add(routeStats);
+            Histogram histogram = routeStats.histogram;
+            long count = histogram.getTotalCount();
+            printRow(route.name().toLowerCase(), routeStats, durationSeconds);
+
+            Map<String, Object> routeSummary = new LinkedHashMap<>();
+            routeSummary.put("requests", count);
+            routeSummary.put("errors", routeStats.errors);
+            routeSummary.put("rejected", routeStats.rejected);
+            routeSummary.put("requestsPerSecond", (double) count / durationSeconds);
+            routeSummary.put("p50Ms", millis(histogram, 50));
+            routeSummary.put("p90Ms", millis(histogram, 90));
+            routeSummary.put("p99Ms", millis(histogram, 99));
+            routeSummary.put("p999Ms", millis(histogram, 99.9));
+            routeSummary.put("maxMs", histogram.getMaxValue() / 1000.0);
+            summary.put(route.name().toLowerCase(), routeSummary);
+
+            // Full percentile distribution in milliseconds; plot with HdrHistogram's tools
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(reportDir.resolve(route.name().toLowerCase() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        printRow("total", total, durationSeconds);
+        Map<String, Object> totalSummary = new LinkedHashMap<>();
+        totalSummary.put("requests", total.histogram.getTotalCount());
+        totalSummary.put("errors", total.errors);
+        totalSummary.put("rejected", total.rejected);
+        totalSummary.put("requestsPerSecond", (double) total.histogram.getTotalCount() / durationSeconds);
+        totalSummary.put("p99Ms", millis(total.histogram, 99));
+        summary.put("total", totalSummary);
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("summary.json").toFile(), summary);
+        System.out.println("\nReport written to " + reportDir.toAbsolutePath());
+    }
+
+    private static void printRow(String name, RouteStats stats, int durationSeconds) {
+        Histogram histogram = stats.histogram;
+        long count = histogram.getTotalCount();
+        System.out.printf("%-10s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, stats.errors, stats.rejected, (double) count / durationSeconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Route pickRoute() {
+        int total = 0;
+        for (Route route : Route.values()) {
+            total += route.weight;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Route route : Route.values()) {
+            pick -= route.weight;
+            if (pick < 0) {
+                return route;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static Map<String, Object> randomTask(String title) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> task = new LinkedHashMap<>();
+        task.put("title", title);
+        task.put("description", "Generated by the load generator");
+        task.put("dueDate", BenchmarkData.BASE.plusMinutes(random.nextInt(2 * 365 * 24 * 60)).toString());
+        task.put("priority", PRIORITIES[random.nextInt(PRIORITIES.length)]);
+        return task;
+    }
+
+    private static Map<Route, RouteStats> newStats() {
+        Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+        for (Route route : Route.values()) {
+            stats.put(route, new RouteStats());
+        }
+        return stats;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, String method, Object body) throws IOException {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        return client.send(builder.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Owned by one client thread while running, merged afterwards
+    private static final class RouteStats {
+        private final Histogram histogram = new Histogram(MAX_LATENCY_MICROS, 3);
+        private long errors;
+        private long rejected;
+
+        void record(long micros, int status) {
+            histogram.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+            if (status == 429) {
+                rejected++;
+            } else if (status < 200 || status >= 400) {
+                errors++;
+            }
+        }
+
+        void add(RouteStats other) {
+            histogram.add(other.histogram);
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+    }
+}
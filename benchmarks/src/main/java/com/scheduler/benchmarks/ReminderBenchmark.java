@@ -0,0 +1,127 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.controller.ReminderScheduler;
+import com.scheduler.controller.TaskService;
+import com.scheduler.model.Task;
+import com.scheduler.reminder.FiredReminders;
+import com.scheduler.reminder.ListenerSink;
+import com.scheduler.reminder.ReminderDispatcher;
+import com.scheduler.reminder.ReminderEvent;
+import com.scheduler.reminder.ReminderType;
+
+/**
+ * {@link ReminderScheduler#checkReminders} with many pending tasks: a check
+ * with nothing due, and one that fires a burst of overdue reminders. The
+ * scheduler is never started, so its timer does not run behind the benchmark.
+ * {@code dispatchBurst} measures {@link ReminderDispatcher} alone: publishing
+ * a burst and waiting until an in-process listener has received all of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReminderBenchmark {
+    private static final int DUE_PER_CHECK = 1000;
+
+    @Param({ "1000", "100000" })
+    private int pending;
+
+    private Path dataDir;
+    private TaskService taskService;
+    private ReminderScheduler reminderScheduler;
+    private ReminderDispatcher dispatcher;
+    private final AtomicLong received = new AtomicLong();
+    private long published;
+    private final List<Task> overdue = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceStdout();
+        dataDir = Files.createTempDirectory("task-scheduler-bench");
+        taskService = BenchmarkData.service(dataDir, "none");
+        ListenerSink listener = new ListenerSink();
+        listener.addListener(event -> received.incrementAndGet());
+        dispatcher = new ReminderDispatcher(List.of(listener), 100000, 1000, 1, 10);
+        reminderScheduler = new ReminderScheduler(taskService, dispatcher, FiredReminders.inMemory());
+
+        LocalDateTime future = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < pending; i++) {
+            Task task = new Task("Pending " + i, "", future.plusMinutes(i), Task.Priority.MEDIUM);
+            taskService.addTask(task);
+            reminderScheduler.taskSaved(task);
+        }
+        LocalDateTime past = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < DUE_PER_CHECK; i++) {
+            Task task = new Task("Overdue " + i, "", past.plusMinutes(i), Task.Priority.HIGH);
+            taskService.addTask(task);
+            overdue.add(task);
+        }
+    }
+
+    // Puts the overdue reminders back in the queue before every firing check
+    @State(Scope.Benchmark)
+    public static class OverdueBurst {
+        @Setup(Level.Invocation)
+        public void requeue(ReminderBenchmark benchmark) {
+            for (Task task : benchmark.overdue) {
+                benchmark.reminderScheduler.taskDeleted(task.getId());
+                benchmark.reminderScheduler.taskSaved(task);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reminderScheduler.stop();
+        taskService.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public void checkWithNothingDue() {
+        reminderScheduler.checkReminders();
+    }
+
+    @Benchmark
+    public void checkFiringOverdue(OverdueBurst burst) {
+        reminderScheduler.checkReminders();
+    }
+
+    @Benchmark
+    public void dispatchBurst() {
+        LocalDateTime due = LocalDateTime.now();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < DUE_PER_CHECK; i++) {
+            dispatcher.publish(new ReminderEvent(ReminderType.OVERDUE, i, "Overdue " + i, due, 0, now));
+        }
+        published += DUE_PER_CHECK;
+        while (received.get() < published) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.controller.TaskService;
+
+/**
+ * Startup: constructing a {@link TaskService} loads the snapshot and builds
+ * the sorted index. Each measurement is one cold load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StartupBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "binary", "json" })
+    private String format;
+
+    private Path dataDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceStdout();
+        System.setProperty("scheduler.snapshot.format", format);
+        dataDir = BenchmarkData.dataDir(BenchmarkData.tasks(size, new Random(42)), "binary".equals(format));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public TaskService loadTasks() throws IOException {
+        TaskService taskService = BenchmarkData.service(dataDir, "none");
+        taskService.close();
+        return taskService;
+    }
+}
@@ -0,0 +1,115 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.api.TaskListWriter;
+import com.scheduler.index.SortedTaskIndex;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.Task;
+import com.scheduler.storage.ColumnarTaskStore;
+
+/**
+ * Serializing the task list for GET /api/tasks: building a list and one
+ * String against streaming from the index through {@link TaskListWriter}.
+ * Run with {@code -prof gc} to compare bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListSerializationBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private SortedTaskIndex index;
+    private ColumnarTaskStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        index = new SortedTaskIndex();
+        store = new ColumnarTaskStore();
+        for (Task task : BenchmarkData.tasks(size, new Random(42))) {
+            store.put(task);
+            index.add(TaskKey.of(task));
+        }
+    }
+
+    // What the route did before: materialize the list, then the whole body
+    @Benchmark
+    public void listToString(Blackhole blackhole) throws IOException {
+        List<Task> tasks = new ArrayList<>(index.size());
+        for (TaskKey key : index.keys()) {
+            tasks.add(store.get(key.getId()));
+        }
+        String body = objectMapper.writeValueAsString(tasks);
+        OutputStream out = new DiscardingOutputStream(blackhole);
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void streamJson(Blackhole blackhole) throws IOException {
+        stream(blackhole, TaskListWriter.Format.JSON);
+    }
+
+    @Benchmark
+    public void streamNdjson(Blackhole blackhole) throws IOException {
+        stream(blackhole, TaskListWriter.Format.NDJSON);
+    }
+
+    private void stream(Blackhole blackhole, TaskListWriter.Format format) throws IOException {
+        TaskListWriter writer = new TaskListWriter(objectMapper, new DiscardingOutputStream(blackhole),
+                format, null, false);
+        for (TaskKey key : index.keys()) {
+            writer.write(store.get(key.getId()));
+        }
+        writer.finish(null);
+    }
+
+    // Stands in for the servlet output stream
+    static final class DiscardingOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        DiscardingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.scheduler.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.index.SortedTaskIndex;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.Task;
+import com.scheduler.storage.ColumnarTaskStore;
+
+/**
+ * GET /api/tasks listing: the old copy-and-sort of the task map against an
+ * ordered traversal of the incrementally maintained {@link SortedTaskIndex},
+ * building each task from the {@link ColumnarTaskStore} as the service does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListingBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int size;
+
+    private Map<Integer, Task> tasks;
+    private SortedTaskIndex index;
+    private ColumnarTaskStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new ConcurrentHashMap<>();
+        index = new SortedTaskIndex();
+        store = new ColumnarTaskStore();
+        for (Task task : BenchmarkData.tasks(size, new Random(42))) {
+            tasks.put(task.getId(), task);
+            store.put(task);
+            index.add(TaskKey.of(task));
+        }
+    }
+
+    @Benchmark
+    public List<Task> copyAndSort() {
+        List<Task> taskList = new ArrayList<>(tasks.values());
+        Collections.sort(taskList);
+        return taskList;
+    }
+
+    @Benchmark
+    public List<Task> indexTraversal() {
+        List<Task> taskList = new ArrayList<>(index.size());
+        for (TaskKey key : index.keys()) {
+            taskList.add(store.get(key.getId()));
+        }
+        return taskList;
+    }
+
+    // Cost paid on the write path instead: moving one task to a new due date
+    @Benchmark
+    public void reindexOne() {
+        Task task = store.get(1 + (int) (System.nanoTime() % size));
+        TaskKey previous = TaskKey.of(task);
+        task.setDueDate(task.getDueDate().plusMinutes(1));
+        store.put(task);
+        index.move(previous, TaskKey.of(task));
+    }
+}
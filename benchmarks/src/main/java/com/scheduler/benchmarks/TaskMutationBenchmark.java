@@ -0,0 +1,81 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.controller.TaskService;
+import com.scheduler.model.Task;
+
+/**
+ * Write throughput of {@link TaskService} per persistence engine; "none"
+ * keeps changes in memory only and shows the cost of the engines themselves,
+ * "h2" stores the tasks in the embedded database instead of memory.
+ * Add {@code -t 8} to measure contention on the write lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskMutationBenchmark {
+    private static final int PRELOADED = 10000;
+
+    @Param({ "none", "wal", "snapshot", "h2" })
+    private String persistence;
+
+    private Path dataDir;
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceStdout();
+        dataDir = BenchmarkData.dataDir(BenchmarkData.tasks(PRELOADED, new Random(42)), true);
+        taskService = BenchmarkData.service(dataDir, persistence);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskService.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public Task addTask() {
+        Task task = new Task("New task", "Added by the benchmark",
+                BenchmarkData.BASE.plusMinutes(ThreadLocalRandom.current().nextInt(525600)), Task.Priority.MEDIUM);
+        taskService.addTask(task);
+        return task;
+    }
+
+    @Benchmark
+    public void updateTask() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Task update = new Task("Updated task", "Updated by the benchmark",
+                BenchmarkData.BASE.plusMinutes(random.nextInt(525600)), Task.Priority.HIGH);
+        taskService.updateTask(1 + random.nextInt(PRELOADED), update);
+    }
+
+    @Benchmark
+    public void toggleTaskCompletion() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        taskService.toggleTaskCompletion(1 + random.nextInt(PRELOADED), random.nextBoolean());
+    }
+}
@@ -0,0 +1,66 @@
+package com.scheduler.benchmarks;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.Task;
+
+/**
+ * Cost of sorting tasks with {@link Task#compareTo}, which compares
+ * LocalDateTime objects, against sorting by precomputed index keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskOrderingBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private List<Task> shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        shuffled = BenchmarkData.tasks(size, new Random(42));
+        Collections.shuffle(shuffled, new Random(7));
+    }
+
+    @Benchmark
+    public List<Task> sortByCompareTo() {
+        List<Task> tasks = new ArrayList<>(shuffled);
+        Collections.sort(tasks);
+        return tasks;
+    }
+
+    @Benchmark
+    public List<Map.Entry<TaskKey, Task>> sortByIndexKey() {
+        List<Map.Entry<TaskKey, Task>> entries = new ArrayList<>(shuffled.size());
+        for (Task task : shuffled) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(TaskKey.of(task), task));
+        }
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+}
@@ -0,0 +1,99 @@
+package com.scheduler.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.index.TextIndex;
+import com.scheduler.model.Task;
+
+/**
+ * {@link TextIndex} queries over tasks whose titles and descriptions are
+ * drawn from a skewed vocabulary, so some terms are rare and some match a
+ * large share of the tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TaskSearchBenchmark {
+    private static final int VOCABULARY = 20000;
+
+    @Param({ "10000", "1000000" })
+    private int size;
+
+    private TextIndex index;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task(sentence(random, 4), sentence(random, 12),
+                    BenchmarkData.BASE, Task.Priority.MEDIUM);
+            task.setId(i);
+            tasks.add(task);
+        }
+        index = new TextIndex();
+        index.indexAll(tasks);
+    }
+
+    // Low indexes are drawn far more often, roughly like word frequencies in text
+    private String word(Random random) {
+        return words[(int) (VOCABULARY * Math.pow(random.nextDouble(), 3))];
+    }
+
+    private String sentence(Random random, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sentence.append(i > 0 ? " " : "").append(word(random));
+        }
+        return sentence.toString();
+    }
+
+    @Benchmark
+    public TextIndex.Hits rareTerm() {
+        return index.search(words[VOCABULARY - 1], 50);
+    }
+
+    @Benchmark
+    public TextIndex.Hits commonTerm() {
+        return index.search(words[0], 50);
+    }
+
+    @Benchmark
+    public TextIndex.Hits commonAndRare() {
+        return index.search(words[0] + " " + words[VOCABULARY / 2], 50);
+    }
+
+    @Benchmark
+    public TextIndex.Hits prefix() {
+        return index.search(words[VOCABULARY / 2].substring(0, 3) + "*", 50);
+    }
+}
@@ -0,0 +1,86 @@
+package com.scheduler.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.controller.TaskQuery;
+import com.scheduler.controller.TaskService;
+import com.scheduler.model.Task;
+
+/**
+ * Read paths of a loaded {@link TaskService}: the full list behind
+ * GET /api/tasks, one keyset page of it and a filtered page, with the tasks
+ * in memory ("none") or in the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TaskServiceBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "none", "h2" })
+    private String storage;
+
+    private Path dataDir;
+    private TaskService taskService;
+    private TaskQuery firstPage;
+    private TaskQuery pendingHighPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceStdout();
+        dataDir = BenchmarkData.dataDir(BenchmarkData.tasks(size, new Random(42)), true);
+        taskService = BenchmarkData.service(dataDir, storage);
+        firstPage = new TaskQuery();
+        firstPage.setLimit(100);
+        pendingHighPage = new TaskQuery();
+        pendingHighPage.setLimit(100);
+        pendingHighPage.setCompleted(false);
+        pendingHighPage.setPriorities(EnumSet.of(Task.Priority.HIGH));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskService.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public List<Task> getAllTasks() {
+        return taskService.getAllTasks();
+    }
+
+    @Benchmark
+    public List<Task> firstPageOf100() {
+        return taskService.queryTasks(firstPage).getTasks();
+    }
+
+    // ?completed=false&priority=HIGH&limit=100: the filters are applied by the repository
+    @Benchmark
+    public List<Task> pendingHighPriorityPage() {
+        return taskService.queryTasks(pendingHighPage).getTasks();
+    }
+}
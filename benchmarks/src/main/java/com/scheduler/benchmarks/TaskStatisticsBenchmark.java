@@ -0,0 +1,114 @@
+package com.scheduler.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scheduler.controller.TaskStatistics;
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Task;
+
+/**
+ * {@link TaskStatistics} against counting by a scan of every task, which is
+ * what the dashboard did before. {@code advance} moves the clock on by one
+ * minute per call, through a year of due dates, looking up the tasks newly
+ * due soon in a sorted array as a repository would in its index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskStatisticsBenchmark {
+    @Param({ "10000", "1000000" })
+    private int size;
+
+    private List<Task> tasks;
+    private TaskStatistics statistics;
+    private LocalDateTime now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(size, new Random(42));
+        now = BenchmarkData.BASE.plusDays(180);
+        long[] pendingDues = tasks.stream()
+                .filter(task -> !task.isCompleted())
+                .mapToLong(task -> EpochNanos.of(task.getDueDate()))
+                .sorted()
+                .toArray();
+        statistics = new TaskStatistics(now, (fromNanos, toNanos, visitor) -> {
+            int i = firstAtOrAfter(pendingDues, fromNanos);
+            for (; i < pendingDues.length && pendingDues[i] < toNanos; i++) {
+                visitor.visit(0, pendingDues[i]);
+            }
+        });
+        for (Task task : tasks) {
+            statistics.update(null, task);
+        }
+    }
+
+    private static int firstAtOrAfter(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public int update() {
+        // Moves one task by a day and back, so the counts stay the same between iterations
+        Task task = tasks.get(next++ % size);
+        Task moved = new Task(task);
+        moved.setDueDate(task.getDueDate().plusDays(1));
+        statistics.update(task, moved);
+        statistics.update(moved, task);
+        return moved.getId();
+    }
+
+    @Benchmark
+    public TaskStatistics.Summary summary() {
+        return statistics.summary(now);
+    }
+
+    @Benchmark
+    public List<TaskStatistics.BurndownPoint> burndownWeeks() {
+        return statistics.burndown(now, TaskStatistics.Period.WEEK, 52);
+    }
+
+    @Benchmark
+    public int advance() {
+        now = now.plusMinutes(1);
+        return statistics.overdue(now);
+    }
+
+    @Benchmark
+    public int scan() {
+        int overdue = 0;
+        for (Task task : tasks) {
+            if (!task.isCompleted() && task.getDueDate() != null && task.getDueDate().isBefore(now)) {
+                overdue++;
+            }
+        }
+        return overdue;
+    }
+}
@@ -1,17 +1,85 @@
 package com.scheduler;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.api.ChangeStreamWriter;
+import com.scheduler.api.TaskListCache;
+import com.scheduler.api.TaskListWriter;
+import com.scheduler.api.TaskProjection;
+import com.scheduler.cluster.ClusterCoordinator;
+import com.scheduler.cluster.ClusterMember;
+import com.scheduler.cluster.ClusterNode;
+import com.scheduler.cluster.FileClusterCoordinator;
+import com.scheduler.controller.ChangeFeed;
 import com.scheduler.controller.ReminderScheduler;
+import com.scheduler.controller.StorageUnavailableException;
+import com.scheduler.controller.TaskPage;
+import com.scheduler.controller.TaskQuery;
+import com.scheduler.controller.TaskSearchResult;
 import com.scheduler.controller.TaskService;
+import com.scheduler.controller.TaskStatistics;
+import com.scheduler.controller.VersionConflictException;
+import com.scheduler.index.DependencyGraph;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
+import com.scheduler.model.BatchOperation;
+import com.scheduler.model.BatchResult;
 import com.scheduler.model.Task;
+import com.scheduler.reminder.FiredReminders;
+import com.scheduler.reminder.LogSink;
+import com.scheduler.reminder.NdjsonFileSink;
+import com.scheduler.reminder.ReminderDispatcher;
+import com.scheduler.reminder.ReminderSink;
+import com.scheduler.reminder.WebhookSink;
+import com.scheduler.server.ThreadPerTaskPool;
 
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+import spark.routematch.RouteMatch;
+
+import static spark.Spark.afterAfter;
 import static spark.Spark.before;
 import static spark.Spark.delete;
 import static spark.Spark.get;
+import static spark.Spark.halt;
 import static spark.Spark.options;
 import static spark.Spark.patch;
 import static spark.Spark.port;
@@ -22,28 +90,374 @@ import static spark.Spark.staticFiles;
 public class Main {
     private static final TaskService taskService = new TaskService();
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ChangeFeed changeFeed = new ChangeFeed(objectMapper,
+            Integer.getInteger("scheduler.feed.capacity", 10000), taskService::getVersion);
+    private static final TaskListCache listCache = new TaskListCache(taskService, objectMapper);
+    // Versions restart with the process unless the repository stores them, so ETags carry the start time to stay unique
+    private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36);
+    // Each stream holds a server thread, so they are capped below the pool size
+    private static final int MAX_STREAM_CLIENTS = Integer.getInteger("scheduler.stream.maxClients", 64);
+    private static final Semaphore streamSlots = new Semaphore(MAX_STREAM_CLIENTS);
+    private static final long STREAM_KEEPALIVE_MILLIS = 15000;
+    private static final String FEED_VERSION_HEADER = "X-Feed-Version";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10000;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    // Days or weeks of a burndown series
+    private static final int DEFAULT_BURNDOWN_PERIODS = 14;
+    private static final int MAX_BURNDOWN_PERIODS = 366;
+    private static final int MAX_OCCURRENCES = 500;
+    private static final int FLUSH_TIMEOUT_SECONDS = 30;
+    private static final String START_ATTRIBUTE = "scheduler.startNanos";
+    // "virtual" runs every request on its own virtual thread (JDK 21+) instead of a fixed pool
+    private static final String HTTP_THREADS = System.getProperty("scheduler.http.threads", "platform");
+    private static final int HTTP_MAX_THREADS = Integer.getInteger("scheduler.http.maxThreads", 200);
+    // API requests beyond this many in progress wait briefly for a slot, then get 429
+    private static final int MAX_CONCURRENT_REQUESTS = Integer.getInteger("scheduler.http.maxConcurrent", 1024);
+    private static final long REQUEST_QUEUE_MILLIS = Long.getLong("scheduler.http.queueTimeoutMillis", 50);
+    private static final Semaphore requestSlots = new Semaphore(MAX_CONCURRENT_REQUESTS);
+    private static final String SLOT_ATTRIBUTE = "scheduler.requestSlot";
+    // Expected version for an If-Match that names none of this process's task tags
+    private static final long UNMATCHED_VERSION = -2;
+    private static final int PORT = Integer.getInteger("scheduler.http.port", 8080);
+    // Request headers passed on to the owning node, and response headers passed back
+    private static final List<String> PROXIED_REQUEST_HEADERS = List.of("Content-Type", "Accept", "If-Match",
+            "If-None-Match");
+    private static final List<String> PROXIED_RESPONSE_HEADERS = List.of("Content-Type", "ETag", "Retry-After",
+            FEED_VERSION_HEADER);
+    private static final Duration LEAVE_TIMEOUT = Duration.ofSeconds(30);
+    
+    private static final AsyncLogger log = AsyncLogger.get(Main.class);
+    // Null unless this process is one node of a cluster
+    private static final ClusterNode cluster = createClusterNode();
+    // Captured once every route is registered; Spark matches them in this order
+    private static volatile List<RouteTemplate> routeTemplates = List.of();
+    private static final MetricsRegistry.Labeled<Counter> requests = MetricsRegistry.getDefault().counter(
+            "scheduler_http_requests_total", "HTTP requests served", "method", "route", "status");
+    private static final MetricsRegistry.Labeled<LatencyHistogram> requestDuration = MetricsRegistry.getDefault()
+            .histogram("scheduler_http_request_duration_seconds", "HTTP request latency", "method", "route");
+    
+    private static final class RouteTemplate {
+        private final String method;
+        private final String pattern;
+        private final String[] parts;
+        
+        RouteTemplate(RouteMatch route) {
+            this.method = route.getHttpMethod().name();
+            this.pattern = route.getMatchUri();
+            this.parts = pattern.split("/");
+        }
+        
+        boolean matches(String[] path) {
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].equals("*")) {
+                    return true;
+                }
+                if (i >= path.length || !(parts[i].startsWith(":") || parts[i].equals(path[i]))) {
+                    return false;
+                }
+            }
+            return parts.length == path.length;
+        }
+    }
     
     public static void main(String[] args) {
         // Configure JSON mapper
         objectMapper.registerModule(new JavaTimeModule());
+        taskService.addTaskListener(changeFeed);
+        MetricsRegistry.getDefault().gauge("scheduler_feed_version", "Version of the latest task change",
+                changeFeed::currentVersion);
+        MetricsRegistry.getDefault().gauge("scheduler_stream_clients", "Connected change stream clients",
+                () -> MAX_STREAM_CLIENTS - streamSlots.availablePermits());
         
         // Configure web server
-        port(8080);
+        configureThreads();
+        port(PORT);
         staticFiles.location("/web");
         staticFiles.externalLocation("web");
         enableCORS();
+        enableRequestMetrics();
+        enableRequestLimit();
+        if (cluster != null) {
+            enableClusterRouting();
+        }
         
-        System.out.println("🚀 Starting Task Scheduler API...");
+        log.info("🚀 Starting Task Scheduler API...");
         
         // API Routes
+        // Streamed straight to the response; no intermediate list or String
         get("/api/tasks", (req, res) -> {
+            TaskQuery query;
+            TaskProjection projection;
+            try {
+                query = parseTaskQuery(req);
+                String fields = req.queryParams("fields");
+                projection = fields != null ? TaskProjection.parse(fields) : null;
+            } catch (IllegalArgumentException e) {
+                res.type("application/json");
+                res.status(400);
+                return objectMapper.writeValueAsString(createErrorResponse("Invalid query: " + e.getMessage()));
+            }
+            
+            // Only paginated requests get the envelope; filtered lists stay plain arrays
+            boolean paginated = req.queryParams("limit") != null || req.queryParams("cursor") != null;
+            TaskListWriter.Format format = wantsNdjson(req) ? TaskListWriter.Format.NDJSON : TaskListWriter.Format.JSON;
+            res.type(format == TaskListWriter.Format.NDJSON ? TaskListWriter.NDJSON_TYPE : "application/json");
+            res.header("Cache-Control", "no-cache");
+            
+            // Every node lists its shard from the same cursor; the merged page carries no version
+            if (gathering(req)) {
+                try {
+                    TaskPage page = cluster.gatherPage(query, "/api/tasks" + forwardedQuery(req, "fields", "format"));
+                    TaskListWriter writer = new TaskListWriter(objectMapper, res.raw().getOutputStream(),
+                            format, projection, paginated);
+                    for (Task task : page.getTasks()) {
+                        writer.write(task);
+                    }
+                    writer.finish(page.getNextCursor());
+                    return "";
+                } catch (IOException e) {
+                    res.type("application/json");
+                    res.status(502);
+                    return objectMapper.writeValueAsString(createErrorResponse("Error fetching tasks: " + e.getMessage()));
+                }
+            }
+            
+            // The plain list is what dashboards poll: served from bytes cached per version
+            if (req.queryString() == null && format == TaskListWriter.Format.JSON) {
+                TaskListCache.Entry cached = listCache.get();
+                res.header(FEED_VERSION_HEADER, Long.toString(cached.getVersion()));
+                res.header("Vary", "Accept-Encoding");
+                if (notModified(req, res, listETag(cached.getVersion(), req, format))) {
+                    return "";
+                }
+                boolean gzip = acceptsGzip(req);
+                byte[] body = gzip ? cached.getGzip() : cached.getJson();
+                if (gzip) {
+                    res.header("Content-Encoding", "gzip");
+                }
+                res.raw().setContentLength(body.length);
+                res.raw().getOutputStream().write(body);
+                // Committed, so Spark leaves the body alone
+                res.raw().flushBuffer();
+                return "";
+            }
+            
+            // Read before listing: replaying changes after it onto the list is always safe
+            long version = taskService.getVersion();
+            res.header(FEED_VERSION_HEADER, Long.toString(version));
+            // overdue and dueSoon depend on the clock, so those results change without a mutation
+            boolean timeDependent = req.queryParams("overdue") != null || req.queryParams("dueSoon") != null;
+            if (!timeDependent && notModified(req, res, listETag(version, req, format))) {
+                return "";
+            }
+            try {
+                TaskListWriter writer = new TaskListWriter(objectMapper, res.raw().getOutputStream(),
+                        format, projection, paginated);
+                String nextCursor = taskService.visitTasks(query, task -> {
+                    try {
+                        writer.write(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.finish(nextCursor);
+                return "";
+            } catch (Exception e) {
+                log.error("❌ Error streaming tasks: " + e.getMessage(), e);
+                if (res.raw().isCommitted()) {
+                    return "";
+                }
+                res.raw().resetBuffer();
+                res.type("application/json");
+                res.status(500);
+                return objectMapper.writeValueAsString(createErrorResponse("Error fetching tasks: " + e.getMessage()));
+            }
+        });
+        
+        // Server-Sent Events: changes after ?since= (or Last-Event-ID on reconnect), then live ones
+        get("/api/tasks/stream", (req, res) -> {
+            long since;
+            try {
+                since = parseSince(req);
+            } catch (IllegalArgumentException e) {
+                res.type("application/json");
+                res.status(400);
+                return objectMapper.writeValueAsString(createErrorResponse(e.getMessage()));
+            }
+            if (!streamSlots.tryAcquire()) {
+                res.type("application/json");
+                res.status(503);
+                res.header("Retry-After", "5");
+                return objectMapper.writeValueAsString(createErrorResponse("Too many open change streams"));
+            }
+            try {
+                res.type(ChangeStreamWriter.EVENT_STREAM_TYPE);
+                res.header("Cache-Control", "no-cache");
+                res.raw().flushBuffer();
+                new ChangeStreamWriter(changeFeed, res.raw().getOutputStream(), STREAM_KEEPALIVE_MILLIS).run(since);
+            } catch (IOException e) {
+                // Client disconnected
+            } finally {
+                streamSlots.release();
+            }
+            return "";
+        });
+        
+        // Catch-up without a stream: {"version", "changes": [...]}, or 410 once ?since= is too old
+        get("/api/tasks/changes", (req, res) -> {
             res.type("application/json");
+            List<ChangeFeed.Change> changes;
             try {
-                return taskService.getAllTasks();
+                long since = parseSince(req);
+                changes = changeFeed.changesSince(since, MAX_PAGE_SIZE);
+            } catch (IllegalArgumentException e) {
+                res.status(400);
+                return objectMapper.writeValueAsString(createErrorResponse(e.getMessage()));
+            }
+            if (changes == null) {
+                res.status(410);
+                return objectMapper.writeValueAsString(
+                        createErrorResponse("Changes are no longer available; reload /api/tasks"));
+            }
+            long version = changes.isEmpty() ? changeFeed.currentVersion()
+                    : changes.get(changes.size() - 1).getVersion();
+            OutputStream out = res.raw().getOutputStream();
+            out.write(("{\"version\":" + version + ",\"changes\":[").getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < changes.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(changes.get(i).getJson());
+            }
+            out.write(']');
+            out.write('}');
+            return "";
+        });
+        
+        // ?q=alpha beta* : tasks containing alpha and a word starting with beta, best match first
+        get("/api/tasks/search", (req, res) -> {
+            res.type("application/json");
+            String q = req.queryParams("q");
+            if (q == null || q.isBlank()) {
+                res.status(400);
+                return createErrorResponse("Query parameter q is required");
+            }
+            int limit;
+            try {
+                String value = req.queryParams("limit");
+                limit = value != null ? Integer.parseInt(value) : DEFAULT_SEARCH_LIMIT;
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                res.status(400);
+                return createErrorResponse("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            TaskSearchResult result;
+            try {
+                result = gathering(req) ? cluster.gatherSearch(q, limit, "/api/tasks/search?" + req.queryString())
+                        : taskService.search(q, limit);
+            } catch (IOException e) {
+                res.status(502);
+                return createErrorResponse("Error searching tasks: " + e.getMessage());
+            }
+            List<Map<String, Object>> results = new ArrayList<>(result.getTasks().size());
+            for (int i = 0; i < result.getTasks().size(); i++) {
+                Map<String, Object> hit = new LinkedHashMap<>();
+                hit.put("score", result.getScores().get(i));
+                hit.put("task", result.getTasks().get(i));
+                results.add(hit);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("query", q);
+            response.put("total", result.getTotal());
+            response.put("results", results);
+            return response;
+        }, objectMapper::writeValueAsString);
+        
+        // JSON export of every task, in the same shape as data/tasks.json
+        get("/api/tasks/export", (req, res) -> {
+            res.type("application/json");
+            res.header("Content-Disposition", "attachment; filename=\"tasks.json\"");
+            try {
+                taskService.exportTasks(res.raw().getOutputStream());
+                return "";
+            } catch (Exception e) {
+                log.error("❌ Error exporting tasks: " + e.getMessage(), e);
+                if (res.raw().isCommitted()) {
+                    return "";
+                }
+                res.raw().resetBuffer();
+                res.status(500);
+                return objectMapper.writeValueAsString(createErrorResponse("Error exporting tasks: " + e.getMessage()));
+            }
+        });
+        
+        // Accepts an export document (or a plain array of tasks); all are created or none
+        post("/api/tasks/import", (req, res) -> {
+            res.type("application/json");
+            List<BatchResult> results;
+            try {
+                results = taskService.importTasks(req.raw().getInputStream());
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
+            } catch (Exception e) {
+                res.status(400);
+                return createErrorResponse("Invalid import data: " + e.getMessage());
+            }
+            try {
+                awaitFlushIfRequested(req);
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
             } catch (Exception e) {
                 res.status(500);
-                return createErrorResponse("Error fetching tasks: " + e.getMessage());
+                return createErrorResponse("Error saving imported tasks: " + e.getMessage());
             }
+            boolean applied = results.stream().allMatch(result -> result.getStatus() < 400);
+            res.status(applied ? 200 : 400);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("applied", applied);
+            response.put("imported", applied ? results.size() : 0);
+            response.put("results", results);
+            return response;
+        }, objectMapper::writeValueAsString);
+        
+        // Blocked tasks with the chains of prerequisites holding them up, most urgent first; this node's only
+        get("/api/tasks/blocked", (req, res) -> {
+            res.type("application/json");
+            int limit;
+            try {
+                String value = req.queryParams("limit");
+                limit = value != null ? Integer.parseInt(value) : DEFAULT_PAGE_SIZE;
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                res.status(400);
+                return createErrorResponse("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            long now = System.currentTimeMillis();
+            List<Map<String, Object>> blocked = new ArrayList<>();
+            for (int taskId : taskService.getBlockedTaskIds(limit)) {
+                Task task = taskService.getTaskById(taskId);
+                DependencyGraph.Status status = taskService.getDependencyStatus(taskId);
+                // Deleted or unblocked since the ids were read
+                if (task == null || status == null || status.isReady()) {
+                    continue;
+                }
+                Map<String, Object> entry = dependencyReport(task, status, now);
+                entry.put("task", task);
+                blocked.add(entry);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("total", taskService.getBlockedCount());
+            response.put("blocked", blocked);
+            return response;
         }, objectMapper::writeValueAsString);
         
         get("/api/tasks/:id", (req, res) -> {
@@ -52,6 +466,9 @@ public class Main {
                 int taskId = Integer.parseInt(req.params(":id"));
                 Task task = taskService.getTaskById(taskId);
                 if (task != null) {
+                    if (notModified(req, res, taskETag(task))) {
+                        return "";
+                    }
                     return task;
                 } else {
                     res.status(404);
@@ -66,6 +483,70 @@ public class Main {
             }
         }, objectMapper::writeValueAsString);
         
+        // Upcoming occurrences of a recurring task, computed on demand (just the due date for a one-off task)
+        get("/api/tasks/:id/occurrences", (req, res) -> {
+            res.type("application/json");
+            try {
+                int taskId = Integer.parseInt(req.params(":id"));
+                String limitParam = req.queryParams("limit");
+                int limit = limitParam != null ? Integer.parseInt(limitParam) : 10;
+                if (limit < 1 || limit > MAX_OCCURRENCES) {
+                    res.status(400);
+                    return createErrorResponse("limit must be between 1 and " + MAX_OCCURRENCES);
+                }
+                Task task = taskService.getTaskById(taskId);
+                if (task == null) {
+                    res.status(404);
+                    return createErrorResponse("Task not found");
+                }
+                List<LocalDateTime> dates = task.isRecurring()
+                        ? task.getRecurrence().occurrences(task.getDueDate(), task.getOccurrence(), limit)
+                        : List.of(task.getDueDate());
+                List<String> occurrences = new ArrayList<>(dates.size());
+                for (LocalDateTime date : dates) {
+                    occurrences.add(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                }
+                
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("taskId", taskId);
+                response.put("recurrence", task.getRecurrence());
+                response.put("occurrence", task.getOccurrence());
+                response.put("occurrences", occurrences);
+                return response;
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return createErrorResponse("Invalid task ID or limit");
+            } catch (Exception e) {
+                res.status(500);
+                return createErrorResponse("Error computing occurrences: " + e.getMessage());
+            }
+        }, objectMapper::writeValueAsString);
+        
+        // Where a task stands among its prerequisites: what blocks it, its critical path and its slack
+        get("/api/tasks/:id/dependencies", (req, res) -> {
+            res.type("application/json");
+            try {
+                int taskId = Integer.parseInt(req.params(":id"));
+                Task task = taskService.getTaskById(taskId);
+                if (task == null) {
+                    res.status(404);
+                    return createErrorResponse("Task not found");
+                }
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("taskId", taskId);
+                response.put("dependsOn", task.getDependsOn());
+                response.putAll(dependencyReport(task, taskService.getDependencyStatus(taskId),
+                        System.currentTimeMillis()));
+                return response;
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return createErrorResponse("Invalid task ID");
+            } catch (Exception e) {
+                res.status(500);
+                return createErrorResponse("Error computing dependencies: " + e.getMessage());
+            }
+        }, objectMapper::writeValueAsString);
+        
         post("/api/tasks", (req, res) -> {
             res.type("application/json");
             try {
@@ -80,20 +561,59 @@ public class Main {
                     return createErrorResponse("Due date is required");
                 }
                 
-                System.out.println("📝 Creating new task:");
-                System.out.println("   - Title: " + task.getTitle());
-                System.out.println("   - Due Date: " + task.getDueDate());
-                System.out.println("   - Priority: " + task.getPriority());
+                log.debug(() -> "📝 Creating new task: Title: " + task.getTitle()
+                        + ", Due Date: " + task.getDueDate() + ", Priority: " + task.getPriority());
                 
                 taskService.addTask(task);
+                awaitFlushIfRequested(req);
                 res.status(201);
+                res.header("ETag", taskETag(task));
                 return task;
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
             } catch (Exception e) {
                 res.status(400);
                 return createErrorResponse("Invalid task data: " + e.getMessage());
             }
         }, objectMapper::writeValueAsString);
         
+        // Array of {"op": "create|update|delete|complete", ...}; all applied or none
+        post("/api/tasks/batch", (req, res) -> {
+            res.type("application/json");
+            List<BatchOperation> operations;
+            try {
+                operations = objectMapper.readValue(req.body(), new TypeReference<List<BatchOperation>>() {});
+            } catch (Exception e) {
+                res.status(400);
+                return createErrorResponse("Invalid batch data: " + e.getMessage());
+            }
+            if (operations == null || operations.isEmpty()) {
+                res.status(400);
+                return createErrorResponse("Batch must contain at least one operation");
+            }
+            if (operations.size() > MAX_BATCH_SIZE) {
+                res.status(413);
+                return createErrorResponse("Batch cannot contain more than " + MAX_BATCH_SIZE + " operations");
+            }
+            
+            try {
+                List<BatchResult> results = taskService.applyBatch(operations);
+                awaitFlushIfRequested(req);
+                boolean applied = results.stream().allMatch(result -> result.getStatus() < 400);
+                res.status(applied ? 200 : 400);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("applied", applied);
+                response.put("results", results);
+                return response;
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
+            } catch (Exception e) {
+                res.status(500);
+                return createErrorResponse("Error applying batch: " + e.getMessage());
+            }
+        }, objectMapper::writeValueAsString);
+        
         put("/api/tasks/:id", (req, res) -> {
             res.type("application/json");
             try {
@@ -109,8 +629,18 @@ public class Main {
                     return createErrorResponse("Due date is required");
                 }
                 
-                taskService.updateTask(taskId, updatedTask);
-                return updatedTask;
+                Task stored = taskService.updateTask(taskId, updatedTask, expectedVersion(req));
+                if (stored == null) {
+                    res.status(404);
+                    return createErrorResponse("Task not found");
+                }
+                awaitFlushIfRequested(req);
+                res.header("ETag", taskETag(stored));
+                return stored;
+            } catch (VersionConflictException e) {
+                return preconditionFailed(res, e);
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
             } catch (Exception e) {
                 res.status(400);
                 return createErrorResponse("Error updating task: " + e.getMessage());
@@ -120,9 +650,21 @@ public class Main {
         delete("/api/tasks/:id", (req, res) -> {
             try {
                 int taskId = Integer.parseInt(req.params(":id"));
-                taskService.deleteTask(taskId);
+                // Deleting a missing task succeeds, unless the client expected a particular version
+                if (!taskService.deleteTask(taskId, expectedVersion(req)) && req.headers("If-Match") != null) {
+                    res.type("application/json");
+                    res.status(412);
+                    return objectMapper.writeValueAsString(createErrorResponse("Task not found"));
+                }
+                awaitFlushIfRequested(req);
                 res.status(204);
                 return "";
+            } catch (VersionConflictException e) {
+                res.type("application/json");
+                return objectMapper.writeValueAsString(preconditionFailed(res, e));
+            } catch (StorageUnavailableException e) {
+                res.type("application/json");
+                return objectMapper.writeValueAsString(storageUnavailable(res, e));
             } catch (Exception e) {
                 res.status(400);
                 return createErrorResponse("Error deleting task: " + e.getMessage());
@@ -142,15 +684,118 @@ public class Main {
                     return createErrorResponse("Completion status is required");
                 }
                 
-                taskService.toggleTaskCompletion(taskId, completed);
-                Task updatedTask = taskService.getTaskById(taskId);
+                Task updatedTask = taskService.toggleTaskCompletion(taskId, completed, expectedVersion(req));
+                if (updatedTask == null) {
+                    res.status(404);
+                    return createErrorResponse("Task not found");
+                }
+                awaitFlushIfRequested(req);
+                res.header("ETag", taskETag(updatedTask));
                 return updatedTask;
+            } catch (VersionConflictException e) {
+                return preconditionFailed(res, e);
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
             } catch (Exception e) {
                 res.status(400);
                 return createErrorResponse("Error updating task completion: " + e.getMessage());
             }
         }, objectMapper::writeValueAsString);
         
+        // Tasks another node hands over after a membership change; answered once they are on disk
+        post(ClusterNode.HANDOFF_PATH, (req, res) -> {
+            res.type("application/json");
+            if (cluster == null) {
+                res.status(404);
+                return createErrorResponse("Clustering is not enabled");
+            }
+            if (!cluster.isPeer(req.headers(ClusterNode.SECRET_HEADER), req.ip())) {
+                log.warn("🧭 Refused a task handoff from " + req.ip());
+                res.status(403);
+                return createErrorResponse("Only cluster members may hand over tasks");
+            }
+            try {
+                cluster.adopt(req.bodyAsBytes());
+                return createSuccessResponse("Tasks adopted");
+            } catch (StorageUnavailableException e) {
+                return storageUnavailable(res, e);
+            } catch (Exception e) {
+                res.status(500);
+                return createErrorResponse("Error adopting tasks: " + e.getMessage());
+            }
+        }, objectMapper::writeValueAsString);
+        
+        // This node, the live members and how many partitions each owns
+        get("/api/cluster", (req, res) -> {
+            res.type("application/json");
+            if (cluster == null) {
+                res.status(404);
+                return createErrorResponse("Clustering is not enabled");
+            }
+            List<Map<String, Object>> members = new ArrayList<>();
+            for (ClusterMember member : cluster.getTable().getMembers()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", member.getId());
+                entry.put("url", member.getUrl());
+                entry.put("partitions", cluster.getTable().partitionsOwnedBy(member));
+                members.add(entry);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("self", cluster.getSelf().getId());
+            response.put("partitions", cluster.getTable().getPartitions());
+            response.put("members", members);
+            return response;
+        }, objectMapper::writeValueAsString);
+        
+        // Task counts for the dashboard, kept up to date by every change, so the
+        // cost does not grow with the number of tasks; ?burndown=day|week&periods=n
+        // adds the pending tasks due in each of the next n days or weeks
+        get("/api/stats", (req, res) -> {
+            res.type("application/json");
+            String burndown = req.queryParams("burndown");
+            TaskStatistics.Period period = null;
+            if (burndown != null) {
+                try {
+                    period = TaskStatistics.Period.valueOf(burndown.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return createErrorResponse("burndown must be day or week");
+                }
+            }
+            int periods;
+            try {
+                String value = req.queryParams("periods");
+                periods = value != null ? Integer.parseInt(value) : DEFAULT_BURNDOWN_PERIODS;
+            } catch (NumberFormatException e) {
+                periods = -1;
+            }
+            if (periods < 1 || periods > MAX_BURNDOWN_PERIODS) {
+                res.status(400);
+                return createErrorResponse("periods must be between 1 and " + MAX_BURNDOWN_PERIODS);
+            }
+            
+            Map<String, Object> response = statisticsReport(period, periods);
+            if (!gathering(req)) {
+                return response;
+            }
+            try {
+                return cluster.gatherStatistics(objectMapper.valueToTree(response),
+                        "/api/stats" + (req.queryString() != null ? "?" + req.queryString() : ""));
+            } catch (IOException e) {
+                res.status(502);
+                return createErrorResponse("Error gathering statistics: " + e.getMessage());
+            }
+        }, objectMapper::writeValueAsString);
+        
+        // Prometheus text exposition format
+        get("/api/metrics", (req, res) -> {
+            res.type("text/plain; version=0.0.4; charset=utf-8");
+            Writer writer = new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8);
+            MetricsRegistry.getDefault().writePrometheus(writer);
+            writer.flush();
+            return "";
+        });
+        
         get("/api/health", (req, res) -> {
             res.type("application/json");
             return createSuccessResponse("Task Scheduler API is running");
@@ -161,29 +806,305 @@ public class Main {
             return null;
         });
         
+        routeTemplates = Spark.routes().stream().map(RouteTemplate::new).toList();
+        
         // Start services
-        ReminderScheduler reminderScheduler = new ReminderScheduler(taskService);
+        ReminderScheduler reminderScheduler = createReminderScheduler();
         reminderScheduler.start();
+        if (cluster != null) {
+            // Others may hand tasks over as soon as we join, so the routes must be serving
+            Spark.awaitInitialization();
+            try {
+                cluster.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to join the cluster", e);
+            }
+        }
         
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            System.out.println("🛑 Shutting down Task Scheduler...");
+            log.info("🛑 Shutting down Task Scheduler...");
+            if (cluster != null) {
+                // Hand our shard over first, so its reminders keep firing elsewhere
+                cluster.leave(LEAVE_TIMEOUT);
+                try {
+                    cluster.close();
+                } catch (IOException e) {
+                    log.warn("⚠️ Error closing the cluster coordinator: " + e.getMessage());
+                }
+            }
             reminderScheduler.stop();
+            taskService.close();
         }));
         
-        System.out.println("✅ Task Scheduler API running on http://localhost:8080");
-        System.out.println("📱 Frontend available at http://localhost:8080/index.html");
-        System.out.println("🔗 API endpoints available at http://localhost:8080/api/tasks");
-        System.out.println("❤️  Health check: http://localhost:8080/api/health");
+        log.info("✅ Task Scheduler API running on http://localhost:" + PORT);
+        log.info("📱 Frontend available at http://localhost:" + PORT + "/index.html");
+        log.info("🔗 API endpoints available at http://localhost:" + PORT + "/api/tasks");
+        log.info("❤️  Health check: http://localhost:" + PORT + "/api/health");
+        log.info("📊 Metrics: http://localhost:" + PORT + "/api/metrics");
         
         // Keep application running
-        System.out.println("=========================================");
-        System.out.println("✅ Application is RUNNING - Press Ctrl+C to stop");
-        System.out.println("=========================================");
+        log.info("=========================================");
+        log.info("✅ Application is RUNNING - Press Ctrl+C to stop");
+        log.info("=========================================");
         
         try {
             Thread.currentThread().join();
         } catch (InterruptedException e) {
-            System.out.println("Application interrupted");
+            log.warn("Application interrupted");
+        }
+    }
+    
+    // ?sync=true: only respond once the change is on disk
+    private static void awaitFlushIfRequested(Request req) throws Exception {
+        if ("true".equalsIgnoreCase(req.queryParams("sync"))) {
+            try {
+                taskService.flush().get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                throw new StorageUnavailableException("Tasks could not be flushed", e.getCause());
+            }
+        }
+    }
+    
+    // Instants are strings, so a cluster adds up only the counts
+    private static Map<String, Object> statisticsReport(TaskStatistics.Period period, int periods) {
+        TaskStatistics.Summary summary = taskService.getStatistics();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("asOf", summary.getAsOf().toString());
+        report.put("total", summary.getTotal());
+        report.put("completed", summary.getCompleted());
+        report.put("pending", summary.getPending());
+        report.put("overdue", summary.getOverdue());
+        report.put("dueSoon", summary.getDueSoon());
+        Map<String, Object> byPriority = new LinkedHashMap<>();
+        summary.getByPriority().forEach((priority, counts) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("total", counts.getTotal());
+            entry.put("pending", counts.getPending());
+            entry.put("completed", counts.getCompleted());
+            byPriority.put(priority.name(), entry);
+        });
+        report.put("byPriority", byPriority);
+        if (period != null) {
+            List<Map<String, Object>> series = new ArrayList<>(periods);
+            for (TaskStatistics.BurndownPoint point : taskService.getBurndown(period, periods)) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("start", point.getStart().toString());
+                entry.put("due", point.getDue());
+                entry.put("remaining", point.getRemaining());
+                series.add(entry);
+            }
+            Map<String, Object> burndown = new LinkedHashMap<>();
+            burndown.put("period", period.name().toLowerCase(Locale.ROOT));
+            burndown.put("series", series);
+            report.put("burndown", burndown);
+        }
+        return report;
+    }
+    
+    /**
+     * A task's readiness and schedule. Its latest start is the last instant
+     * at which doing the critical path back to back still meets its due date
+     * and those of its dependents; slack is the time left until then, and
+     * negative once the task is at risk. A task outside the dependency graph
+     * (status null) is ready and its critical path is itself.
+     */
+    private static Map<String, Object> dependencyReport(Task task, DependencyGraph.Status status, long now) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        long workMillis;
+        long latestFinish;
+        if (status != null) {
+            report.put("ready", status.isReady());
+            report.put("blockedBy", status.getBlockedBy());
+            report.put("chain", status.getChain());
+            report.put("criticalPath", status.getCriticalPath());
+            workMillis = status.getWorkMillis();
+            latestFinish = status.getLatestFinishMillis();
+        } else {
+            report.put("ready", true);
+            report.put("blockedBy", List.of());
+            report.put("chain", List.of());
+            report.put("criticalPath", task.isCompleted() ? List.of() : List.of(task.getId()));
+            workMillis = task.isCompleted() ? 0 : TimeUnit.MINUTES.toMillis(task.getDurationMinutes());
+            latestFinish = task.getDueDate() != null
+                    ? task.getDueDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MAX_VALUE;
+        }
+        report.put("workMinutes", TimeUnit.MILLISECONDS.toMinutes(workMillis));
+        boolean scheduled = !task.isCompleted() && latestFinish != Long.MAX_VALUE;
+        report.put("latestFinish", scheduled ? toDateTime(latestFinish) : null);
+        report.put("latestStart", scheduled ? toDateTime(latestFinish - workMillis) : null);
+        report.put("slackMinutes", scheduled ? Math.floorDiv(latestFinish - workMillis - now, 60_000L) : null);
+        long atRiskMillis = status != null ? status.getAtRiskMillis() : DependencyGraph.NOT_AT_RISK;
+        report.put("atRisk", atRiskMillis <= now);
+        report.put("atRiskFrom", atRiskMillis != DependencyGraph.NOT_AT_RISK ? toDateTime(atRiskMillis) : null);
+        return report;
+    }
+    
+    private static String toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+    
+    private static TaskQuery parseTaskQuery(Request req) {
+        TaskQuery query = new TaskQuery();
+        
+        String cursor = req.queryParams("cursor");
+        if (cursor != null) {
+            query.setCursor(TaskKey.fromCursor(cursor));
+        }
+        String limit = req.queryParams("limit");
+        if (limit != null || cursor != null) {
+            int pageSize = limit != null ? Integer.parseInt(limit) : DEFAULT_PAGE_SIZE;
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            query.setLimit(pageSize);
+        }
+        
+        String completed = req.queryParams("completed");
+        if (completed != null) {
+            query.setCompleted(parseBoolean("completed", completed));
+        }
+        String overdue = req.queryParams("overdue");
+        if (overdue != null) {
+            query.setOverdue(parseBoolean("overdue", overdue));
+        }
+        String dueSoon = req.queryParams("dueSoon");
+        if (dueSoon != null) {
+            query.setDueSoon(parseBoolean("dueSoon", dueSoon));
+        }
+        String ready = req.queryParams("ready");
+        if (ready != null) {
+            query.setReady(parseBoolean("ready", ready));
+        }
+        
+        String priority = req.queryParams("priority");
+        if (priority != null) {
+            Set<Task.Priority> priorities = EnumSet.noneOf(Task.Priority.class);
+            for (String value : priority.split(",")) {
+                priorities.add(Task.Priority.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            }
+            query.setPriorities(priorities);
+        }
+        
+        query.setDueFrom(parseDateTime("dueFrom", req.queryParams("dueFrom")));
+        query.setDueTo(parseDateTime("dueTo", req.queryParams("dueTo")));
+        return query;
+    }
+    
+    // Weak, as the cached list is also served gzip-encoded
+    private static String listETag(long version, Request req, TaskListWriter.Format format) {
+        String query = req.queryString();
+        return "W/\"" + ETAG_PREFIX + "-" + version
+                + (query != null ? "-" + Integer.toHexString(query.hashCode()) : "")
+                + (format == TaskListWriter.Format.NDJSON ? "-nd" : "") + "\"";
+    }
+    
+    // Sets the ETag and answers 304 when If-None-Match already names it
+    private static boolean notModified(Request req, Response res, String etag) {
+        res.header("ETag", etag);
+        String ifNoneMatch = req.headers("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) {
+                res.status(304);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Strong: the tag changes with every change to the task
+    private static String taskETag(Task task) {
+        return "\"" + ETAG_PREFIX + "-t" + task.getVersion() + "\"";
+    }
+    
+    // The version named by If-Match; tags from another process or weak tags never match
+    private static long expectedVersion(Request req) {
+        String ifMatch = req.headers("If-Match");
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return TaskService.ANY_VERSION;
+        }
+        String prefix = "\"" + ETAG_PREFIX + "-t";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    // Not one of ours; try the next tag
+                }
+            }
+        }
+        return UNMATCHED_VERSION;
+    }
+    
+    // 412 with the task's current tag, so the client can fetch it and retry
+    private static Map<String, Object> preconditionFailed(Response res, VersionConflictException e) {
+        res.status(412);
+        Task current = taskService.getTaskById(e.getTaskId());
+        if (current != null) {
+            res.header("ETag", taskETag(current));
+        }
+        return createErrorResponse("Task has changed since it was read");
+    }
+    
+    // 503: the change may not have been kept (the cause is logged where it happened), so the client should retry
+    private static Map<String, Object> storageUnavailable(Response res, StorageUnavailableException e) {
+        res.status(503);
+        return createErrorResponse(e.getMessage());
+    }
+    
+    private static boolean acceptsGzip(Request req) {
+        String acceptEncoding = req.headers("Accept-Encoding");
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+    
+    // Last-Event-ID wins, as EventSource resends the original URL on reconnect
+    private static long parseSince(Request req) {
+        String value = req.headers("Last-Event-ID");
+        if (value == null) {
+            value = req.queryParams("since");
+        }
+        if (value == null) {
+            return changeFeed.currentVersion();
+        }
+        try {
+            long since = Long.parseLong(value.trim());
+            if (since < 0) {
+                throw new NumberFormatException();
+            }
+            return since;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("since must be a non-negative version number");
+        }
+    }
+    
+    private static boolean wantsNdjson(Request req) {
+        if ("ndjson".equalsIgnoreCase(req.queryParams("format"))) {
+            return true;
+        }
+        String accept = req.headers("Accept");
+        return accept != null && accept.contains(TaskListWriter.NDJSON_TYPE);
+    }
+    
+    private static boolean parseBoolean(String name, String value) {
+        if ("true".equalsIgnoreCase(value)) return true;
+        if ("false".equalsIgnoreCase(value)) return false;
+        throw new IllegalArgumentException(name + " must be true or false");
+    }
+    
+    private static LocalDateTime parseDateTime(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date-time such as 2025-12-10T09:15:00");
         }
     }
     
@@ -204,9 +1125,293 @@ public class Main {
             response.header("Access-Control-Allow-Origin", "*");
             response.header("Access-Control-Allow-Headers", "*");
             response.header("Access-Control-Allow-Methods", "GET,PUT,POST,DELETE,OPTIONS,PATCH");
+            response.header("Access-Control-Expose-Headers", FEED_VERSION_HEADER + ", ETag");
+        });
+    }
+    
+    // -Dscheduler.reminders.sinks: comma-separated log (default), file and webhook
+    private static ReminderScheduler createReminderScheduler() {
+        List<ReminderSink> sinks = new ArrayList<>();
+        for (String name : System.getProperty("scheduler.reminders.sinks", "log").split(",")) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "log":
+                    sinks.add(new LogSink());
+                    break;
+                case "file":
+                    sinks.add(new NdjsonFileSink(Paths.get(
+                            System.getProperty("scheduler.reminders.file", "data/reminders.ndjson"))));
+                    break;
+                case "webhook":
+                    String url = System.getProperty("scheduler.reminders.webhook.url");
+                    if (url == null) {
+                        throw new IllegalArgumentException("The webhook sink needs -Dscheduler.reminders.webhook.url");
+                    }
+                    sinks.add(new WebhookSink(URI.create(url),
+                            Duration.ofMillis(Long.getLong("scheduler.reminders.webhook.timeoutMs", 5000))));
+                    break;
+                case "":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown reminder sink: " + name);
+            }
+        }
+        ReminderDispatcher dispatcher = new ReminderDispatcher(sinks,
+                Integer.getInteger("scheduler.reminders.queueCapacity", 10000),
+                Integer.getInteger("scheduler.reminders.batchSize", 100),
+                Integer.getInteger("scheduler.reminders.maxAttempts", 5),
+                Long.getLong("scheduler.reminders.backoffMs", 500));
+        
+        // Remembering fired reminders across restarts only makes sense if the tasks survive one
+        FiredReminders fired;
+        try {
+            fired = "none".equalsIgnoreCase(System.getProperty("scheduler.persistence"))
+                    ? FiredReminders.inMemory()
+                    : FiredReminders.open(Paths.get("data", "reminders.fired"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open fired reminders", e);
+        }
+        log.info("🔔 Reminders go to: " + sinks.stream().map(ReminderSink::name).toList());
+        // Reminders queued ahead of time; later ones are loaded as the window moves on
+        Duration horizon = Duration.ofMinutes(Long.getLong("scheduler.reminders.horizonMinutes", 60));
+        return new ReminderScheduler(taskService, dispatcher, fired, horizon);
+    }
+    
+    /**
+     * -Dscheduler.cluster.dir joins a cluster coordinated through that shared
+     * directory; -Dscheduler.cluster.coordinator names another
+     * ClusterCoordinator class, which needs a public no-argument constructor.
+     * -Dscheduler.cluster.secret is shared by the members, which accept
+     * handoffs only from requests carrying it (or, without one, from this host).
+     */
+    private static ClusterNode createClusterNode() {
+        String coordinatorName = System.getProperty("scheduler.cluster.coordinator", "file");
+        String dir = System.getProperty("scheduler.cluster.dir");
+        ClusterCoordinator coordinator;
+        if ("file".equals(coordinatorName)) {
+            if (dir == null) {
+                return null;
+            }
+            coordinator = new FileClusterCoordinator(Paths.get(dir),
+                    Duration.ofMillis(Long.getLong("scheduler.cluster.heartbeatMs", 1000)));
+        } else {
+            try {
+                coordinator = (ClusterCoordinator) Class.forName(coordinatorName).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalArgumentException("Unknown cluster coordinator: " + coordinatorName, e);
+            }
+        }
+        String url = System.getProperty("scheduler.cluster.url", "http://localhost:" + PORT);
+        ClusterMember self = new ClusterMember(
+                System.getProperty("scheduler.cluster.nodeId", URI.create(url).getAuthority()), url);
+        log.info("🧭 Joining the cluster as " + self);
+        return new ClusterNode(self, coordinator, taskService, Integer.getInteger("scheduler.cluster.partitions", 64),
+                Duration.ofMillis(Long.getLong("scheduler.cluster.timeoutMs", 5000)),
+                System.getProperty("scheduler.cluster.secret"));
+    }
+    
+    /**
+     * Forwards a request for a task to the node owning its partition, and a
+     * batch to the one node whose tasks it touches. Lists and searches are
+     * gathered in their routes; the change feed, streams and export cover
+     * this node's shard only.
+     */
+    private static void enableClusterRouting() {
+        before("/api/tasks", (request, response) -> {
+            if (request.requestMethod().equals("POST") && !isForwarded(request)) {
+                proxyUnlessLocal(request, response, cluster.creator());
+            }
+        });
+        
+        before("/api/tasks/*", (request, response) -> {
+            if (isForwarded(request)) {
+                return;
+            }
+            String[] path = request.pathInfo().split("/");
+            if (path.length < 4) {
+                return;
+            }
+            boolean post = request.requestMethod().equals("POST");
+            if (post && path[3].equals("batch")) {
+                proxyUnlessLocal(request, response, batchOwner(request, response));
+            } else if (post && path[3].equals("import")) {
+                proxyUnlessLocal(request, response, cluster.creator());
+            } else if (!path[3].isEmpty() && path[3].chars().allMatch(Character::isDigit)) {
+                try {
+                    proxyUnlessLocal(request, response, cluster.ownerOf(Integer.parseInt(path[3])));
+                } catch (NumberFormatException e) {
+                    // Out of range; the route answers 400
+                }
+            }
+        });
+    }
+    
+    // The node whose tasks a batch touches; a batch spanning nodes cannot be atomic, so it is refused
+    private static ClusterMember batchOwner(Request request, Response response) throws IOException {
+        List<BatchOperation> operations;
+        try {
+            operations = objectMapper.readValue(request.body(), new TypeReference<List<BatchOperation>>() {});
+        } catch (Exception e) {
+            // Malformed; the route reports it
+            return null;
+        }
+        Set<ClusterMember> owners = new HashSet<>();
+        for (BatchOperation operation : operations != null ? operations : List.<BatchOperation>of()) {
+            if (operation == null || operation.getOp() == null) {
+                continue;
+            }
+            if (operation.getOp() == BatchOperation.Type.CREATE) {
+                owners.add(cluster.creator());
+            } else if (operation.getId() != null) {
+                owners.add(cluster.ownerOf(operation.getId()));
+            }
+        }
+        owners.remove(null);
+        if (owners.size() > 1) {
+            response.type("application/json");
+            halt(400, objectMapper.writeValueAsString(createErrorResponse("A batch can only touch tasks owned by one node; these are on "
+                    + owners.stream().map(ClusterMember::getId).sorted().toList())));
+        }
+        return owners.isEmpty() ? null : owners.iterator().next();
+    }
+    
+    // Answers the request with the owner's response, unless this node is the owner
+    private static void proxyUnlessLocal(Request request, Response response, ClusterMember owner)
+            throws IOException {
+        if (owner == null || owner.equals(cluster.getSelf())) {
+            return;
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (String name : PROXIED_REQUEST_HEADERS) {
+            String value = request.headers(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        String target = request.pathInfo() + (request.queryString() != null ? "?" + request.queryString() : "");
+        HttpResponse<byte[]> answer;
+        try {
+            answer = cluster.forward(owner, request.requestMethod(), target, request.bodyAsBytes(), headers);
+        } catch (IOException e) {
+            response.type("application/json");
+            halt(502, objectMapper.writeValueAsString(createErrorResponse("Node " + owner.getId() + " owning this task is unreachable")));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.type("application/json");
+            halt(503, objectMapper.writeValueAsString(createErrorResponse("Interrupted while forwarding the request")));
+            return;
+        }
+        for (String name : PROXIED_RESPONSE_HEADERS) {
+            answer.headers().firstValue(name).ifPresent(value -> response.header(name, value));
+        }
+        halt(answer.statusCode(), new String(answer.body(), StandardCharsets.UTF_8));
+    }
+    
+    private static boolean isForwarded(Request request) {
+        return request.headers(ClusterNode.FORWARDED_HEADER) != null;
+    }
+    
+    // A list or search the client sent here, to be answered from every node's shard
+    private static boolean gathering(Request request) {
+        return cluster != null && !isForwarded(request) && !cluster.peers().isEmpty();
+    }
+    
+    // The request's query string without the named parameters, with its leading '?'
+    private static String forwardedQuery(Request request, String... dropped) {
+        String query = request.queryString();
+        if (query == null) {
+            return "";
+        }
+        StringBuilder kept = new StringBuilder();
+        for (String parameter : query.split("&")) {
+            if (!List.of(dropped).contains(parameter.split("=", 2)[0])) {
+                kept.append(kept.length() == 0 ? '?' : '&').append(parameter);
+            }
+        }
+        return kept.toString();
+    }
+    
+    // Must run before the first route is mapped: that is when Spark creates the server
+    private static void configureThreads() {
+        ThreadPool pool = null;
+        if ("virtual".equalsIgnoreCase(HTTP_THREADS)) {
+            pool = ThreadPerTaskPool.virtual("http");
+            if (pool == null) {
+                log.warn("⚠️ Virtual threads need JDK 21 or newer; falling back to platform threads");
+            }
+        }
+        if (pool != null) {
+            log.info("🧵 HTTP requests run on virtual threads");
+        } else {
+            QueuedThreadPool queued = new QueuedThreadPool(HTTP_MAX_THREADS, 8, 60000);
+            queued.setName("http");
+            pool = queued;
+            log.info("🧵 HTTP requests run on a pool of " + HTTP_MAX_THREADS + " platform threads");
+        }
+        EmbeddedServers.add(EmbeddedServers.defaultIdentifier(), new EmbeddedJettyFactory().withThreadPool(pool));
+        
+        ThreadPool serverPool = pool;
+        MetricsRegistry.getDefault().gauge("scheduler_http_threads", "Threads serving HTTP connections",
+                serverPool::getThreads);
+        MetricsRegistry.getDefault().gauge("scheduler_http_requests_in_progress", "API requests holding a slot",
+                () -> MAX_CONCURRENT_REQUESTS - requestSlots.availablePermits());
+    }
+    
+    // Backpressure: a client told to retry costs less than one left waiting in an unbounded queue
+    private static void enableRequestLimit() {
+        before("/api/*", (request, response) -> {
+            String path = request.pathInfo();
+            // Streams have their own cap; health and metrics must answer under overload
+            if (path.equals("/api/tasks/stream") || path.equals("/api/health") || path.equals("/api/metrics")) {
+                return;
+            }
+            if (!requestSlots.tryAcquire(REQUEST_QUEUE_MILLIS, TimeUnit.MILLISECONDS)) {
+                response.type("application/json");
+                response.header("Retry-After", "1");
+                halt(429, objectMapper.writeValueAsString(createErrorResponse("Server is busy, retry later")));
+            }
+            request.attribute(SLOT_ATTRIBUTE, Boolean.TRUE);
+        });
+        
+        afterAfter((request, response) -> {
+            if (request.attribute(SLOT_ATTRIBUTE) != null) {
+                request.raw().removeAttribute(SLOT_ATTRIBUTE);
+                requestSlots.release();
+            }
         });
     }
     
+    private static void enableRequestMetrics() {
+        before((request, response) -> request.attribute(START_ATTRIBUTE, System.nanoTime()));
+        
+        // afterAfter runs even when a route throws or nothing matched
+        afterAfter((request, response) -> {
+            Long start = request.attribute(START_ATTRIBUTE);
+            if (start == null) {
+                return;
+            }
+            int status = response.status();
+            String route = routeLabel(request, status);
+            requests.labels(request.requestMethod(), route, Integer.toString(status)).inc();
+            requestDuration.labels(request.requestMethod(), route).recordSince(start);
+        });
+    }
+    
+    // Labels a request with the template of the route that served it, e.g. /api/tasks/:id
+    private static String routeLabel(Request request, int status) {
+        if (status == 404) {
+            return "unmatched";
+        }
+        String method = request.requestMethod().toLowerCase(Locale.ROOT);
+        String[] path = request.pathInfo().split("/");
+        for (RouteTemplate route : routeTemplates) {
+            if (route.method.equals(method) && route.matches(path)) {
+                return route.pattern;
+            }
+        }
+        return "static";
+    }
+    
     private static Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", true);
@@ -0,0 +1,65 @@
+package com.scheduler.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.scheduler.controller.ChangeFeed;
+import com.scheduler.controller.ChangeFeed.Change;
+
+/**
+ * Writes a {@link ChangeFeed} to a response as Server-Sent Events.
+ *
+ * Every change is one event whose id is its version and whose data is the
+ * change's pre-serialized JSON, so each client costs a copy of the bytes
+ * that changed rather than a serialization of the task list. When the
+ * client has fallen out of the feed's buffer a "reset" event carrying the
+ * current version is sent instead, and the client should reload the list.
+ * A comment line is written while idle so dead connections are noticed.
+ */
+public class ChangeStreamWriter {
+    public static final String EVENT_STREAM_TYPE = "text/event-stream";
+
+    private static final int MAX_BATCH = 512;
+    private static final byte[] KEEPALIVE = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ChangeFeed feed;
+    private final OutputStream out;
+    private final long keepaliveMillis;
+
+    public ChangeStreamWriter(ChangeFeed feed, OutputStream out, long keepaliveMillis) {
+        this.feed = feed;
+        this.out = out;
+        this.keepaliveMillis = keepaliveMillis;
+    }
+
+    // Streams changes after the given version until the client disconnects (an IOException)
+    public void run(long since) throws IOException, InterruptedException {
+        write("retry: 3000\n\n");
+        out.flush();
+        long cursor = since;
+        while (true) {
+            List<Change> changes = feed.awaitChangesSince(cursor, MAX_BATCH, keepaliveMillis);
+            if (changes == null) {
+                cursor = feed.currentVersion();
+                write("id: " + cursor + "\nevent: reset\ndata: {\"version\":" + cursor + "}\n\n");
+            } else if (changes.isEmpty()) {
+                out.write(KEEPALIVE);
+            } else {
+                for (Change change : changes) {
+                    write("id: " + change.getVersion() + "\nevent: " + change.getType() + "\ndata: ");
+                    out.write(change.getJson());
+                    out.write('\n');
+                    out.write('\n');
+                }
+                cursor = changes.get(changes.size() - 1).getVersion();
+            }
+            out.flush();
+        }
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.scheduler.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.controller.TaskQuery;
+import com.scheduler.controller.TaskService;
+
+/**
+ * The unfiltered task list, serialized once per service version.
+ *
+ * An idle dashboard polling GET /api/tasks gets the same bytes every time
+ * until something changes, so the sort walk and JSON encoding run once per
+ * mutation rather than once per request. Any mutation moves the service
+ * version on, which invalidates the cached list on the next read. The gzip
+ * variant is only built when a client asks for it.
+ */
+public class TaskListCache {
+
+    public static final class Entry {
+        private final long version;
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        Entry(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        // Service version the list reflects; later changes may already be included
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+    }
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private volatile Entry entry;
+
+    public TaskListCache(TaskService taskService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Entry get() {
+        Entry current = entry;
+        if (current != null && current.version == taskService.getVersion()) {
+            return current;
+        }
+        // One thread rebuilds; the others wait and reuse its result
+        synchronized (this) {
+            current = entry;
+            long version = taskService.getVersion();
+            if (current == null || current.version != version) {
+                current = new Entry(version, serialize());
+                entry = current;
+            }
+            return current;
+        }
+    }
+
+    private byte[] serialize() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            TaskListWriter writer = new TaskListWriter(objectMapper, out, TaskListWriter.Format.JSON, null, false);
+            taskService.visitTasks(new TaskQuery(), task -> {
+                try {
+                    writer.write(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
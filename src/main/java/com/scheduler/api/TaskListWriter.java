@@ -0,0 +1,71 @@
+package com.scheduler.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.model.Task;
+
+/**
+ * Streams a task list straight to the response body as tasks are visited,
+ * without building an intermediate list or String.
+ *
+ * JSON output is a plain array, or a {"tasks": [...], "nextCursor": ...}
+ * envelope for paginated requests. NDJSON output is one task per line; a
+ * paginated NDJSON response ends with a {"nextCursor": ...} line.
+ */
+public class TaskListWriter {
+    public static final String NDJSON_TYPE = "application/x-ndjson";
+
+    public enum Format { JSON, NDJSON }
+
+    private final JsonGenerator generator;
+    private final Format format;
+    private final TaskProjection projection;
+    private final boolean paginated;
+
+    public TaskListWriter(ObjectMapper objectMapper, OutputStream out, Format format,
+                          TaskProjection projection, boolean paginated) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.NDJSON) {
+            this.generator.setRootValueSeparator(null);
+        }
+        this.format = format;
+        this.projection = projection != null ? projection : TaskProjection.all();
+        this.paginated = paginated;
+
+        if (format == Format.JSON) {
+            if (paginated) {
+                generator.writeStartObject();
+                generator.writeFieldName("tasks");
+            }
+            generator.writeStartArray();
+        }
+    }
+
+    public void write(Task task) throws IOException {
+        projection.write(generator, task);
+        if (format == Format.NDJSON) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    public void finish(String nextCursor) throws IOException {
+        if (format == Format.JSON) {
+            generator.writeEndArray();
+            if (paginated) {
+                generator.writeStringField("nextCursor", nextCursor);
+                generator.writeEndObject();
+            }
+        } else if (paginated) {
+            generator.writeStartObject();
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,158 @@
+package com.scheduler.api;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.scheduler.model.Task;
+
+/**
+ * Writes the task fields requested with {@code fields=} (or all of them),
+ * using the same names, order and formats as the Jackson representation of
+ * {@link Task}. Fields are written straight to the generator and dates are
+ * formatted into a scratch buffer, so a task costs no per-field garbage.
+ *
+ * Instances hold that buffer and must not be shared between requests.
+ */
+public final class TaskProjection {
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(TaskProjection projection, JsonGenerator generator, Task task) throws IOException;
+    }
+
+    private static final Map<String, FieldWriter> FIELDS = new LinkedHashMap<>();
+    // Fields left out of a task that lacks them, like Jackson's @JsonInclude
+    private static final Map<String, Predicate<Task>> OPTIONAL = new HashMap<>();
+
+    static {
+        FIELDS.put("id", (p, g, t) -> g.writeNumber(t.getId()));
+        FIELDS.put("title", (p, g, t) -> g.writeString(t.getTitle()));
+        FIELDS.put("description", (p, g, t) -> g.writeString(t.getDescription()));
+        FIELDS.put("priority", (p, g, t) -> {
+            if (t.getPriority() != null) g.writeString(t.getPriority().name()); else g.writeNull();
+        });
+        FIELDS.put("completed", (p, g, t) -> g.writeBoolean(t.isCompleted()));
+        FIELDS.put("version", (p, g, t) -> g.writeNumber(t.getVersion()));
+        FIELDS.put("recurrence", (p, g, t) -> g.writeString(t.getRecurrence().toString()));
+        FIELDS.put("occurrence", (p, g, t) -> g.writeNumber(t.getOccurrence()));
+        FIELDS.put("dependsOn", (p, g, t) -> {
+            g.writeStartArray();
+            for (int id : t.getDependsOn()) {
+                g.writeNumber(id);
+            }
+            g.writeEndArray();
+        });
+        FIELDS.put("durationMinutes", (p, g, t) -> g.writeNumber(t.getDurationMinutes()));
+        FIELDS.put("dueDate", (p, g, t) -> p.writeDateTime(g, t.getDueDate()));
+        FIELDS.put("createdAt", (p, g, t) -> p.writeDateTime(g, t.getCreatedAt()));
+        OPTIONAL.put("recurrence", Task::isRecurring);
+        OPTIONAL.put("occurrence", t -> t.getOccurrence() != 0);
+        OPTIONAL.put("dependsOn", t -> !t.getDependsOn().isEmpty());
+        OPTIONAL.put("durationMinutes", t -> t.getDurationMinutes() != 0);
+    }
+
+    private final String[] names;
+    private final FieldWriter[] writers;
+    // The OPTIONAL predicate of each field, null if it has none
+    private final List<Predicate<Task>> present;
+    private final char[] scratch = new char[29];
+
+    private TaskProjection(List<String> names) {
+        this.names = names.toArray(new String[0]);
+        this.writers = new FieldWriter[this.names.length];
+        this.present = new ArrayList<>(this.names.length);
+        for (int i = 0; i < this.names.length; i++) {
+            writers[i] = FIELDS.get(this.names[i]);
+            present.add(OPTIONAL.get(this.names[i]));
+        }
+    }
+
+    // Every field, i.e. the full task representation
+    public static TaskProjection all() {
+        return new TaskProjection(new ArrayList<>(FIELDS.keySet()));
+    }
+
+    // Parses a comma-separated field list such as "id,title,dueDate"
+    public static TaskProjection parse(String fields) {
+        List<String> names = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || names.contains(trimmed)) {
+                continue;
+            }
+            if (!FIELDS.containsKey(trimmed)) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No fields requested");
+        }
+        return new TaskProjection(names);
+    }
+
+    public void write(JsonGenerator generator, Task task) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < names.length; i++) {
+            Predicate<Task> has = present.get(i);
+            if (has != null && !has.test(task)) {
+                continue;
+            }
+            generator.writeFieldName(names[i]);
+            writers[i].write(this, generator, task);
+        }
+        generator.writeEndObject();
+    }
+
+    // Same output as DateTimeFormatter.ISO_LOCAL_DATE_TIME, which Task uses
+    private void writeDateTime(JsonGenerator generator, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buf = scratch;
+        digits(buf, 0, year, 4);
+        buf[4] = '-';
+        digits(buf, 5, dateTime.getMonthValue(), 2);
+        buf[7] = '-';
+        digits(buf, 8, dateTime.getDayOfMonth(), 2);
+        buf[10] = 'T';
+        digits(buf, 11, dateTime.getHour(), 2);
+        buf[13] = ':';
+        digits(buf, 14, dateTime.getMinute(), 2);
+        buf[16] = ':';
+        digits(buf, 17, dateTime.getSecond(), 2);
+        int length = 19;
+        int nano = dateTime.getNano();
+        if (nano > 0) {
+            buf[19] = '.';
+            digits(buf, 20, nano, 9);
+            length = 29;
+            // The ISO formatter prints the shortest fraction
+            while (buf[length - 1] == '0') {
+                length--;
+            }
+        }
+        generator.writeString(buf, 0, length);
+    }
+
+    private static void digits(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
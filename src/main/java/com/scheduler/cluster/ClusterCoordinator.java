@@ -0,0 +1,39 @@
+package com.scheduler.cluster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tells the nodes of a cluster about each other. Implementations decide how
+ * members find each other and when one counts as gone; {@link ClusterNode}
+ * only sees the resulting membership lists, and recomputes partition
+ * ownership from each one.
+ */
+public interface ClusterCoordinator extends Closeable {
+
+    // Called with every member, self included, sorted by id
+    @FunctionalInterface
+    interface MembershipListener {
+        void membershipChanged(List<ClusterMember> members);
+    }
+
+    /**
+     * Announces self and keeps it announced until {@link #leave()}. The
+     * listener is called with the current members before this returns, then
+     * after every change, from one thread at a time.
+     */
+    void join(ClusterMember self, MembershipListener listener) throws IOException;
+
+    /**
+     * Reserves count consecutive task ids, none below floor, that no member
+     * has been or will be given, so nodes can create tasks without talking
+     * to each other.
+     *
+     * @return the first reserved id
+     */
+    int reserveIds(int floor, int count) throws IOException;
+
+    // Withdraws self at once, so the others rebalance without waiting for it to time out
+    void leave() throws IOException;
+}
@@ -0,0 +1,50 @@
+package com.scheduler.cluster;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// One node of the cluster: a stable id and the base URL its API answers on
+public final class ClusterMember implements Comparable<ClusterMember> {
+    private final String id;
+    private final String url;
+
+    @JsonCreator
+    public ClusterMember(@JsonProperty("id") String id, @JsonProperty("url") String url) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Cluster member id is required");
+        }
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Cluster member url is required");
+        }
+        this.id = id;
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public String getId() { return id; }
+    public String getUrl() { return url; }
+
+    @Override
+    public int compareTo(ClusterMember other) {
+        return id.compareTo(other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClusterMember)) return false;
+        ClusterMember other = (ClusterMember) o;
+        return id.equals(other.id) && url.equals(other.url);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, url);
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + url;
+    }
+}
@@ -0,0 +1,475 @@
+package com.scheduler.cluster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.controller.TaskPage;
+import com.scheduler.controller.TaskQuery;
+import com.scheduler.controller.TaskSearchResult;
+import com.scheduler.controller.TaskService;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.MetricsRegistry;
+import com.scheduler.model.Task;
+
+/**
+ * This process's place in a cluster. Tasks are hash-partitioned by id (see
+ * {@link PartitionTable}); a node stores only the tasks of the partitions it
+ * owns, so its {@link com.scheduler.controller.ReminderScheduler} covers
+ * exactly its shard.
+ *
+ * <ul>
+ * <li>New tasks get ids from blocks reserved through the coordinator,
+ * skipping ids of partitions owned elsewhere, so they are created where
+ * they belong.</li>
+ * <li>On every membership change a background pass pages through the local
+ * tasks and hands those now owned elsewhere to their owner, then deletes
+ * them here unless they changed meanwhile. Leaving hands off everything, so
+ * a node restarted gracefully leaves no gap in reminders; a node that
+ * crashes takes its shard with it until it returns.</li>
+ * <li>The REST layer forwards requests for a task to its owner, and asks
+ * every node for its share of lists and searches ({@link #gatherPage},
+ * {@link #gatherSearch}).</li>
+ * </ul>
+ *
+ * Reminders are delivered at least once: a reminder that fired just before
+ * its task moved can fire again on the new owner.
+ */
+public class ClusterNode implements Closeable {
+    // Marks a request one node sent another, which is always served locally
+    public static final String FORWARDED_HEADER = "X-Scheduler-Forwarded";
+    public static final String HANDOFF_PATH = "/api/cluster/handoff";
+    // Carries the shared secret on every request to another member
+    public static final String SECRET_HEADER = "X-Scheduler-Cluster-Secret";
+    private static final AsyncLogger log = AsyncLogger.get(ClusterNode.class);
+    private static final int ID_BLOCK_SIZE = 1024;
+    private static final int HANDOFF_BATCH_SIZE = 500;
+    private static final long HANDOFF_RETRY_MILLIS = 5000;
+    private static final Counter handedOff = MetricsRegistry.getDefault().counter(
+            "scheduler_cluster_tasks_handed_off_total", "Tasks handed to the node that now owns them");
+    private static final Counter handoffFailures = MetricsRegistry.getDefault().counter(
+            "scheduler_cluster_handoff_failures_total", "Handoff batches another node did not accept");
+
+    private final ClusterMember self;
+    private final ClusterCoordinator coordinator;
+    private final TaskService taskService;
+    private final int partitions;
+    private final Duration timeout;
+    // Shared by the members; null if they only trust requests from this host
+    private final String secret;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService handoff;
+    private volatile PartitionTable table;
+    // Current id block; guarded by this
+    private int nextId;
+    private int blockEnd;
+    // A handoff pass is scheduled and has not started; guarded by this
+    private boolean handoffPending;
+
+    public ClusterNode(ClusterMember self, ClusterCoordinator coordinator, TaskService taskService, int partitions,
+                       Duration timeout, String secret) {
+        this.self = self;
+        this.coordinator = coordinator;
+        this.taskService = taskService;
+        this.partitions = partitions;
+        this.timeout = timeout;
+        this.secret = secret;
+        this.table = new PartitionTable(List.of(self), partitions);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.handoff = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-handoff");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getDefault().gauge("scheduler_cluster_members", "Live members of the cluster",
+                () -> table.getMembers().size());
+        MetricsRegistry.getDefault().gauge("scheduler_cluster_partitions_owned", "Partitions this node owns",
+                () -> table.partitionsOwnedBy(self));
+    }
+
+    // Joins the cluster and takes over id allocation from the repository
+    public void start() throws IOException {
+        taskService.setIdAllocator(this::allocateId);
+        coordinator.join(self, this::membershipChanged);
+    }
+
+    private void membershipChanged(List<ClusterMember> members) {
+        PartitionTable updated = new PartitionTable(members, partitions);
+        table = updated;
+        log.info("🧭 Cluster members: " + members + "; this node owns " + updated.partitionsOwnedBy(self)
+                + " of " + partitions + " partitions");
+        scheduleHandoff(0);
+    }
+
+    private synchronized void scheduleHandoff(long delayMillis) {
+        if (!handoffPending && !handoff.isShutdown()) {
+            handoffPending = true;
+            handoff.schedule(this::handOff, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Pages through the local tasks in list order and hands each one owned
+     * elsewhere to its owner. A task is deleted here only once its owner has
+     * it on disk, and only if it did not change meanwhile; anything left
+     * behind is retried by a later pass.
+     */
+    private void handOff() {
+        synchronized (this) {
+            handoffPending = false;
+        }
+        PartitionTable current = table;
+        boolean retry = false;
+        int moved = 0;
+        TaskQuery page = new TaskQuery();
+        page.setLimit(HANDOFF_BATCH_SIZE);
+        try {
+            String cursor;
+            do {
+                Map<ClusterMember, List<Task>> moving = new LinkedHashMap<>();
+                cursor = taskService.visitTasks(page, task -> {
+                    ClusterMember owner = current.ownerOf(task.getId());
+                    if (owner != null && !owner.equals(self)) {
+                        moving.computeIfAbsent(owner, member -> new ArrayList<>()).add(task);
+                    }
+                });
+                for (Map.Entry<ClusterMember, List<Task>> batch : moving.entrySet()) {
+                    try {
+                        send(batch.getKey(), batch.getValue());
+                    } catch (IOException e) {
+                        handoffFailures.inc();
+                        log.warn("⚠️ Handoff to " + batch.getKey() + " failed: " + e.getMessage());
+                        retry = true;
+                        continue;
+                    }
+                    List<Integer> changed = taskService.releaseTasks(batch.getValue());
+                    moved += batch.getValue().size() - changed.size();
+                    retry |= !changed.isEmpty();
+                }
+                page.setCursor(cursor != null ? TaskKey.fromCursor(cursor) : null);
+                // A newer membership has its own pass queued
+            } while (cursor != null && table == current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            log.error("❌ Handoff pass failed: " + e.getMessage(), e);
+            retry = true;
+        }
+        if (moved > 0) {
+            handedOff.add(moved);
+            log.info("📦 Handed " + moved + " tasks to their new owners");
+        }
+        if (retry) {
+            scheduleHandoff(HANDOFF_RETRY_MILLIS);
+        }
+    }
+
+    private void send(ClusterMember owner, List<Task> tasks) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = forward(owner, "POST", HANDOFF_PATH, objectMapper.writeValueAsBytes(tasks),
+                Map.of("Content-Type", "application/json"));
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(owner + " answered " + response.statusCode());
+        }
+    }
+
+    /**
+     * Whether a request comes from another member, and so may hand over
+     * tasks: it carries the shared secret or, when there is none, it comes
+     * from this host.
+     */
+    public boolean isPeer(String secretHeader, String remoteAddress) {
+        if (secret != null) {
+            return secretHeader != null && MessageDigest.isEqual(
+                    secretHeader.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return remoteAddress != null && InetAddress.getByName(remoteAddress).isLoopbackAddress();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Stores tasks another node handed over; answers only once they are on disk
+    public void adopt(byte[] body) throws IOException {
+        List<Task> tasks = objectMapper.readValue(body, new TypeReference<List<Task>>() {});
+        taskService.adoptTasks(tasks);
+        try {
+            taskService.flush().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Adopted tasks are not on disk yet", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving adopted tasks", e);
+        }
+    }
+
+    // Called under the task service's write lock; only returns ids this node owns
+    private synchronized int allocateId() {
+        PartitionTable current = table;
+        if (current.partitionsOwnedBy(self) == 0) {
+            throw new IllegalStateException("This node owns no partitions; create tasks on another node");
+        }
+        while (true) {
+            if (nextId == blockEnd) {
+                try {
+                    nextId = coordinator.reserveIds(taskService.getNextId(), ID_BLOCK_SIZE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to reserve task ids", e);
+                }
+                blockEnd = nextId + ID_BLOCK_SIZE;
+            }
+            int id = nextId++;
+            if (self.equals(current.ownerOf(id))) {
+                return id;
+            }
+        }
+    }
+
+    public ClusterMember getSelf() { return self; }
+    public PartitionTable getTable() { return table; }
+
+    public boolean isLocal(int taskId) {
+        ClusterMember owner = table.ownerOf(taskId);
+        return owner == null || owner.equals(self);
+    }
+
+    public ClusterMember ownerOf(int taskId) {
+        return table.ownerOf(taskId);
+    }
+
+    // Some member that can create tasks, preferring this one
+    public ClusterMember creator() {
+        PartitionTable current = table;
+        return current.partitionsOwnedBy(self) > 0 ? self : current.ownerOfPartition(0);
+    }
+
+    public List<ClusterMember> peers() {
+        List<ClusterMember> peers = new ArrayList<>(table.getMembers());
+        peers.remove(self);
+        return peers;
+    }
+
+    /**
+     * Sends one request to another member, marked as forwarded so that it is
+     * served there whatever that member's view of the partitions.
+     */
+    public HttpResponse<byte[]> forward(ClusterMember member, String method, String pathAndQuery, byte[] body,
+                                        Map<String, String> headers) throws IOException, InterruptedException {
+        return client.send(request(member, method, pathAndQuery, body, headers),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest request(ClusterMember member, String method, String pathAndQuery, byte[] body,
+                                Map<String, String> headers) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(member.getUrl() + pathAndQuery))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, self.getId())
+                .method(method, body != null && body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (secret != null) {
+            request.header(SECRET_HEADER, secret);
+        }
+        headers.forEach(request::header);
+        return request.build();
+    }
+
+    /**
+     * Runs a task query on every member and merges the pages in list order.
+     * Every shard's page starts at the same cursor, so the first limit tasks
+     * of their union are exactly the cluster's page, and keyset cursors stay
+     * valid across shards.
+     *
+     * @param pathAndQuery the same query for the other members, which must
+     *                     answer with full tasks in JSON
+     */
+    public TaskPage gatherPage(TaskQuery query, String pathAndQuery) throws IOException, InterruptedException {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = fanOut(pathAndQuery);
+        TaskPage local = taskService.queryTasks(query);
+        List<Task> tasks = new ArrayList<>(local.getTasks());
+        boolean more = local.getNextCursor() != null;
+        for (JsonNode shard : await(responses)) {
+            JsonNode shardTasks = shard.isArray() ? shard : shard.path("tasks");
+            for (JsonNode task : shardTasks) {
+                tasks.add(remoteTask(task));
+            }
+            more |= shard.hasNonNull("nextCursor");
+        }
+        tasks.sort(Comparator.comparing(TaskKey::of));
+        if (tasks.size() > query.getLimit()) {
+            tasks = tasks.subList(0, query.getLimit());
+            more = true;
+        }
+        String nextCursor = more && !tasks.isEmpty() ? TaskKey.of(tasks.get(tasks.size() - 1)).toCursor() : null;
+        return new TaskPage(tasks, nextCursor);
+    }
+
+    // A task another member listed; its version is the owner's, which clients may not set
+    private Task remoteTask(JsonNode json) throws IOException {
+        Task task = objectMapper.treeToValue(json, Task.class);
+        task.setVersion(json.path("version").asLong());
+        return task;
+    }
+
+    /**
+     * Runs a search on every member and keeps the best limit matches. Scores
+     * weigh terms by their frequency in each shard, which for shards of a
+     * hash partitioning is close to the frequency in the whole cluster.
+     */
+    public TaskSearchResult gatherSearch(String q, int limit, String pathAndQuery)
+            throws IOException, InterruptedException {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = fanOut(pathAndQuery);
+        TaskSearchResult local = taskService.search(q, limit);
+        List<Task> tasks = new ArrayList<>(local.getTasks());
+        List<Float> scores = new ArrayList<>(local.getScores());
+        int total = local.getTotal();
+        for (JsonNode shard : await(responses)) {
+            total += shard.path("total").asInt();
+            for (JsonNode hit : shard.path("results")) {
+                tasks.add(remoteTask(hit.get("task")));
+                scores.add(hit.path("score").floatValue());
+            }
+        }
+        List<Integer> order = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingDouble(i -> -scores.get(i))
+                .thenComparingInt(i -> tasks.get(i).getId()));
+        List<Task> bestTasks = new ArrayList<>(Math.min(limit, order.size()));
+        List<Float> bestScores = new ArrayList<>(Math.min(limit, order.size()));
+        for (int i = 0; i < order.size() && i < limit; i++) {
+            bestTasks.add(tasks.get(order.get(i)));
+            bestScores.add(scores.get(order.get(i)));
+        }
+        return new TaskSearchResult(total, bestTasks, bestScores);
+    }
+
+    /**
+     * Adds up every member's statistics: each number in the local report gets
+     * the same field of the others added, and arrays such as a burndown series
+     * are added element by element. Every other value is the local one.
+     */
+    public JsonNode gatherStatistics(JsonNode local, String pathAndQuery) throws IOException, InterruptedException {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = fanOut(pathAndQuery);
+        JsonNode total = local.deepCopy();
+        for (JsonNode shard : await(responses)) {
+            total = sum(total, shard);
+        }
+        return total;
+    }
+
+    private static JsonNode sum(JsonNode total, JsonNode shard) {
+        if (total.isIntegralNumber() && shard.isIntegralNumber()) {
+            return LongNode.valueOf(total.longValue() + shard.longValue());
+        }
+        if (total.isObject()) {
+            ObjectNode object = (ObjectNode) total;
+            object.fieldNames().forEachRemaining(name -> {
+                if (shard.has(name)) {
+                    object.set(name, sum(object.get(name), shard.get(name)));
+                }
+            });
+        } else if (total.isArray()) {
+            ArrayNode array = (ArrayNode) total;
+            for (int i = 0; i < array.size() && i < shard.size(); i++) {
+                array.set(i, sum(array.get(i), shard.get(i)));
+            }
+        }
+        return total;
+    }
+
+    private List<CompletableFuture<HttpResponse<byte[]>>> fanOut(String pathAndQuery) {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (ClusterMember peer : peers()) {
+            responses.add(client.sendAsync(request(peer, "GET", pathAndQuery, null,
+                    Map.of("Accept", "application/json")), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        return responses;
+    }
+
+    // Every member must answer: a result missing a shard would look complete
+    private List<JsonNode> await(List<CompletableFuture<HttpResponse<byte[]>>> responses)
+            throws IOException, InterruptedException {
+        List<JsonNode> bodies = new ArrayList<>(responses.size());
+        for (CompletableFuture<HttpResponse<byte[]>> pending : responses) {
+            HttpResponse<byte[]> response;
+            try {
+                response = pending.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Cluster member unreachable: " + e.getCause().getMessage(), e.getCause());
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException(response.uri().getAuthority() + " answered " + response.statusCode());
+            }
+            bodies.add(objectMapper.readTree(response.body()));
+        }
+        return bodies;
+    }
+
+    /**
+     * Leaves the cluster and hands every local task to the remaining members,
+     * waiting up to the given time. Without other members the tasks stay here.
+     */
+    public void leave(Duration wait) {
+        try {
+            coordinator.leave();
+        } catch (IOException e) {
+            log.warn("⚠️ Could not announce leaving the cluster: " + e.getMessage());
+        }
+        List<ClusterMember> remaining = peers();
+        if (remaining.isEmpty()) {
+            return;
+        }
+        table = new PartitionTable(remaining, partitions);
+        try {
+            handoff.submit(this::handOff).get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("⚠️ Not every task was handed off before leaving: " + e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        handoff.shutdownNow();
+        coordinator.close();
+    }
+}
@@ -0,0 +1,175 @@
+package com.scheduler.cluster;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.logging.AsyncLogger;
+
+/**
+ * Coordinates through a directory every node can reach: a shared volume, or
+ * just a local directory when several processes run on one machine.
+ *
+ * <ul>
+ * <li>{@code members/<id>.json} announces a member; its modification time is
+ * the heartbeat, refreshed every interval. A member whose file is older than
+ * three intervals counts as gone.</li>
+ * <li>{@code next-id} holds the next unreserved task id, read and advanced
+ * under an exclusive file lock.</li>
+ * </ul>
+ *
+ * Clocks of the nodes must roughly agree, since heartbeats are compared
+ * against the reader's clock.
+ */
+public class FileClusterCoordinator implements ClusterCoordinator {
+    private static final AsyncLogger log = AsyncLogger.get(FileClusterCoordinator.class);
+    private static final int MISSED_HEARTBEATS = 3;
+
+    private final Path membersDir;
+    private final Path idFile;
+    private final long heartbeatMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService heartbeat;
+    private ClusterMember self;
+    private Path selfFile;
+    private MembershipListener listener;
+    // Last list handed to the listener; guarded by this
+    private List<ClusterMember> members = List.of();
+
+    public FileClusterCoordinator(Path dir, Duration heartbeatInterval) {
+        this.membersDir = dir.resolve("members");
+        this.idFile = dir.resolve("next-id");
+        this.heartbeatMillis = heartbeatInterval.toMillis();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized void join(ClusterMember self, MembershipListener listener) throws IOException {
+        if (this.self != null) {
+            throw new IllegalStateException("Already joined as " + this.self);
+        }
+        Files.createDirectories(membersDir);
+        this.self = self;
+        this.selfFile = membersDir.resolve(fileName(self.getId()));
+        this.listener = listener;
+        Path temp = membersDir.resolve(selfFile.getFileName() + ".tmp");
+        Files.write(temp, objectMapper.writeValueAsBytes(self));
+        Files.move(temp, selfFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        tick();
+        heartbeat.scheduleWithFixedDelay(this::beat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void beat() {
+        try {
+            synchronized (this) {
+                if (selfFile == null) {
+                    return;
+                }
+                Files.setLastModifiedTime(selfFile, FileTime.fromMillis(System.currentTimeMillis()));
+                tick();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Cluster heartbeat failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("❌ Cluster membership listener failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Reads the live members and tells the listener if they changed
+    private void tick() throws IOException {
+        List<ClusterMember> live = new ArrayList<>();
+        long oldest = System.currentTimeMillis() - MISSED_HEARTBEATS * heartbeatMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(membersDir, "*.json")) {
+            for (Path file : files) {
+                try {
+                    if (!file.equals(selfFile) && Files.getLastModifiedTime(file).toMillis() < oldest) {
+                        continue;
+                    }
+                    live.add(objectMapper.readValue(file.toFile(), ClusterMember.class));
+                } catch (NoSuchFileException e) {
+                    // Left while we were reading
+                } catch (IOException e) {
+                    log.warn("⚠️ Ignoring unreadable cluster member file " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        Collections.sort(live);
+        if (!live.equals(members)) {
+            members = List.copyOf(live);
+            listener.membershipChanged(members);
+        }
+    }
+
+    @Override
+    public synchronized int reserveIds(int floor, int count) throws IOException {
+        Files.createDirectories(idFile.getParent());
+        try (FileChannel channel = FileChannel.open(idFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Held until the channel is closed
+            channel.lock();
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            while (channel.read(buffer) > 0 && buffer.hasRemaining()) {
+                // Fill the buffer
+            }
+            String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+            int next = Math.max(text.isEmpty() ? 1 : Integer.parseInt(text), Math.max(floor, 1));
+            if (next > Integer.MAX_VALUE - count) {
+                throw new IOException("Task ids are exhausted");
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Integer.toString(next + count).getBytes(StandardCharsets.US_ASCII)), 0);
+            channel.force(true);
+            return next;
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt id counter " + idFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void leave() throws IOException {
+        if (selfFile != null) {
+            Files.deleteIfExists(selfFile);
+            selfFile = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        heartbeat.shutdownNow();
+        leave();
+    }
+
+    // Member ids become file names; anything unusual in them is escaped
+    private static String fileName(String id) {
+        StringBuilder name = new StringBuilder(id.length() + 5);
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-' || c == '.') {
+                name.append(c);
+            } else {
+                name.append('_').append(Integer.toHexString(c)).append('_');
+            }
+        }
+        return name.append(".json").toString();
+    }
+}
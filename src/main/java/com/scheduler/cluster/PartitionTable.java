@@ -0,0 +1,76 @@
+package com.scheduler.cluster;
+
+import java.util.List;
+
+/**
+ * Which member owns which partition. A task belongs to partition
+ * hash(id) mod partitions, and each partition to the member with the highest
+ * hash of (member, partition): rendezvous hashing, so a member joining or
+ * leaving moves only the partitions it gains or loses, about 1/n of them.
+ * Instances are immutable; a membership change builds a new one.
+ */
+public final class PartitionTable {
+    private final List<ClusterMember> members;
+    private final ClusterMember[] owners;
+
+    public PartitionTable(List<ClusterMember> members, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("There must be at least one partition");
+        }
+        this.members = List.copyOf(members);
+        this.owners = new ClusterMember[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            long best = Long.MIN_VALUE;
+            for (ClusterMember member : this.members) {
+                long weight = mix(((long) member.getId().hashCode() << 32) | partition);
+                if (owners[partition] == null || weight > best) {
+                    owners[partition] = member;
+                    best = weight;
+                }
+            }
+        }
+    }
+
+    public static int partitionOf(int taskId, int partitions) {
+        int h = taskId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, partitions);
+    }
+
+    public int partitionOf(int taskId) {
+        return partitionOf(taskId, owners.length);
+    }
+
+    // Null only when the cluster has no members
+    public ClusterMember ownerOf(int taskId) {
+        return owners[partitionOf(taskId)];
+    }
+
+    public ClusterMember ownerOfPartition(int partition) {
+        return owners[partition];
+    }
+
+    public int partitionsOwnedBy(ClusterMember member) {
+        int owned = 0;
+        for (ClusterMember owner : owners) {
+            if (member.equals(owner)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    public List<ClusterMember> getMembers() { return members; }
+    public int getPartitions() { return owners.length; }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
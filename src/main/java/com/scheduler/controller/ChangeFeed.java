@@ -0,0 +1,184 @@
+package com.scheduler.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.model.Task;
+
+/**
+ * Versioned record of every task mutation, kept in a bounded ring buffer.
+ *
+ * Each change is tagged with the service version it produced (see
+ * {@link TaskService#getVersion()}) and serialized once, when it happens, as
+ * {"version", "type", "id", "task"}. Readers ask for everything
+ * after the version they have seen, so a client that already holds the task
+ * list only ever downloads what changed since. Once a reader falls further
+ * behind than the buffer holds, {@link #changesSince(long, int)} returns null
+ * and the client has to reload the list.
+ *
+ * Versions start over on every start of the process, from the highest
+ * stored version (see {@link TaskService#getVersion()}).
+ *
+ * Guarded by a ReentrantLock rather than a monitor: stream handlers sit in
+ * {@link #awaitChangesSince} for seconds at a time, and a virtual thread
+ * waiting on a Condition releases its carrier thread where Object.wait
+ * would pin it.
+ */
+public class ChangeFeed implements TaskListener {
+    public static final String UPSERT = "upsert";
+    public static final String DELETE = "delete";
+
+    public static final class Change {
+        private final long version;
+        private final String type;
+        private final int taskId;
+        private final byte[] json;
+
+        Change(long version, String type, int taskId, byte[] json) {
+            this.version = version;
+            this.type = type;
+            this.taskId = taskId;
+            this.json = json;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getTaskId() {
+            return taskId;
+        }
+
+        // The serialized change; shared by every reader, so never modify it
+        public byte[] getJson() {
+            return json;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final LongSupplier versionSource;
+    private final Change[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // Changes up to this version happened before the feed was attached
+    private final long startVersion;
+    private long version;
+
+    // versionSource must already reflect a change when the listener is called
+    public ChangeFeed(ObjectMapper objectMapper, int capacity, LongSupplier versionSource) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.ring = new Change[capacity];
+        this.versionSource = versionSource;
+        this.startVersion = versionSource.getAsLong();
+        this.version = startVersion;
+    }
+
+    @Override
+    public void taskSaved(Task task) {
+        // Serialized once on the writing thread and shared by every reader
+        lock.lock();
+        try {
+            long next = versionSource.getAsLong();
+            append(new Change(next, UPSERT, task.getId(), serialize(next, UPSERT, task.getId(), task)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void taskDeleted(int taskId) {
+        lock.lock();
+        try {
+            long next = versionSource.getAsLong();
+            append(new Change(next, DELETE, taskId, serialize(next, DELETE, taskId, null)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(Change change) {
+        ring[(int) (change.version % ring.length)] = change;
+        version = change.version;
+        appended.signalAll();
+    }
+
+    public long currentVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to max changes after the given version, oldest first. Empty when
+     * the reader is up to date; null when changes it has not seen were
+     * already overwritten, or the version is from an earlier process.
+     */
+    public List<Change> changesSince(long since, int max) {
+        lock.lock();
+        try {
+            if (since > version || since < Math.max(startVersion, version - ring.length)) {
+                return null;
+            }
+            int count = (int) Math.min(version - since, max);
+            List<Change> changes = new ArrayList<>(count);
+            for (long v = since + 1; v <= since + count; v++) {
+                changes.add(ring[(int) (v % ring.length)]);
+            }
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Like changesSince, but waits up to timeoutMillis for something newer to arrive
+    public List<Change> awaitChangesSince(long since, int max, long timeoutMillis)
+            throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (version == since && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            return changesSince(since, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] serialize(long changeVersion, String type, int taskId, Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("version", changeVersion);
+            generator.writeStringField("type", type);
+            generator.writeNumberField("id", taskId);
+            if (task != null) {
+                generator.writeFieldName("task");
+                objectMapper.writeValue(generator, task);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,54 +1,408 @@
 package com.scheduler.controller;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import com.scheduler.index.DependencyGraph;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
 import com.scheduler.model.Task;
+import com.scheduler.reminder.FiredReminders;
+import com.scheduler.reminder.ReminderDispatcher;
+import com.scheduler.reminder.ReminderEvent;
+import com.scheduler.reminder.ReminderType;
+import com.scheduler.storage.ColumnarTaskStore;
+
+/**
+ * Fires "due soon", "overdue" and "at risk" reminders at their exact boundaries.
+ *
+ * Every pending task contributes at most two deadlines to an ordered queue:
+ * its due date minus 24 hours and its due date. A single timer is armed for
+ * the earliest deadline, so the scheduler sleeps until something is actually
+ * due and does work proportional to the reminders fired, not the task count.
+ * TaskService mutations reschedule a task through {@link TaskListener}.
+ * The startup pass reads only the ids and due dates of pending tasks, and a
+ * Task is fetched only for a reminder that actually fires.
+ * A recurring task is due at its current occurrence only, so it has one
+ * schedule like any other task; completing the occurrence saves the task
+ * with its next due date, which reschedules it.
+ *
+ * Only reminders firing within a horizon (an hour by default) are queued.
+ * When the timer reaches the end of the window, the next one is loaded with
+ * a range query on pending due dates, so memory holds the reminders of the
+ * next hour rather than one per task, however many tasks are stored.
+ *
+ * A task waiting for prerequisites is at risk from the instant doing its
+ * critical path back to back would end after its due date (see
+ * {@link DependencyGraph}). That instant moves with every change along the
+ * chain, so its reminder is queued apart from the task's schedule, replaced
+ * as TaskService reports new instants, and checked again before firing.
+ *
+ * Fired reminders are handed to a {@link ReminderDispatcher}, which delivers
+ * them to the configured sinks on its own threads, and recorded in
+ * {@link FiredReminders} so that a restart does not fire them again.
+ */
+public class ReminderScheduler implements TaskListener {
+    private static final AsyncLogger log = AsyncLogger.get(ReminderScheduler.class);
+    private static final long DUE_SOON_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(24);
+    public static final Duration DEFAULT_HORIZON = Duration.ofHours(1);
+    // Widens window queries across a daylight saving shift; loading a reminder twice is harmless
+    private static final long ZONE_SHIFT_NANOS = TimeUnit.HOURS.toNanos(2);
+    private static final LatencyHistogram lag = MetricsRegistry.getDefault().histogram(
+            "scheduler_reminder_lag_seconds", "Delay between a reminder's boundary and it firing");
+    private static final MetricsRegistry.Labeled<Counter> fired = MetricsRegistry.getDefault().counter(
+            "scheduler_reminders_fired_total", "Reminders fired", "type");
+
+    private static final class Reminder implements Comparable<Reminder> {
+        private final long fireAt;
+        // Reminders created after their boundary fire at once; lag counts from here
+        private final long queuedAt = System.currentTimeMillis();
+        private final int taskId;
+        private final ReminderType type;
+        // Due date the reminder was computed from; a reminder for an older one is stale
+        private final long dueMillis;
+
+        Reminder(long fireAt, int taskId, ReminderType type, long dueMillis) {
+            this.fireAt = fireAt;
+            this.taskId = taskId;
+            this.type = type;
+            this.dueMillis = dueMillis;
+        }
+
+        @Override
+        public int compareTo(Reminder other) {
+            int timeComparison = Long.compare(fireAt, other.fireAt);
+            if (timeComparison != 0) return timeComparison;
+            int idComparison = Integer.compare(taskId, other.taskId);
+            if (idComparison != 0) return idComparison;
+            return type.compareTo(other.type);
+        }
+    }
+
+    // Queued deadlines of one task. A fired reminder stays in its slot until it
+    // is recorded in FiredReminders, so a save in between does not queue it again;
+    // the schedule is dropped once both slots are empty.
+    private static final class TaskSchedule {
+        private final long dueMillis;
+        private Reminder dueSoon;
+        private Reminder overdue;
+
+        TaskSchedule(long dueMillis) {
+            this.dueMillis = dueMillis;
+        }
+    }
 
-public class ReminderScheduler {
     private final TaskService taskService;
+    private final ReminderDispatcher dispatcher;
+    private final FiredReminders firedReminders;
     private final ScheduledExecutorService scheduler;
-    
-    public ReminderScheduler(TaskService taskService) {
+    private final TreeSet<Reminder> queue = new TreeSet<>();
+    private final Map<Integer, TaskSchedule> schedules = new HashMap<>();
+    // Queued at-risk reminders by task; one stays until it is recorded, like a schedule's slots
+    private final Map<Integer, Reminder> risks = new HashMap<>();
+    private final long horizonMillis;
+    // Reminders firing before this are queued; later ones are loaded when it is reached
+    private long windowEnd;
+    private ScheduledFuture<?> wakeup;
+    private long wakeupAt = Long.MAX_VALUE;
+    private boolean running;
+
+    public ReminderScheduler(TaskService taskService, ReminderDispatcher dispatcher, FiredReminders firedReminders) {
+        this(taskService, dispatcher, firedReminders, DEFAULT_HORIZON);
+    }
+
+    // Takes ownership of the dispatcher and the fired reminders, and closes both in stop()
+    public ReminderScheduler(TaskService taskService, ReminderDispatcher dispatcher, FiredReminders firedReminders,
+            Duration horizon) {
+        if (horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException("Reminder horizon must be positive");
+        }
         this.taskService = taskService;
+        this.dispatcher = dispatcher;
+        this.firedReminders = firedReminders;
+        this.horizonMillis = horizon.toMillis();
         this.scheduler = Executors.newScheduledThreadPool(1);
+        MetricsRegistry.getDefault().gauge("scheduler_reminder_queue_size",
+                "Reminders waiting for their boundary", this::queueSize);
+    }
+
+    public synchronized int queueSize() {
+        return queue.size();
     }
-    
+
     public void start() {
-        scheduler.scheduleAtFixedRate(this::checkReminders, 0, 30, TimeUnit.SECONDS);
-        System.out.println("🔔 Reminder scheduler started");
+        // Register first so nothing changed during the initial pass is missed
+        taskService.addTaskListener(this);
+        synchronized (this) {
+            running = true;
+            windowEnd = System.currentTimeMillis() + horizonMillis;
+            // Everything overdue but not yet reminded, and all that fires within the window
+            load(Long.MIN_VALUE, windowEnd + DUE_SOON_WINDOW_MILLIS);
+            taskService.forEachAtRisk(Long.MIN_VALUE, windowEnd, this::scheduleRisk);
+            armWakeup();
+        }
+        log.info("🔔 Reminder scheduler started");
     }
-    
+
     public void stop() {
+        synchronized (this) {
+            running = false;
+            if (wakeup != null) {
+                wakeup.cancel(false);
+            }
+        }
         scheduler.shutdown();
-        System.out.println("🔔 Reminder scheduler stopped");
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcher.close();
+        try {
+            firedReminders.close();
+        } catch (IOException e) {
+            log.error("Failed to save fired reminders", e);
+        }
+        log.info("🔔 Reminder scheduler stopped");
     }
-    
-    private void checkReminders() {
-        List<Task> pendingTasks = taskService.getPendingTasks();
-        LocalDateTime now = LocalDateTime.now();
-        
-        for (Task task : pendingTasks) {
-            if (isDueSoon(task, now)) {
-                System.out.printf("⏰ REMINDER: Task '%s' is due soon!%n", task.getTitle());
+
+    @Override
+    public synchronized void taskSaved(Task task) {
+        if (task.isCompleted() || task.getDueDate() == null) {
+            unschedule(task.getId());
+            unscheduleRisk(task.getId());
+            armWakeup();
+            if (task.isCompleted()) {
+                forget(task.getId());
             }
-            
-            if (isOverdue(task, now)) {
-                System.out.printf("🚨 OVERDUE: Task '%s' is overdue!%n", task.getTitle());
+            return;
+        }
+
+        schedule(task.getId(), toEpochMillis(task.getDueDate()));
+        armWakeup();
+    }
+
+    // Queues the task's reminders that fire within the window and are neither
+    // fired nor queued yet, so it can be called again for the same task
+    private void schedule(int taskId, long dueMillis) {
+        TaskSchedule schedule = schedules.get(taskId);
+        if (schedule == null || schedule.dueMillis != dueMillis) {
+            unschedule(taskId);
+            schedule = new TaskSchedule(dueMillis);
+        }
+
+        long dueSoonAt = dueMillis - DUE_SOON_WINDOW_MILLIS;
+        if (schedule.dueSoon == null && dueSoonAt < windowEnd && System.currentTimeMillis() < dueMillis
+                && !firedReminders.hasFired(taskId, dueMillis, ReminderType.DUE_SOON)) {
+            schedule.dueSoon = new Reminder(dueSoonAt, taskId, ReminderType.DUE_SOON, dueMillis);
+            queue.add(schedule.dueSoon);
+        }
+        if (schedule.overdue == null && dueMillis < windowEnd
+                && !firedReminders.hasFired(taskId, dueMillis, ReminderType.OVERDUE)) {
+            schedule.overdue = new Reminder(dueMillis, taskId, ReminderType.OVERDUE, dueMillis);
+            queue.add(schedule.overdue);
+        }
+        if (schedule.dueSoon != null || schedule.overdue != null) {
+            schedules.put(taskId, schedule);
+        }
+    }
+
+    @Override
+    public synchronized void taskRiskChanged(int taskId, long atRiskMillis, long dueMillis) {
+        unscheduleRisk(taskId);
+        scheduleRisk(taskId, atRiskMillis, dueMillis);
+        armWakeup();
+    }
+
+    // Queues the at-risk reminder if it fires within the window and has not fired for this due date
+    private void scheduleRisk(int taskId, long atRiskMillis, long dueMillis) {
+        if (atRiskMillis == DependencyGraph.NOT_AT_RISK || atRiskMillis >= windowEnd || risks.containsKey(taskId)
+                || firedReminders.hasFired(taskId, dueMillis, ReminderType.AT_RISK)) {
+            return;
+        }
+        Reminder reminder = new Reminder(atRiskMillis, taskId, ReminderType.AT_RISK, dueMillis);
+        risks.put(taskId, reminder);
+        queue.add(reminder);
+    }
+
+    private void unscheduleRisk(int taskId) {
+        Reminder reminder = risks.remove(taskId);
+        if (reminder != null) {
+            queue.remove(reminder);
+        }
+    }
+
+    // Schedules every pending task due in [fromMillis, toMillis)
+    private void load(long fromMillis, long toMillis) {
+        long fromNanos = fromMillis == Long.MIN_VALUE ? Long.MIN_VALUE : toDueNanos(fromMillis) - ZONE_SHIFT_NANOS;
+        long toNanos = toDueNanos(toMillis) + ZONE_SHIFT_NANOS;
+        taskService.forEachPendingDue(fromNanos, toNanos,
+                (id, dueEpochNanos) -> schedule(id, toEpochMillis(dueEpochNanos)));
+    }
+
+    // Moves the window past now, loading the reminders that start firing in it:
+    // overdue ones of tasks due in the new part, due soon ones of tasks due a day later
+    private void extendWindow(long now) {
+        if (now < windowEnd) {
+            return;
+        }
+        long start = windowEnd;
+        windowEnd = now + horizonMillis;
+        load(start, windowEnd);
+        load(start + DUE_SOON_WINDOW_MILLIS, windowEnd + DUE_SOON_WINDOW_MILLIS);
+        taskService.forEachAtRisk(start, windowEnd, this::scheduleRisk);
+    }
+
+    @Override
+    public synchronized void taskDeleted(int taskId) {
+        unschedule(taskId);
+        unscheduleRisk(taskId);
+        armWakeup();
+        forget(taskId);
+    }
+
+    private void forget(int taskId) {
+        try {
+            firedReminders.forget(taskId);
+        } catch (IOException e) {
+            log.error("Failed to record fired reminders", e);
+        }
+    }
+
+    private void unschedule(int taskId) {
+        TaskSchedule schedule = schedules.remove(taskId);
+        if (schedule != null) {
+            if (schedule.dueSoon != null) queue.remove(schedule.dueSoon);
+            if (schedule.overdue != null) queue.remove(schedule.overdue);
+        }
+    }
+
+    // Points the single timer at the earliest deadline or the end of the window, if it moved
+    private void armWakeup() {
+        if (!running) {
+            return;
+        }
+        long next = queue.isEmpty() ? windowEnd : Math.min(queue.first().fireAt, windowEnd);
+        if (wakeup != null && !wakeup.isDone() && wakeupAt <= next) {
+            return;
+        }
+        if (wakeup != null) {
+            wakeup.cancel(false);
+        }
+        wakeupAt = next;
+        long delay = Math.max(0, next - System.currentTimeMillis());
+        wakeup = scheduler.schedule(this::checkReminders, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Fires every reminder whose boundary has passed, then re-arms the timer.
+    // Normally run by the timer; public so benchmarks can drive it directly.
+    public void checkReminders() {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            wakeup = null;
+            wakeupAt = Long.MAX_VALUE;
+            long now = System.currentTimeMillis();
+            if (running) {
+                extendWindow(now);
+            }
+            while (!queue.isEmpty() && queue.first().fireAt <= now) {
+                due.add(queue.pollFirst());
+            }
+            armWakeup();
+        }
+
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            fire(due);
+        } finally {
+            release(due);
+        }
+    }
+
+    private void fire(List<Reminder> due) {
+        long firedAt = System.currentTimeMillis();
+        // The tasks these reminders are for move between the dashboard counts now, not at the next read
+        taskService.advanceStatistics(LocalDateTime.ofInstant(Instant.ofEpochMilli(firedAt), ZoneId.systemDefault()));
+        try {
+            for (Reminder reminder : due) {
+                if (!taskService.isPending(reminder.taskId)) {
+                    continue;
+                }
+                Task task = taskService.getTaskById(reminder.taskId);
+                // Moved or cleared since the reminder was polled; its new schedule takes over
+                if (task == null || task.getDueDate() == null
+                        || toEpochMillis(task.getDueDate()) != reminder.dueMillis) {
+                    continue;
+                }
+                if (reminder.type == ReminderType.AT_RISK && taskService.getAtRiskMillis(reminder.taskId) > firedAt) {
+                    continue;
+                }
+                lag.record(firedAt - Math.max(reminder.fireAt, reminder.queuedAt), TimeUnit.MILLISECONDS);
+                fired.labels(reminder.type.name().toLowerCase(Locale.ROOT)).inc();
+                dispatcher.publish(new ReminderEvent(reminder.type, task.getId(), task.getTitle(), task.getDueDate(),
+                        task.getOccurrence(), firedAt));
+                firedReminders.markFired(reminder.taskId, reminder.dueMillis, reminder.type);
+            }
+            firedReminders.flush();
+        } catch (IOException e) {
+            log.error("Failed to record fired reminders", e);
+        }
+    }
+
+    // Empties the slots of reminders that were fired or found stale
+    private synchronized void release(List<Reminder> due) {
+        for (Reminder reminder : due) {
+            if (reminder.type == ReminderType.AT_RISK) {
+                risks.remove(reminder.taskId, reminder);
+                continue;
+            }
+            TaskSchedule schedule = schedules.get(reminder.taskId);
+            if (schedule == null) {
+                continue;
+            }
+            if (schedule.dueSoon == reminder) schedule.dueSoon = null;
+            if (schedule.overdue == reminder) schedule.overdue = null;
+            if (schedule.dueSoon == null && schedule.overdue == null) {
+                schedules.remove(reminder.taskId);
             }
         }
     }
-    
-    private boolean isDueSoon(Task task, LocalDateTime now) {
-        return !task.isCompleted() && 
-               now.isAfter(task.getDueDate().minusHours(24)) && 
-               now.isBefore(task.getDueDate());
+
+    private static long toDueNanos(long epochMillis) {
+        return ColumnarTaskStore.toEpochNanos(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis),
+                ZoneId.systemDefault()));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
-    
-    private boolean isOverdue(Task task, LocalDateTime now) {
-        return !task.isCompleted() && now.isAfter(task.getDueDate());
+
+    // Stored due dates are the local date-time read as UTC; in a zone without
+    // daylight saving time that is one subtraction, without building the date
+    private static long toEpochMillis(long dueEpochNanos) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        if (rules.isFixedOffset()) {
+            long offsetMillis = rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L;
+            return Math.floorDiv(dueEpochNanos, 1_000_000L) - offsetMillis;
+        }
+        return toEpochMillis(ColumnarTaskStore.fromEpochNanos(dueEpochNanos));
     }
-}
\ No newline at end of file
+}
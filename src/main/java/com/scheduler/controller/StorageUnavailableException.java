@@ -0,0 +1,10 @@
+package com.scheduler.controller;
+
+// A change could not be stored or made durable, so the caller must not assume it was kept
+public class StorageUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StorageUnavailableException(String message, Throwable cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.scheduler.controller;
+
+import com.scheduler.model.Task;
+
+/**
+ * Notified by {@link TaskService} after every mutation, in mutation order.
+ * Callbacks run on the writing thread while the service's write lock is held,
+ * so implementations must be quick and must not call back into mutations.
+ */
+public interface TaskListener {
+
+    // The task was added or changed; it holds the new state
+    void taskSaved(Task task);
+
+    void taskDeleted(int taskId);
+
+    /**
+     * The instant from which the task's pending prerequisites put its due
+     * date at risk changed, after the saves and deletes that caused it.
+     * atRiskMillis is DependencyGraph.NOT_AT_RISK once it no longer is.
+     */
+    default void taskRiskChanged(int taskId, long atRiskMillis, long dueMillis) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.scheduler.controller;
+
+import java.util.List;
+
+import com.scheduler.model.Task;
+
+// One page of a task query; nextCursor is null on the last page
+public class TaskPage {
+    private final List<Task> tasks;
+    private final String nextCursor;
+
+    public TaskPage(List<Task> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() { return tasks; }
+    public String getNextCursor() { return nextCursor; }
+}
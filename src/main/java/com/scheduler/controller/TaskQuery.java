@@ -0,0 +1,97 @@
+package com.scheduler.controller;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.Task;
+
+/**
+ * Filters and keyset position for {@link TaskService#queryTasks}. Unset
+ * fields do not filter; a null cursor starts from the first task.
+ */
+public class TaskQuery {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private TaskKey cursor;
+    private int limit = UNLIMITED;
+    private Boolean completed;
+    private boolean overdue;
+    private boolean dueSoon;
+    private Set<Task.Priority> priorities;
+    // Pending tasks with no pending prerequisite (true) or with one (false)
+    private Boolean ready;
+    // Inclusive lower and exclusive upper bound on dueDate
+    private LocalDateTime dueFrom;
+    private LocalDateTime dueTo;
+
+    public TaskKey getCursor() { return cursor; }
+    public void setCursor(TaskKey cursor) { this.cursor = cursor; }
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+    public Boolean getCompleted() { return completed; }
+    public void setCompleted(Boolean completed) { this.completed = completed; }
+    public boolean isOverdue() { return overdue; }
+    public void setOverdue(boolean overdue) { this.overdue = overdue; }
+    public boolean isDueSoon() { return dueSoon; }
+    public void setDueSoon(boolean dueSoon) { this.dueSoon = dueSoon; }
+    public Set<Task.Priority> getPriorities() { return priorities; }
+    public void setPriorities(Set<Task.Priority> priorities) {
+        this.priorities = priorities != null ? EnumSet.copyOf(priorities) : null;
+    }
+    public Boolean getReady() { return ready; }
+    public void setReady(Boolean ready) { this.ready = ready; }
+    public LocalDateTime getDueFrom() { return dueFrom; }
+    public void setDueFrom(LocalDateTime dueFrom) { this.dueFrom = dueFrom; }
+    public LocalDateTime getDueTo() { return dueTo; }
+    public void setDueTo(LocalDateTime dueTo) { this.dueTo = dueTo; }
+
+    // Lowest due date that can match, with the time-relative filters folded in
+    LocalDateTime effectiveDueFrom(LocalDateTime now) {
+        LocalDateTime from = dueFrom;
+        if (dueSoon && (from == null || from.isBefore(now))) {
+            from = now;
+        }
+        return from;
+    }
+
+    // Due date at which the ordered scan can stop, or null to scan to the end
+    LocalDateTime effectiveDueTo(LocalDateTime now) {
+        LocalDateTime to = dueTo;
+        if (overdue && (to == null || to.isAfter(now))) {
+            to = now;
+        }
+        LocalDateTime dueSoonLimit = now.plusHours(24);
+        if (dueSoon && (to == null || to.isAfter(dueSoonLimit))) {
+            to = dueSoonLimit;
+        }
+        return to;
+    }
+
+    // Completion filter the repository can apply; overdue, dueSoon and ready only match pending tasks
+    Boolean effectiveCompleted() {
+        if (completed == null && (overdue || dueSoon || ready != null)) {
+            return Boolean.FALSE;
+        }
+        return completed;
+    }
+
+    boolean matches(Task task, LocalDateTime now) {
+        if (completed != null && task.isCompleted() != completed) {
+            return false;
+        }
+        if (priorities != null && !priorities.contains(task.getPriority())) {
+            return false;
+        }
+        LocalDateTime dueDate = task.getDueDate();
+        if (overdue && (task.isCompleted() || dueDate == null || !now.isAfter(dueDate))) {
+            return false;
+        }
+        if (dueSoon && (task.isCompleted() || dueDate == null
+                || !now.isAfter(dueDate.minusHours(24)) || !now.isBefore(dueDate))) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.scheduler.controller;
+
+import java.util.List;
+
+import com.scheduler.model.Task;
+
+// Ranked full-text matches; total also counts matches beyond the limit
+public class TaskSearchResult {
+    private final int total;
+    private final List<Task> tasks;
+    private final List<Float> scores;
+
+    public TaskSearchResult(int total, List<Task> tasks, List<Float> scores) {
+        this.total = total;
+        this.tasks = tasks;
+        this.scores = scores;
+    }
+
+    public int getTotal() { return total; }
+    public List<Task> getTasks() { return tasks; }
+    public List<Float> getScores() { return scores; }
+}
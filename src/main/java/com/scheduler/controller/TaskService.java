@@ -1,149 +1,902 @@
 package com.scheduler.controller;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.index.DependencyGraph;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.index.TextIndex;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.MetricsRegistry;
+import com.scheduler.model.BatchOperation;
+import com.scheduler.model.BatchResult;
+import com.scheduler.model.EpochNanos;
 import com.scheduler.model.Task;
+import com.scheduler.storage.H2TaskRepository;
+import com.scheduler.storage.InMemoryTaskRepository;
+import com.scheduler.storage.TaskRepository;
 
 public class TaskService {
-    private final Map<Integer, Task> tasks;
-    private final AtomicInteger idCounter;
+    // Passed as the expected version of a change that applies whatever the task's version
+    public static final long ANY_VERSION = -1;
+    
+    private static final AsyncLogger log = AsyncLogger.get(TaskService.class);
+    // Tasks fetched per round trip to the repository beyond a page's limit
+    private static final int SCAN_SLACK = 16;
+    
+    // One mutation of the unit in progress; previous is null for an insert, task for a delete
+    private static final class Change {
+        private final int id;
+        private final Task previous;
+        private final Task task;
+        private final long version;
+        
+        Change(int id, Task previous, Task task, long version) {
+            this.id = id;
+            this.previous = previous;
+            this.task = task;
+            this.version = version;
+        }
+    }
+    
+    // A task's at-risk instant as the dependency graph reported it during publish()
+    private static final class RiskChange {
+        private final int id;
+        private final long atRiskMillis;
+        private final long dueMillis;
+        
+        RiskChange(int id, long atRiskMillis, long dueMillis) {
+            this.id = id;
+            this.atRiskMillis = atRiskMillis;
+            this.dueMillis = dueMillis;
+        }
+    }
+    
+    // Tasks, their indexes and their durability
+    private final TaskRepository repository;
+    // Prerequisites of the tasks that have some, updated as changes are published
+    private final DependencyGraph graph;
+    // Dashboard counts, updated as changes are published
+    private final TaskStatistics statistics;
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    // Bumped by every mutation once it is committed; a task's version is the global one of its last change
+    private final AtomicLong version = new AtomicLong();
+    // Last version handed out, ahead of the published one while a unit is in progress; guarded by writeLock
+    private long assignedVersion;
+    // Changes of the unit in progress, published once it is committed; guarded by writeLock
+    private final List<Change> unpublished = new ArrayList<>();
     private final ObjectMapper objectMapper;
-    private static final String DATA_FILE = "data/tasks.json";
+    // Serializes mutations, so units reach the repository in the order they are made
+    private final Object writeLock = new Object();
+    // Ids of new tasks; the repository's own counter unless a cluster hands them out
+    private volatile IntSupplier idAllocator;
     
     public TaskService() {
-        this.tasks = new ConcurrentHashMap<>();
-        this.idCounter = new AtomicInteger(1);
+        this(Paths.get("data"));
+    }
+    
+    // All files (snapshot, log or database) live in dataDir
+    public TaskService(Path dataDir) {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         
         // CRITICAL: Configure Jackson to ignore unknown properties
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         
-        loadTasks();
+        this.repository = createRepository(dataDir);
+        // A version handed out again would let an If-Match read before the restart pass
+        this.assignedVersion = repository.storedVersion();
+        this.version.set(assignedVersion);
+        this.idAllocator = repository::allocateId;
+        this.graph = new DependencyGraph(repository::get);
+        graph.load(repository::forEachDependent);
+        MetricsRegistry.getDefault().gauge("scheduler_dependency_graph_tasks",
+                "Tasks with a prerequisite or a dependent", graph::size);
+        MetricsRegistry.getDefault().gauge("scheduler_blocked_tasks",
+                "Tasks waiting for a pending prerequisite", graph::blockedCount);
+        this.statistics = new TaskStatistics(LocalDateTime.now(), repository);
+        MetricsRegistry.getDefault().gauge("scheduler_tasks_overdue", "Pending tasks past their due date", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            return statistics(now).overdue(now);
+        });
+        MetricsRegistry.getDefault().gauge("scheduler_tasks_due_soon", "Pending tasks due within 24 hours", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            return statistics(now).dueSoon(now);
+        });
+    }
+    
+    // -Dscheduler.storage=memory (default) or h2
+    private TaskRepository createRepository(Path dataDir) {
+        String storage = System.getProperty("scheduler.storage", "memory");
+        if ("h2".equalsIgnoreCase(storage)) {
+            log.info("🗄️ Storing tasks in an embedded H2 database");
+            return new H2TaskRepository(dataDir);
+        }
+        if (!"memory".equalsIgnoreCase(storage)) {
+            throw new IllegalArgumentException("Unknown scheduler.storage: " + storage);
+        }
+        return new InMemoryTaskRepository(dataDir, objectMapper);
     }
     
+    // Ordered traversal of the repository's list-order index; no per-request sort
     public List<Task> getAllTasks() {
-        List<Task> taskList = new ArrayList<>(tasks.values());
-        Collections.sort(taskList);
+        List<Task> taskList = new ArrayList<>(repository.size());
+        for (Task task : repository.scan(null, null, null, null, Integer.MAX_VALUE)) {
+            taskList.add(task);
+        }
         return taskList;
     }
     
+    public TaskPage queryTasks(TaskQuery query) {
+        List<Task> page = new ArrayList<>(Math.min(query.getLimit(), 256));
+        String nextCursor = visitTasks(query, page::add);
+        return new TaskPage(page, nextCursor);
+    }
+    
+    /**
+     * Scans the repository in list order from the query's cursor (or its
+     * dueFrom bound), handing each matching task to the visitor, and stops at
+     * the dueTo bound or once a page is full. The repository applies the
+     * completion and priority filters itself, so the cost depends on the page
+     * size rather than on the number of tasks, and nothing is collected along
+     * the way.
+     *
+     * @return the cursor of the next page, or null if this was the last one
+     */
+    public String visitTasks(TaskQuery query, Consumer<Task> visitor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueFrom = query.effectiveDueFrom(now);
+        LocalDateTime dueTo = query.effectiveDueTo(now);
+        
+        TaskKey start = query.getCursor();
+        if (dueFrom != null) {
+            TaskKey bound = TaskKey.lowerBound(dueFrom);
+            if (start == null || bound.compareTo(start) > 0) {
+                start = bound;
+            }
+        }
+        
+        int limit = query.getLimit();
+        int fetchSize = limit < Integer.MAX_VALUE - SCAN_SLACK ? limit + SCAN_SLACK : Integer.MAX_VALUE;
+        int visited = 0;
+        TaskKey last = null;
+        for (Task task : repository.scan(start, dueTo, query.effectiveCompleted(), query.getPriorities(), fetchSize)) {
+            // The time-relative filters are only bounded by the scan; check them exactly
+            if (!query.matches(task, now)) {
+                continue;
+            }
+            if (query.getReady() != null && graph.isBlocked(task.getId()) == query.getReady()) {
+                continue;
+            }
+            if (visited == limit) {
+                return last.toCursor();
+            }
+            visitor.accept(task);
+            visited++;
+            last = TaskKey.of(task);
+        }
+        return null;
+    }
+    
+    /**
+     * Tasks whose title or description contains every term of the query
+     * (a trailing '*' makes a term a prefix), best match first.
+     */
+    public TaskSearchResult search(String query, int limit) {
+        TextIndex.Hits hits = repository.search(query, limit);
+        List<Task> matches = new ArrayList<>(hits.getIds().length);
+        List<Float> scores = new ArrayList<>(hits.getIds().length);
+        for (int i = 0; i < hits.getIds().length; i++) {
+            // Deleted after the search; the index and the tasks are not read atomically
+            Task task = repository.get(hits.getIds()[i]);
+            if (task != null) {
+                matches.add(task);
+                scores.add(hits.getScores()[i]);
+            }
+        }
+        return new TaskSearchResult(hits.getTotal(), matches, scores);
+    }
+    
+    public void addTaskListener(TaskListener listener) {
+        listeners.add(listener);
+    }
+    
+    // Called under the write lock for every new task; must never return an id in use
+    public void setIdAllocator(IntSupplier idAllocator) {
+        this.idAllocator = idAllocator;
+    }
+    
+    // Next id the repository itself would hand out; every stored id is below it
+    public int getNextId() {
+        return repository.nextId();
+    }
+    
+    // A new copy on every call; changing it does not change the stored task
     public Task getTaskById(int id) {
-        return tasks.get(id);
+        return repository.get(id);
     }
     
+    /**
+     * Changes with every mutation, so an unchanged version means every read
+     * would return the same result. Versions start above every stored task's
+     * version, which is 0 unless the repository stores versions.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    // Throws IllegalArgumentException if the due date is out of range or a prerequisite does not exist
     public void addTask(Task task) {
-        int newId = idCounter.getAndIncrement();
-        task.setId(newId);
-        tasks.put(newId, task);
-        saveTasks();
-        System.out.println("✅ Task added - ID: " + newId + ", Title: " + task.getTitle());
+        write(() -> {
+            checkTask(0, task);
+            insertTask(task);
+        });
+        log.debug(() -> "✅ Task added - ID: " + task.getId() + ", Title: " + task.getTitle());
+    }
+    
+    public Task updateTask(int id, Task updatedTask) {
+        return updateTask(id, updatedTask, ANY_VERSION);
+    }
+    
+    /**
+     * Stores a copy of the task with the fields of updatedTask, provided the
+     * task is still at expectedVersion, or expectedVersion is ANY_VERSION.
+     * The check and the replacement happen under the write lock, so of two
+     * clients updating from the same version, only the first succeeds.
+     *
+     * @return the task as stored, or null if there is no task with this id
+     * @throws VersionConflictException if the task is at another version
+     * @throws IllegalArgumentException if the due date is out of range, a
+     *         prerequisite does not exist or the dependencies would form a cycle
+     */
+    public Task updateTask(int id, Task updatedTask, long expectedVersion) {
+        return write(() -> {
+            Task existingTask = currentTask(id, expectedVersion);
+            if (existingTask == null) {
+                return null;
+            }
+            checkTask(id, updatedTask);
+            return applyUpdate(existingTask, updatedTask);
+        });
+    }
+    
+    public boolean deleteTask(int id) {
+        return deleteTask(id, ANY_VERSION);
+    }
+    
+    // Returns false if there is no task with this id; throws VersionConflictException like updateTask.
+    // Tasks that depend on it lose the dependency.
+    public boolean deleteTask(int id, long expectedVersion) {
+        return write(() -> currentTask(id, expectedVersion) != null && removeTask(id));
+    }
+    
+    public Task toggleTaskCompletion(int id, boolean completed) {
+        return toggleTaskCompletion(id, completed, ANY_VERSION);
     }
     
-    public void updateTask(int id, Task updatedTask) {
-        Task existingTask = tasks.get(id);
-        if (existingTask != null) {
-            existingTask.setTitle(updatedTask.getTitle());
-            existingTask.setDescription(updatedTask.getDescription());
-            existingTask.setDueDate(updatedTask.getDueDate());
-            existingTask.setPriority(updatedTask.getPriority());
-            existingTask.setCompleted(updatedTask.isCompleted());
-            saveTasks();
+    // Returns the task as stored, or null; throws VersionConflictException like updateTask.
+    // Completing a recurring task moves it to its next occurrence while the series lasts.
+    public Task toggleTaskCompletion(int id, boolean completed, long expectedVersion) {
+        return write(() -> {
+            Task task = currentTask(id, expectedVersion);
+            return task != null ? applyCompletion(task, completed) : null;
+        });
+    }
+    
+    // Caller holds the write lock, so the task cannot change between this check and the mutation
+    private Task currentTask(int id, long expectedVersion) {
+        Task task = repository.get(id);
+        if (task != null && expectedVersion != ANY_VERSION && task.getVersion() != expectedVersion) {
+            throw new VersionConflictException(id, expectedVersion, task.getVersion());
         }
+        return task;
     }
     
-    public void deleteTask(int id) {
-        tasks.remove(id);
-        saveTasks();
+    private void checkTask(int id, Task task) {
+        String error = validateTask(id, task, repository::contains, Map.of());
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
     }
     
-    public void toggleTaskCompletion(int id, boolean completed) {
-        Task task = tasks.get(id);
-        if (task != null) {
-            task.setCompleted(completed);
-            saveTasks();
+    /**
+     * Error message for the task's due date, dependencies and estimate, or
+     * null if they are valid. id is the task's own id, 0 for a new task, which nothing can
+     * depend on yet; pending holds the dependencies that earlier operations of
+     * a batch set, which the cycle check follows instead of the graph's.
+     */
+    private String validateTask(int id, Task task, IntPredicate exists, Map<Integer, List<Integer>> pending) {
+        if (task.getDueDate() != null && !EpochNanos.isSupported(task.getDueDate())) {
+            return "Due date must be between " + EpochNanos.MIN + " and " + EpochNanos.MAX;
+        }
+        if (task.getCreatedAt() != null && !EpochNanos.isSupported(task.getCreatedAt())) {
+            return "Creation date must be between " + EpochNanos.MIN + " and " + EpochNanos.MAX;
         }
+        if (task.getDurationMinutes() < 0) {
+            return "Duration must not be negative";
+        }
+        for (int prerequisite : task.getDependsOn()) {
+            if (prerequisite == id) {
+                return "Task cannot depend on itself";
+            }
+            if (!exists.test(prerequisite)) {
+                return "Prerequisite not found: " + prerequisite;
+            }
+        }
+        if (id != 0 && !task.getDependsOn().isEmpty() && graph.createsCycle(id, task.getDependsOn(), pending)) {
+            return "Dependencies would form a cycle through task " + id;
+        }
+        return null;
     }
     
-    public List<Task> getPendingTasks() {
-        return tasks.values().stream()
-                .filter(task -> !task.isCompleted())
-                .toList();
+    /**
+     * Validates every operation against the current state first and applies
+     * none of them if any is invalid. Otherwise all are applied under one hold
+     * of the write lock and committed as one unit, so the batch is durable as
+     * a whole with one wait on the repository.
+     *
+     * @return one result per operation, in order; on rejection the invalid
+     *         entries carry their error and the rest have status 424
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        return applyBatch(operations, null);
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadTasks() {
-        try {
-            if (!Files.exists(Paths.get(DATA_FILE))) {
-                System.out.println("📁 No existing tasks file found. Starting with empty task list.");
-                return;
+    // Imports pass the document ids of their creates, in order, to resolve dependencies between them
+    private List<BatchResult> applyBatch(List<BatchOperation> operations, ImportedIds importedIds) {
+        List<BatchResult> results = write(() -> {
+            List<BatchResult> batchResults = new ArrayList<>(operations.size());
+            List<String> errors = validateBatch(operations);
+            if (errors.stream().anyMatch(Objects::nonNull)) {
+                for (int i = 0; i < operations.size(); i++) {
+                    String error = errors.get(i);
+                    BatchOperation.Type op = operations.get(i).getOp();
+                    batchResults.add(error != null
+                            ? BatchResult.failure(i, op, error.startsWith("Task not found") ? 404 : 400, error)
+                            : BatchResult.failure(i, op, 424, "Not applied: batch rejected"));
+                }
+                return batchResults;
             }
             
-            System.out.println("🔄 Loading tasks from " + DATA_FILE);
-            String content = Files.readString(Paths.get(DATA_FILE));
-            System.out.println("📄 File content: " + content);
-            
-            Map<String, Object> data = objectMapper.readValue(content, Map.class);
-            
-            List<Map<String, Object>> tasksData = (List<Map<String, Object>>) data.get("tasks");
-            int maxId = (Integer) data.get("nextId");
-            
-            System.out.println("📊 Found " + (tasksData != null ? tasksData.size() : 0) + " tasks in file");
-            
-            tasks.clear();
-            if (tasksData != null) {
-                for (Map<String, Object> taskData : tasksData) {
-                    System.out.println("🔍 Processing task data: " + taskData);
-                    try {
-                        Task task = objectMapper.convertValue(taskData, Task.class);
-                        tasks.put(task.getId(), task);
-                        System.out.println("✅ Successfully loaded task - ID: " + task.getId() + ", Title: " + task.getTitle());
-                        System.out.println("   Due Date: " + task.getDueDate());
-                        System.out.println("   Created At: " + task.getCreatedAt());
-                    } catch (Exception e) {
-                        System.err.println("❌ Error converting task data: " + e.getMessage());
-                        e.printStackTrace();
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                switch (operation.getOp()) {
+                    case CREATE: {
+                        Task task = operation.getTask();
+                        if (importedIds != null) {
+                            importedIds.resolve(i, task);
+                        }
+                        insertTask(task);
+                        if (importedIds != null) {
+                            importedIds.created(i, task);
+                        }
+                        batchResults.add(BatchResult.success(i, operation.getOp(), 201, task));
+                        break;
+                    }
+                    case UPDATE: {
+                        Task task = applyUpdate(repository.get(operation.getId()), operation.getTask());
+                        batchResults.add(BatchResult.success(i, operation.getOp(), 200, task));
+                        break;
+                    }
+                    case DELETE:
+                        removeTask(operation.getId());
+                        batchResults.add(BatchResult.success(i, operation.getOp(), 204, null));
+                        break;
+                    case COMPLETE: {
+                        Task task = applyCompletion(repository.get(operation.getId()), operation.getCompleted());
+                        batchResults.add(BatchResult.success(i, operation.getOp(), 200, task));
+                        break;
                     }
                 }
             }
-            
-            idCounter.set(maxId);
-            System.out.println("✅ Loaded " + tasks.size() + " tasks from storage. Next ID: " + maxId);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error loading tasks: " + e.getMessage());
-            e.printStackTrace();
+            return batchResults;
+        });
+        log.debug(() -> "📦 Applied batch of " + operations.size() + " operations");
+        return results;
+    }
+    
+    // Error message per operation (null when valid), replaying deletes and dependency changes within the batch
+    private List<String> validateBatch(List<BatchOperation> operations) {
+        List<String> errors = new ArrayList<>(operations.size());
+        Set<Integer> deleted = new HashSet<>();
+        Map<Integer, List<Integer>> dependencies = new HashMap<>();
+        for (BatchOperation operation : operations) {
+            errors.add(validateOperation(operation, deleted, dependencies));
+        }
+        return errors;
+    }
+    
+    private String validateOperation(BatchOperation operation, Set<Integer> deleted,
+            Map<Integer, List<Integer>> dependencies) {
+        if (operation == null || operation.getOp() == null) {
+            return "Operation type is required";
+        }
+        if (operation.getOp() != BatchOperation.Type.CREATE) {
+            if (operation.getId() == null) {
+                return "Task ID is required";
+            }
+            if (deleted.contains(operation.getId()) || !repository.contains(operation.getId())) {
+                return "Task not found: " + operation.getId();
+            }
+        }
+        switch (operation.getOp()) {
+            case CREATE:
+            case UPDATE:
+                Task task = operation.getTask();
+                if (task == null) {
+                    return "Task data is required";
+                }
+                if (task.getTitle() == null || task.getTitle().trim().isEmpty()) {
+                    return "Task title is required";
+                }
+                if (task.getDueDate() == null) {
+                    return "Due date is required";
+                }
+                int id = operation.getOp() == BatchOperation.Type.UPDATE ? operation.getId() : 0;
+                String error = validateTask(id, task,
+                        prerequisite -> !deleted.contains(prerequisite) && repository.contains(prerequisite),
+                        dependencies);
+                if (error == null && id != 0) {
+                    dependencies.put(id, task.getDependsOn());
+                }
+                return error;
+            case DELETE:
+                deleted.add(operation.getId());
+                return null;
+            case COMPLETE:
+                return operation.getCompleted() == null ? "Completion status is required" : null;
+            default:
+                return "Unsupported operation: " + operation.getOp();
+        }
+    }
+    
+    /**
+     * Runs one unit of mutations under the write lock and commits it. Listeners
+     * hear about its changes only once the repository has them, so a reader
+     * never sees a version ahead of the data. A unit that fails is rolled
+     * back, so none of it is stored or published. Waits for the commit after
+     * releasing the lock, so concurrent writers can share one disk round trip.
+     *
+     * @throws StorageUnavailableException if the unit could not be stored, or
+     *                                     was stored but not made durable
+     */
+    private <T> T write(Supplier<T> unit) {
+        T result;
+        long ticket;
+        synchronized (writeLock) {
+            try {
+                try {
+                    result = unit.get();
+                    ticket = repository.commit();
+                } catch (UncheckedIOException e) {
+                    rollback();
+                    log.error("❌ Error saving tasks: " + e.getMessage(), e);
+                    throw new StorageUnavailableException("Tasks could not be saved", e);
+                } catch (RuntimeException | Error e) {
+                    rollback();
+                    throw e;
+                }
+                publish();
+            } finally {
+                unpublished.clear();
+            }
+        }
+        awaitCommit(ticket);
+        return result;
+    }
+    
+    private void rollback() {
+        repository.rollback();
+        assignedVersion = version.get();
+    }
+    
+    private void write(Runnable unit) {
+        write(() -> {
+            unit.run();
+            return null;
+        });
+    }
+    
+    // Mutation primitives; callers run inside write(). The repository copies a
+    // task's fields, so the Task objects passed around stay private.
+    
+    // Assigns the task its id and version before storing it
+    private void insertTask(Task task) {
+        task.setId(idAllocator.getAsInt());
+        task.setVersion(nextVersion());
+        task.setOccurrence(task.isRecurring() ? Math.max(task.getOccurrence(), 1) : 0);
+        repository.insert(task);
+        saved(null, task);
+    }
+    
+    private Task applyUpdate(Task existingTask, Task updatedTask) {
+        Task replacement = new Task(existingTask);
+        replacement.setTitle(updatedTask.getTitle());
+        replacement.setDescription(updatedTask.getDescription());
+        replacement.setDueDate(updatedTask.getDueDate());
+        replacement.setPriority(updatedTask.getPriority());
+        // A series keeps counting its occurrences when only its rule changes
+        replacement.setRecurrence(updatedTask.getRecurrence());
+        replacement.setDependsOn(updatedTask.getDependsOn());
+        replacement.setDurationMinutes(updatedTask.getDurationMinutes());
+        replacement.setOccurrence(!updatedTask.isRecurring() ? 0
+                : existingTask.isRecurring() ? existingTask.getOccurrence() : 1);
+        complete(replacement, updatedTask.isCompleted());
+        replace(existingTask, replacement);
+        saved(existingTask, replacement);
+        return replacement;
+    }
+    
+    private boolean removeTask(int id) {
+        Task task = repository.get(id);
+        if (task == null) {
+            return false;
+        }
+        repository.delete(task);
+        unpublished.add(new Change(id, task, null, nextVersion()));
+        dropPrerequisite(id);
+        return true;
+    }
+    
+    // Removes a deleted task from the dependencies of the tasks that had it, as
+    // published or as saved earlier in the unit, so no task waits for it forever
+    private void dropPrerequisite(int id) {
+        Set<Integer> dependents = new HashSet<>();
+        for (int dependent : graph.dependents(id)) {
+            dependents.add(dependent);
+        }
+        for (Change change : unpublished) {
+            if (change.task != null && change.task.getDependsOn().contains(id)) {
+                dependents.add(change.id);
+            }
+        }
+        for (int dependent : dependents) {
+            Task existing = repository.get(dependent);
+            if (existing == null || !existing.getDependsOn().contains(id)) {
+                continue;
+            }
+            List<Integer> remaining = new ArrayList<>(existing.getDependsOn());
+            remaining.remove(Integer.valueOf(id));
+            Task replacement = new Task(existing);
+            replacement.setDependsOn(remaining);
+            replace(existing, replacement);
+            saved(existing, replacement);
+        }
+    }
+    
+    private Task applyCompletion(Task task, boolean completed) {
+        Task replacement = new Task(task);
+        complete(replacement, completed);
+        replace(task, replacement);
+        saved(task, replacement);
+        return replacement;
+    }
+    
+    // Completing an occurrence of a series moves the task on to the next one;
+    // only the last occurrence (or the last one the store can hold) leaves the task completed
+    private static void complete(Task task, boolean completed) {
+        if (completed && !task.isCompleted() && task.isRecurring()) {
+            LocalDateTime next = task.getRecurrence().following(task.getDueDate(), task.getOccurrence());
+            if (next != null && EpochNanos.isSupported(next)) {
+                task.setDueDate(next);
+                task.setOccurrence(task.getOccurrence() + 1);
+                return;
+            }
+        }
+        task.setCompleted(completed);
+    }
+    
+    // existingTask is the stored state, read under the same hold of the write lock
+    private void replace(Task existingTask, Task replacement) {
+        replacement.setVersion(nextVersion());
+        repository.replace(existingTask, replacement);
+    }
+    
+    private long nextVersion() {
+        return ++assignedVersion;
+    }
+    
+    private void saved(Task previous, Task task) {
+        unpublished.add(new Change(task.getId(), previous, task, task.getVersion()));
+    }
+    
+    /**
+     * Stores tasks handed over by another node, keeping their ids and
+     * replacing any local copy, as one unit. Each gets a new version, since
+     * versions count per process.
+     */
+    public void adoptTasks(List<Task> tasks) {
+        write(() -> {
+            for (Task task : tasks) {
+                Task adopted = new Task(task);
+                Task existing = repository.get(adopted.getId());
+                if (existing != null) {
+                    replace(existing, adopted);
+                } else {
+                    adopted.setVersion(nextVersion());
+                    repository.insert(adopted);
+                }
+                saved(existing, adopted);
+            }
+        });
+    }
+    
+    /**
+     * Deletes tasks that another node has adopted, each only if it is still
+     * at the version that was handed over, as one unit.
+     *
+     * @return the ids of tasks that changed since and were kept
+     */
+    public List<Integer> releaseTasks(List<Task> tasks) {
+        return write(() -> {
+            List<Integer> changed = new ArrayList<>();
+            for (Task task : tasks) {
+                Task current = repository.get(task.getId());
+                if (current != null && current.getVersion() != task.getVersion()) {
+                    changed.add(task.getId());
+                } else if (current != null) {
+                    // Moved rather than deleted, so local dependents keep their dependency on it
+                    repository.delete(current);
+                    unpublished.add(new Change(current.getId(), current, null, nextVersion()));
+                }
+            }
+            return changed;
+        });
+    }
+    
+    // Visits the id and due date of every task that is not completed and is
+    // due in [fromNanos, toNanos) (see TaskRepository), creating no Task objects
+    public void forEachPendingDue(long fromNanos, long toNanos, TaskRepository.PendingVisitor visitor) {
+        repository.forEachPendingDue(fromNanos, toNanos, visitor);
+    }
+    
+    public boolean isPending(int id) {
+        return repository.isPending(id);
+    }
+    
+    // Updates the dependency graph and the statistics before any listener hears of the unit, and
+    // reports the resulting risk changes after the saves and deletes
+    private void publish() {
+        Map<Integer, Task> finalStates = new LinkedHashMap<>();
+        for (Change change : unpublished) {
+            finalStates.put(change.id, change.task);
+        }
+        List<RiskChange> risks = new ArrayList<>();
+        graph.apply(finalStates, (id, atRiskMillis, dueMillis) -> risks.add(new RiskChange(id, atRiskMillis, dueMillis)));
+        
+        for (Change change : unpublished) {
+            statistics.update(change.previous, change.task);
+        }
+        
+        for (Change change : unpublished) {
+            version.set(change.version);
+            for (TaskListener listener : listeners) {
+                if (change.task != null) {
+                    listener.taskSaved(change.task);
+                } else {
+                    listener.taskDeleted(change.id);
+                }
+            }
+        }
+        for (RiskChange risk : risks) {
+            for (TaskListener listener : listeners) {
+                listener.taskRiskChanged(risk.id, risk.atRiskMillis, risk.dueMillis);
+            }
+        }
+    }
+    
+    // Whether the task waits for a pending prerequisite
+    public boolean isBlocked(int id) {
+        return graph.isBlocked(id);
+    }
+    
+    // Null for a task without prerequisites or dependents: it is ready and never at risk
+    public DependencyGraph.Status getDependencyStatus(int id) {
+        return graph.status(id);
+    }
+    
+    // Up to limit blocked tasks, the one whose prerequisites must start soonest first
+    public List<Integer> getBlockedTaskIds(int limit) {
+        return graph.blocked(limit);
+    }
+    
+    public int getBlockedCount() {
+        return graph.blockedCount();
+    }
+    
+    // Epoch millis from which the task's prerequisites put its due date at risk, or NOT_AT_RISK
+    public long getAtRiskMillis(int id) {
+        return graph.atRisk(id);
+    }
+    
+    // Visits every task at risk from an instant in [fromMillis, toMillis)
+    public void forEachAtRisk(long fromMillis, long toMillis, DependencyGraph.RiskVisitor visitor) {
+        graph.forEachAtRisk(fromMillis, toMillis, visitor);
+    }
+    
+    // Task counts as of now; costs the same whatever the number of tasks
+    public TaskStatistics.Summary getStatistics() {
+        LocalDateTime now = LocalDateTime.now();
+        return statistics(now).summary(now);
+    }
+    
+    // Pending tasks due per day or week from the current one (see TaskStatistics)
+    public List<TaskStatistics.BurndownPoint> getBurndown(TaskStatistics.Period period, int periods) {
+        LocalDateTime now = LocalDateTime.now();
+        return statistics(now).burndown(now, period, periods);
+    }
+    
+    // Moves tasks that are now past due from "due soon" to "overdue"
+    public void advanceStatistics(LocalDateTime now) {
+        statistics(now);
+    }
+    
+    // Advanced between units, as it scans the repository for tasks newly due soon; reads at the same now then don't
+    private TaskStatistics statistics(LocalDateTime now) {
+        synchronized (writeLock) {
+            statistics.advance(now);
         }
+        return statistics;
     }
     
-    private void saveTasks() {
+    private void awaitCommit(long ticket) {
         try {
-            Files.createDirectories(Paths.get("data"));
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("tasks", new ArrayList<>(tasks.values()));
-            data.put("nextId", idCounter.get());
-            
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
-            Files.write(Paths.get(DATA_FILE), json.getBytes());
-            
-            System.out.println("💾 Saved " + tasks.size() + " tasks to storage");
-            System.out.println("📁 Saved data: " + json);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error saving tasks: " + e.getMessage());
-            e.printStackTrace();
+            repository.awaitCommit(ticket);
+        } catch (RuntimeException e) {
+            log.error("❌ Error saving tasks: " + e.getMessage(), e);
+            throw new StorageUnavailableException("Tasks could not be saved", e);
+        }
+    }
+    
+    /**
+     * Completes once every mutation made so far is on disk. With the default
+     * write-ahead log this forces an fsync; with snapshot persistence it
+     * triggers an immediate flush.
+     */
+    public CompletableFuture<Void> flush() {
+        return repository.flush();
+    }
+    
+    // Writes every task as a {"nextId", "tasks"} JSON document, the same shape as data/tasks.json
+    public void exportTasks(OutputStream out) throws IOException {
+        repository.writeJson(out, objectMapper, false);
+    }
+    
+    /**
+     * Creates every task of a document in the export format (or a plain array
+     * of tasks) as one atomic batch. Imported tasks get new ids; everything
+     * else, including createdAt and completion, is kept. Dependencies between
+     * tasks of the document follow them to their new ids, so prerequisites
+     * are created first and results come in that order; dependencies on tasks
+     * outside the document are dropped.
+     */
+    public List<BatchResult> importTasks(InputStream in) throws IOException {
+        JsonNode document = objectMapper.readTree(in);
+        JsonNode taskNodes = document != null && document.isObject() ? document.get("tasks") : document;
+        if (taskNodes == null || !taskNodes.isArray()) {
+            throw new IllegalArgumentException("Expected an array of tasks or an object with a \"tasks\" array");
+        }
+        List<Task> tasks = new ArrayList<>(taskNodes.size());
+        for (JsonNode taskNode : taskNodes) {
+            tasks.add(objectMapper.treeToValue(taskNode, Task.class));
+        }
+        
+        ImportedIds importedIds = new ImportedIds();
+        List<BatchOperation> operations = new ArrayList<>(tasks.size());
+        for (Task task : prerequisitesFirst(tasks)) {
+            importedIds.add(task);
+            operations.add(new BatchOperation(BatchOperation.Type.CREATE, null, task, null));
+        }
+        return applyBatch(operations, importedIds);
+    }
+    
+    // Kahn's algorithm over the dependencies within the document
+    private static List<Task> prerequisitesFirst(List<Task> tasks) {
+        Map<Integer, Task> byId = new HashMap<>();
+        for (Task task : tasks) {
+            if (task.getId() != 0) {
+                byId.put(task.getId(), task);
+            }
+        }
+        Map<Task, Integer> waiting = new HashMap<>();
+        Map<Integer, List<Task>> dependents = new HashMap<>();
+        ArrayDeque<Task> ready = new ArrayDeque<>();
+        for (Task task : tasks) {
+            int prerequisites = 0;
+            for (int prerequisite : task.getDependsOn()) {
+                if (byId.containsKey(prerequisite)) {
+                    prerequisites++;
+                    dependents.computeIfAbsent(prerequisite, id -> new ArrayList<>()).add(task);
+                }
+            }
+            if (prerequisites == 0) {
+                ready.add(task);
+            } else {
+                waiting.put(task, prerequisites);
+            }
+        }
+        List<Task> ordered = new ArrayList<>(tasks.size());
+        while (!ready.isEmpty()) {
+            Task task = ready.poll();
+            ordered.add(task);
+            if (task.getId() == 0 || byId.get(task.getId()) != task) {
+                continue;
+            }
+            for (Task dependent : dependents.getOrDefault(task.getId(), List.of())) {
+                if (waiting.merge(dependent, -1, Integer::sum) == 0) {
+                    waiting.remove(dependent);
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (!waiting.isEmpty()) {
+            throw new IllegalArgumentException("Imported dependencies form a cycle");
+        }
+        return ordered;
+    }
+    
+    // Document ids and dependencies of the creates of an import, by operation index
+    private static final class ImportedIds {
+        private final List<Integer> documentIds = new ArrayList<>();
+        private final List<List<Integer>> dependencies = new ArrayList<>();
+        private final Map<Integer, Integer> newIds = new HashMap<>();
+        
+        // Validation sees no dependencies; they only resolve once their prerequisites exist
+        void add(Task task) {
+            documentIds.add(task.getId());
+            dependencies.add(task.getDependsOn());
+            task.setDependsOn(null);
+        }
+        
+        void resolve(int index, Task task) {
+            List<Integer> resolved = new ArrayList<>();
+            for (int prerequisite : dependencies.get(index)) {
+                Integer newId = newIds.get(prerequisite);
+                if (newId != null) {
+                    resolved.add(newId);
+                }
+            }
+            task.setDependsOn(resolved);
+        }
+        
+        void created(int index, Task task) {
+            if (documentIds.get(index) != 0) {
+                newIds.put(documentIds.get(index), task.getId());
+            }
+        }
+    }
+    
+    // Flushes pending changes; called on shutdown
+    public void close() {
+        try {
+            repository.close();
+        } catch (IOException e) {
+            log.error("❌ Error closing task storage: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,336 @@
+package com.scheduler.controller;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.scheduler.model.Task;
+import com.scheduler.storage.TaskRepository;
+
+/**
+ * Dashboard counts kept up to date by every mutation, so reading them costs
+ * the same however many tasks there are.
+ *
+ * Totals, completions and priorities are plain counters. Pending tasks are
+ * also counted per day of their due date (local time), and the "overdue" and
+ * "due soon" counts are derived from a clock frontier: every minute before it
+ * is overdue, every minute less than 24 hours after it is due soon. Only the
+ * due-soon minutes are counted one by one, so the state grows with the days
+ * tasks are due on, not with the tasks. Time moving on moves the minutes the
+ * frontier crosses from one count to the other, and looks up the tasks due in
+ * the minutes the horizon crosses in the repository, which costs a range scan
+ * of just those tasks. {@link ReminderScheduler} advances the frontier as
+ * reminders fire and every read advances it first, so counts are exact to
+ * the minute, and exact for due dates on whole minutes.
+ *
+ * Mutations arrive from TaskService under its write lock, and anything that
+ * may advance the frontier must hold it too, so the repository scanned holds
+ * the tasks counted; a monitor keeps reads consistent with both.
+ */
+public class TaskStatistics {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int DUE_SOON_MINUTES = MINUTES_PER_DAY;
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+
+    public enum Period {
+        DAY, WEEK
+    }
+
+    public static final class PriorityCounts {
+        private final int total;
+        private final int pending;
+
+        PriorityCounts(int total, int pending) {
+            this.total = total;
+            this.pending = pending;
+        }
+
+        public int getTotal() { return total; }
+        public int getPending() { return pending; }
+        public int getCompleted() { return total - pending; }
+    }
+
+    // Pending tasks due within one period, and those due after it ends
+    public static final class BurndownPoint {
+        private final LocalDate start;
+        private final int due;
+        private final int remaining;
+
+        BurndownPoint(LocalDate start, int due, int remaining) {
+            this.start = start;
+            this.due = due;
+            this.remaining = remaining;
+        }
+
+        public LocalDate getStart() { return start; }
+        public int getDue() { return due; }
+        public int getRemaining() { return remaining; }
+    }
+
+    // The counts at one instant
+    public static final class Summary {
+        private final LocalDateTime asOf;
+        private final int total;
+        private final int completed;
+        private final int overdue;
+        private final int dueSoon;
+        private final Map<Task.Priority, PriorityCounts> byPriority;
+
+        Summary(LocalDateTime asOf, int total, int completed, int overdue, int dueSoon,
+                Map<Task.Priority, PriorityCounts> byPriority) {
+            this.asOf = asOf;
+            this.total = total;
+            this.completed = completed;
+            this.overdue = overdue;
+            this.dueSoon = dueSoon;
+            this.byPriority = byPriority;
+        }
+
+        public LocalDateTime getAsOf() { return asOf; }
+        public int getTotal() { return total; }
+        public int getCompleted() { return completed; }
+        public int getPending() { return total - completed; }
+        public int getOverdue() { return overdue; }
+        public int getDueSoon() { return dueSoon; }
+        // Tasks without a priority are only in the totals
+        public Map<Task.Priority, PriorityCounts> getByPriority() { return byPriority; }
+    }
+
+    // Visits the pending tasks due in [fromNanos, toNanos), as TaskRepository#forEachPendingDue
+    @FunctionalInterface
+    public interface PendingDueSource {
+        void forEachPendingDue(long fromNanos, long toNanos, TaskRepository.PendingVisitor visitor);
+    }
+
+    private final PendingDueSource pendingDue;
+    private int total;
+    private int completed;
+    private final int[] totalByPriority = new int[PRIORITIES.length];
+    private final int[] pendingByPriority = new int[PRIORITIES.length];
+    // Pending tasks per due day, and per due minute of those due soon, in local days and minutes since the epoch
+    private final Map<Long, int[]> pendingByDay = new HashMap<>();
+    private final TreeMap<Long, int[]> pendingByMinute = new TreeMap<>();
+    private int overdue;
+    private int dueSoon;
+    // Minutes before this one are overdue, those before it plus 24 hours due soon
+    private long frontier;
+
+    // No tasks yet; pendingDue is only asked for tasks that update() has counted
+    public TaskStatistics(LocalDateTime now, PendingDueSource pendingDue) {
+        this.pendingDue = pendingDue;
+        this.frontier = frontier(now);
+    }
+
+    /**
+     * The repository's tasks, counted with {@link TaskRepository#countTasks}
+     * plus a scan of those due soon, so starting costs no read of every task
+     * where the repository can count them in bulk.
+     */
+    public TaskStatistics(LocalDateTime now, TaskRepository repository) {
+        this(now, repository::forEachPendingDue);
+        repository.countTasks(new TaskRepository.TaskCounter() {
+            @Override
+            public void tasks(Task.Priority priority, boolean completed, int count) {
+                total += count;
+                if (completed) {
+                    TaskStatistics.this.completed += count;
+                }
+                if (priority != null) {
+                    totalByPriority[priority.ordinal()] += count;
+                    if (!completed) {
+                        pendingByPriority[priority.ordinal()] += count;
+                    }
+                }
+            }
+
+            @Override
+            public void pendingDueOn(long epochDay, int count) {
+                add(pendingByDay, epochDay, count);
+            }
+        });
+        pendingDue.forEachPendingDue(frontier * NANOS_PER_MINUTE, (frontier + DUE_SOON_MINUTES) * NANOS_PER_MINUTE,
+                (id, due) -> {
+                    add(pendingByMinute, Math.floorDiv(due, NANOS_PER_MINUTE), 1);
+                    dueSoon++;
+                });
+        // Due before the frontier: every earlier day, and the part of its own day not still ahead of it
+        long day = Math.floorDiv(frontier, MINUTES_PER_DAY);
+        for (Map.Entry<Long, int[]> entry : pendingByDay.entrySet()) {
+            if (entry.getKey() < day) {
+                overdue += entry.getValue()[0];
+            }
+        }
+        overdue += dueOn(day) - dueFrom(frontier, (day + 1) * MINUTES_PER_DAY);
+    }
+
+    // Removes the previous state of a task and adds its new one; either is null for an insert or a delete
+    public synchronized void update(Task previous, Task current) {
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (current != null) {
+            count(current, 1);
+        }
+    }
+
+    private void count(Task task, int delta) {
+        total += delta;
+        int priority = task.getPriority() != null ? task.getPriority().ordinal() : -1;
+        if (priority >= 0) {
+            totalByPriority[priority] += delta;
+        }
+        if (task.isCompleted()) {
+            completed += delta;
+            return;
+        }
+        if (priority >= 0) {
+            pendingByPriority[priority] += delta;
+        }
+        if (task.getDueDate() == null) {
+            return;
+        }
+        long minute = minute(task.getDueDate());
+        add(pendingByDay, task.getDueDate().toLocalDate().toEpochDay(), delta);
+        if (minute < frontier) {
+            overdue += delta;
+        } else if (minute < frontier + DUE_SOON_MINUTES) {
+            add(pendingByMinute, minute, delta);
+            dueSoon += delta;
+        }
+    }
+
+    private static void add(Map<Long, int[]> buckets, long key, int delta) {
+        int[] count = buckets.computeIfAbsent(key, k -> new int[1]);
+        count[0] += delta;
+        if (count[0] == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Moves the frontier up to now, shifting the minutes it crosses from
+     * "due soon" to "overdue", and the tasks due in the minutes the horizon
+     * crosses to "due soon" (or straight to "overdue" after a jump of more
+     * than a day). Costs one step per minute bucket crossed plus a range scan
+     * of the tasks newly due soon. A clock set back leaves the frontier where
+     * it is until it catches up.
+     */
+    public synchronized void advance(LocalDateTime now) {
+        long next = frontier(now);
+        if (next <= frontier) {
+            return;
+        }
+        SortedMap<Long, int[]> passed = pendingByMinute.headMap(next);
+        for (int[] count : passed.values()) {
+            overdue += count[0];
+            dueSoon -= count[0];
+        }
+        passed.clear();
+        pendingDue.forEachPendingDue((frontier + DUE_SOON_MINUTES) * NANOS_PER_MINUTE,
+                (next + DUE_SOON_MINUTES) * NANOS_PER_MINUTE, (id, due) -> {
+                    long minute = Math.floorDiv(due, NANOS_PER_MINUTE);
+                    if (minute < next) {
+                        overdue++;
+                    } else {
+                        add(pendingByMinute, minute, 1);
+                        dueSoon++;
+                    }
+                });
+        frontier = next;
+    }
+
+    public synchronized Summary summary(LocalDateTime now) {
+        advance(now);
+        Map<Task.Priority, PriorityCounts> byPriority = new EnumMap<>(Task.Priority.class);
+        for (Task.Priority priority : PRIORITIES) {
+            byPriority.put(priority,
+                    new PriorityCounts(totalByPriority[priority.ordinal()], pendingByPriority[priority.ordinal()]));
+        }
+        return new Summary(now, total, completed, overdue, dueSoon, byPriority);
+    }
+
+    public synchronized int overdue(LocalDateTime now) {
+        advance(now);
+        return overdue;
+    }
+
+    public synchronized int dueSoon(LocalDateTime now) {
+        advance(now);
+        return dueSoon;
+    }
+
+    /**
+     * Pending tasks per day or week (from Monday), starting with the one that
+     * contains now: how many are due in it and how many are due after it,
+     * i.e. would remain if every task were done by its due date. Overdue
+     * tasks count as due in the period their due date falls in, or, if that
+     * has already passed, in none. Costs one lookup per day of the series plus
+     * one per minute bucket left today, whatever the task count.
+     */
+    public synchronized List<BurndownPoint> burndown(LocalDateTime now, Period period, int periods) {
+        advance(now);
+        LocalDate today = now.toLocalDate();
+        LocalDate start = period == Period.WEEK ? today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : today;
+        int days = period == Period.WEEK ? 7 : 1;
+
+        // Tasks due before the series starts: overdue ones, minus those due earlier in the first period
+        int dueBefore = overdue - (dueOn(today) - dueFrom(frontier, minute(today.plusDays(1).atStartOfDay())));
+        for (LocalDate day = start; day.isBefore(today); day = day.plusDays(1)) {
+            dueBefore -= dueOn(day);
+        }
+
+        int remaining = total - completed - dueBefore;
+        List<BurndownPoint> points = new ArrayList<>(periods);
+        LocalDate periodStart = start;
+        for (int i = 0; i < periods; i++) {
+            int due = 0;
+            for (int d = 0; d < days; d++) {
+                due += dueOn(periodStart.plusDays(d));
+            }
+            remaining -= due;
+            points.add(new BurndownPoint(periodStart, due, remaining));
+            periodStart = periodStart.plusDays(days);
+        }
+        return points;
+    }
+
+    private int dueOn(LocalDate day) {
+        return dueOn(day.toEpochDay());
+    }
+
+    private int dueOn(long epochDay) {
+        int[] count = pendingByDay.get(epochDay);
+        return count != null ? count[0] : 0;
+    }
+
+    // Pending tasks due in [fromMinute, toMinute), both within the due-soon minutes
+    private int dueFrom(long fromMinute, long toMinute) {
+        int due = 0;
+        for (int[] count : pendingByMinute.subMap(fromMinute, Math.max(fromMinute, toMinute)).values()) {
+            due += count[0];
+        }
+        return due;
+    }
+
+    // Local minutes since the epoch, so day and week boundaries fall on local midnight
+    private static long minute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    // A task is overdue once now is past its due date, so the minute that starts exactly now is not
+    private static long frontier(LocalDateTime now) {
+        long seconds = now.toEpochSecond(ZoneOffset.UTC);
+        return now.getNano() == 0 && seconds % 60 == 0 ? Math.floorDiv(seconds, 60L) : Math.floorDiv(seconds, 60L) + 1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.scheduler.controller;
+
+// A conditional change was rejected because the task has changed since the version the caller saw
+public class VersionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int taskId;
+    private final long currentVersion;
+
+    public VersionConflictException(int taskId, long expectedVersion, long currentVersion) {
+        super("Task " + taskId + " is at version " + currentVersion + ", not " + expectedVersion);
+        this.taskId = taskId;
+        this.currentVersion = currentVersion;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,711 @@
+package com.scheduler.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import com.scheduler.model.Task;
+
+/**
+ * Task dependencies as a directed acyclic graph, with the values derived
+ * from it kept up to date:
+ *
+ * <ul>
+ * <li>forward, from prerequisites to dependents: the number of pending
+ * prerequisites (a task is ready when it has none), the depth (every
+ * prerequisite is shallower than its dependents, so depth order is a
+ * topological order) and the work, i.e. the task's duration plus the longest
+ * chain of pending prerequisite durations before it;</li>
+ * <li>backward, from dependents to prerequisites: the latest finish, the
+ * earliest of the task's own due date and the latest starts of its pending
+ * dependents.</li>
+ * </ul>
+ *
+ * A blocked task is at risk from its due date minus its work on: past that
+ * instant, even doing its critical path (the chain of pending prerequisites
+ * that makes up the work) back to back ends after the due date. Only
+ * instants before the due date count, since the due date itself is
+ * "overdue". The latest finish is what a task's slack is measured against.
+ *
+ * Only tasks with a prerequisite or a dependent have a node. The owner feeds
+ * every change through {@link #apply}, which recomputes just the affected
+ * subgraph: forward values from the changed nodes through their descendants
+ * and backward values through their ancestors, in both cases only as far as
+ * values actually change. It is processed level by level, and a level of at
+ * least {@link #PARALLEL_THRESHOLD} nodes is computed in parallel on the
+ * common fork-join pool. Writers are expected to be serialized by the owner;
+ * a read-write lock keeps queries consistent.
+ */
+public class DependencyGraph {
+    // Returned for a task that is not at risk
+    public static final long NOT_AT_RISK = Long.MAX_VALUE;
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final long NO_DUE_DATE = Long.MAX_VALUE;
+    private static final int[] NO_IDS = new int[0];
+
+    // Called with a task's id, the instant it became at risk (or NOT_AT_RISK) and its due date
+    @FunctionalInterface
+    public interface RiskVisitor {
+        void visit(int id, long atRiskMillis, long dueMillis);
+    }
+
+    private static final class Node {
+        private final int id;
+        private int[] prerequisites = NO_IDS;
+        // Unordered; a task has few dependents, so additions and removals copy
+        private int[] dependents = NO_IDS;
+        private boolean completed;
+        private long dueMillis = NO_DUE_DATE;
+        private long durationMillis;
+        private int pendingPrerequisites;
+        // Pending itself and waiting for a pending prerequisite; counted in blocked
+        private boolean blocked;
+        private int depth;
+        private long work;
+        private long latestFinish = NO_DUE_DATE;
+        private long atRisk = NOT_AT_RISK;
+        // Due date last reported along with atRisk
+        private long reportedDueMillis = NO_DUE_DATE;
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        boolean isolated() {
+            return prerequisites.length == 0 && dependents.length == 0;
+        }
+    }
+
+    /**
+     * Where a task stands; see {@link DependencyGraph#status}. Chains are in
+     * topological order, prerequisites first.
+     */
+    public static final class Status {
+        private final int[] blockedBy;
+        private final int[] chain;
+        private final int[] criticalPath;
+        private final long workMillis;
+        private final long latestFinishMillis;
+        private final long atRiskMillis;
+
+        Status(int[] blockedBy, int[] chain, int[] criticalPath, long workMillis, long latestFinishMillis,
+               long atRiskMillis) {
+            this.blockedBy = blockedBy;
+            this.chain = chain;
+            this.criticalPath = criticalPath;
+            this.workMillis = workMillis;
+            this.latestFinishMillis = latestFinishMillis;
+            this.atRiskMillis = atRiskMillis;
+        }
+
+        // Pending direct prerequisites
+        public int[] getBlockedBy() { return blockedBy; }
+        // Every pending prerequisite, direct or not
+        public int[] getChain() { return chain; }
+        // Pending prerequisites on the longest chain of work, ending with the task itself
+        public int[] getCriticalPath() { return criticalPath; }
+        public long getWorkMillis() { return workMillis; }
+        // Epoch millis; Long.MAX_VALUE without a due date
+        public long getLatestFinishMillis() { return latestFinishMillis; }
+        public long getAtRiskMillis() { return atRiskMillis; }
+
+        public boolean isReady() {
+            return blockedBy.length == 0;
+        }
+    }
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    // Reads tasks that become prerequisites; the graph keeps only what it derives values from
+    private final IntFunction<Task> lookup;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int blocked;
+    // Node count before the change being applied; see computeForward
+    private int depthSlack;
+
+    public DependencyGraph(IntFunction<Task> lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Applies the current state of changed tasks (null for a deleted one)
+     * and recomputes the affected subgraph. Every task whose at-risk instant
+     * changed is reported to riskChanges, after the lock is released.
+     */
+    public void apply(Map<Integer, Task> changed, RiskVisitor riskChanges) {
+        apply(changed, riskChanges, false);
+    }
+
+    // Feeds every task that has dependencies, e.g. at startup, and computes the whole graph
+    public void load(Consumer<Consumer<Task>> dependents) {
+        Map<Integer, Task> tasks = new HashMap<>();
+        dependents.accept(task -> tasks.put(task.getId(), task));
+        apply(tasks, (id, atRiskMillis, dueMillis) -> { }, true);
+    }
+
+    private void apply(Map<Integer, Task> changed, RiskVisitor riskChanges, boolean full) {
+        List<Node> risks = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            depthSlack = nodes.size();
+            Set<Node> seeds = new HashSet<>();
+            for (Map.Entry<Integer, Task> entry : changed.entrySet()) {
+                if (entry.getValue() != null) {
+                    update(entry.getValue(), seeds);
+                } else {
+                    remove(entry.getKey(), seeds);
+                }
+            }
+            if (full) {
+                recomputeAll(risks);
+            } else {
+                recompute(seeds, risks);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Node node : risks) {
+            riskChanges.visit(node.id, node.atRisk, node.dueMillis);
+        }
+    }
+
+    private void update(Task task, Set<Node> seeds) {
+        Node node = nodes.get(task.getId());
+        if (node == null && task.getDependsOn().isEmpty()) {
+            return;
+        }
+        if (node == null) {
+            node = new Node(task.getId());
+            nodes.put(node.id, node);
+        }
+        setAttributes(node, task);
+        seeds.add(node);
+
+        int[] previous = node.prerequisites;
+        int[] current = new int[task.getDependsOn().size()];
+        int count = 0;
+        for (int id : task.getDependsOn()) {
+            Node prerequisite = nodes.get(id);
+            if (prerequisite == null) {
+                Task stored = lookup.apply(id);
+                // Missing only if the stored data is inconsistent; the edge is ignored
+                if (stored == null) {
+                    continue;
+                }
+                prerequisite = new Node(id);
+                setAttributes(prerequisite, stored);
+                nodes.put(id, prerequisite);
+            }
+            current[count++] = id;
+        }
+        current = Arrays.copyOf(current, count);
+        node.prerequisites = current;
+
+        for (int id : previous) {
+            if (Arrays.binarySearch(current, id) < 0) {
+                Node prerequisite = nodes.get(id);
+                prerequisite.dependents = without(prerequisite.dependents, node.id);
+                seeds.add(prerequisite);
+                dropIfIsolated(prerequisite);
+            }
+        }
+        for (int id : current) {
+            if (Arrays.binarySearch(previous, id) < 0) {
+                Node prerequisite = nodes.get(id);
+                prerequisite.dependents = with(prerequisite.dependents, node.id);
+                seeds.add(prerequisite);
+            }
+        }
+        dropIfIsolated(node);
+    }
+
+    private void remove(int id, Set<Node> seeds) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return;
+        }
+        detach(node);
+        for (int prerequisiteId : node.prerequisites) {
+            Node prerequisite = nodes.get(prerequisiteId);
+            prerequisite.dependents = without(prerequisite.dependents, id);
+            seeds.add(prerequisite);
+            dropIfIsolated(prerequisite);
+        }
+        // The owner rewrites the dependents too; dropping the edges here keeps the graph sound regardless
+        for (int dependentId : node.dependents) {
+            Node dependent = nodes.get(dependentId);
+            dependent.prerequisites = without(dependent.prerequisites, id);
+            seeds.add(dependent);
+            dropIfIsolated(dependent);
+        }
+        seeds.add(node);
+    }
+
+    private void setAttributes(Node node, Task task) {
+        node.completed = task.isCompleted();
+        node.dueMillis = task.getDueDate() != null ? toEpochMillis(task.getDueDate()) : NO_DUE_DATE;
+        node.durationMillis = TimeUnit.MINUTES.toMillis(Math.max(task.getDurationMinutes(), 0));
+    }
+
+    // A node left without edges leaves the graph; its derived values reset to those of a lone task
+    private void dropIfIsolated(Node node) {
+        if (node.isolated() && nodes.get(node.id) == node) {
+            detach(node);
+        }
+    }
+
+    private void detach(Node node) {
+        nodes.remove(node.id);
+        if (node.blocked) {
+            blocked--;
+            node.blocked = false;
+        }
+    }
+
+    private void recompute(Set<Node> seeds, List<Node> risks) {
+        Set<Node> live = new HashSet<>();
+        for (Node seed : seeds) {
+            if (nodes.get(seed.id) == seed) {
+                live.add(seed);
+            }
+        }
+        // Risk follows the forward values and the due date, which only seeds change
+        Set<Node> touched = propagate(live, true);
+        propagate(live, false);
+        touched.addAll(seeds);
+
+        // Nodes that left the graph first: a task can leave and come back within one change
+        List<Node> ordered = new ArrayList<>(touched);
+        ordered.sort(Comparator.comparing((Node n) -> nodes.get(n.id) == n));
+        for (Node node : ordered) {
+            updateRisk(node, risks);
+        }
+    }
+
+    // Every node from scratch, a level of Kahn's algorithm at a time: each only
+    // depends on earlier levels going forward and on later ones going backward
+    private void recomputeAll(List<Node> risks) {
+        List<List<Node>> levels = levels();
+        for (List<Node> level : levels) {
+            computeLevel(level, this::computeForward);
+        }
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            computeLevel(levels.get(i), this::computeBackward);
+        }
+        for (Node node : nodes.values()) {
+            updateRisk(node, risks);
+        }
+    }
+
+    private void updateRisk(Node node, List<Node> risks) {
+        long atRisk = nodes.get(node.id) == node ? atRisk(node) : NOT_AT_RISK;
+        // A moved due date is reported too, since reminders are keyed by it
+        if (atRisk != node.atRisk || atRisk != NOT_AT_RISK && node.dueMillis != node.reportedDueMillis) {
+            node.atRisk = atRisk;
+            node.reportedDueMillis = node.dueMillis;
+            risks.add(node);
+        }
+    }
+
+    private List<List<Node>> levels() {
+        Map<Node, Integer> waiting = new HashMap<>();
+        List<Node> level = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.prerequisites.length == 0) {
+                level.add(node);
+            } else {
+                waiting.put(node, node.prerequisites.length);
+            }
+        }
+        List<List<Node>> levels = new ArrayList<>();
+        while (!level.isEmpty()) {
+            levels.add(level);
+            List<Node> next = new ArrayList<>();
+            for (Node node : level) {
+                for (int id : node.dependents) {
+                    Node dependent = nodes.get(id);
+                    if (waiting.merge(dependent, -1, Integer::sum) == 0) {
+                        waiting.remove(dependent);
+                        next.add(dependent);
+                    }
+                }
+            }
+            level = next;
+        }
+        if (!waiting.isEmpty()) {
+            throw new IllegalStateException("Dependency cycle through tasks " + Arrays.toString(ids(waiting.keySet())));
+        }
+        return levels;
+    }
+
+    // Nodes of one level read no other node of it, so they can be computed in any order
+    private static boolean[] computeLevel(List<Node> level, Predicate<Node> compute) {
+        boolean[] changed = new boolean[level.size()];
+        IntStream indexes = IntStream.range(0, level.size());
+        if (level.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> changed[i] = compute.test(level.get(i)));
+        return changed;
+    }
+
+    /**
+     * Recomputes the forward (or backward) values from the seeds on, in
+     * depth order, so that a node comes after the prerequisites (or
+     * dependents) it reads. A node's followers are only queued if its values
+     * changed, or if it is a seed, whose own attributes may have; propagation
+     * stops where a change is absorbed. Nodes of equal depth are independent
+     * and form one batch, computed in parallel when it is large. A seed whose
+     * edges changed may sit at a stale depth until it is recomputed, so a
+     * batch defers any node whose input is in the same batch.
+     *
+     * @return the nodes whose values changed, seeds included
+     */
+    private Set<Node> propagate(Set<Node> seeds, boolean downstream) {
+        Comparator<Node> byDepth = Comparator.comparingInt((Node n) -> n.depth).thenComparingInt(n -> n.id);
+        PriorityQueue<Node> queue = new PriorityQueue<>(downstream ? byDepth : byDepth.reversed());
+        Set<Node> queued = new HashSet<>(seeds);
+        queue.addAll(seeds);
+        Set<Node> changed = new HashSet<>();
+        List<Node> batch = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            int depth = queue.peek().depth;
+            while (!queue.isEmpty() && queue.peek().depth == depth) {
+                batch.add(queue.poll());
+            }
+            Set<Node> inBatch = batch.size() > 1 ? new HashSet<>(batch) : Set.of();
+            List<Node> deferred = new ArrayList<>();
+            batch.removeIf(node -> {
+                for (int id : downstream ? node.prerequisites : node.dependents) {
+                    if (inBatch.contains(nodes.get(id))) {
+                        deferred.add(node);
+                        return true;
+                    }
+                }
+                return false;
+            });
+            queue.addAll(deferred);
+
+            boolean[] results = computeLevel(batch, downstream ? this::computeForward : this::computeBackward);
+
+            for (int i = 0; i < batch.size(); i++) {
+                Node node = batch.get(i);
+                queued.remove(node);
+                if (!results[i] && !seeds.contains(node)) {
+                    continue;
+                }
+                changed.add(node);
+                for (int id : downstream ? node.dependents : node.prerequisites) {
+                    Node follower = nodes.get(id);
+                    if (queued.add(follower)) {
+                        queue.add(follower);
+                    }
+                }
+            }
+            batch.clear();
+        }
+        return changed;
+    }
+
+    // Returns whether any forward value changed
+    private boolean computeForward(Node node) {
+        int pending = 0;
+        int depth = 0;
+        long longest = 0;
+        for (int id : node.prerequisites) {
+            Node prerequisite = nodes.get(id);
+            depth = Math.max(depth, prerequisite.depth + 1);
+            if (!prerequisite.completed) {
+                pending++;
+                longest = Math.max(longest, prerequisite.work);
+            }
+        }
+        // A depth still read from before the change adds at most the node count
+        // from before; anything deeper than both counts means the stored dependencies loop
+        if (depth > nodes.size() + depthSlack) {
+            throw new IllegalStateException("Dependency cycle through task " + node.id);
+        }
+        boolean isBlocked = pending > 0 && !node.completed;
+        if (isBlocked != node.blocked) {
+            // Nodes of a batch may be computed in parallel; count under a monitor
+            synchronized (this) {
+                blocked += isBlocked ? 1 : -1;
+            }
+            node.blocked = isBlocked;
+        }
+        long work = node.completed ? 0 : saturatedAdd(node.durationMillis, longest);
+        boolean changed = pending != node.pendingPrerequisites || depth != node.depth || work != node.work;
+        node.pendingPrerequisites = pending;
+        node.depth = depth;
+        node.work = work;
+        return changed;
+    }
+
+    // Returns whether the latest finish changed
+    private boolean computeBackward(Node node) {
+        long latestFinish = node.dueMillis;
+        for (int id : node.dependents) {
+            Node dependent = nodes.get(id);
+            if (!dependent.completed && dependent.latestFinish != NO_DUE_DATE) {
+                latestFinish = Math.min(latestFinish, dependent.latestFinish - dependent.durationMillis);
+            }
+        }
+        boolean changed = latestFinish != node.latestFinish;
+        node.latestFinish = latestFinish;
+        return changed;
+    }
+
+    private static long atRisk(Node node) {
+        if (!node.blocked || node.dueMillis == NO_DUE_DATE) {
+            return NOT_AT_RISK;
+        }
+        long atRisk = node.dueMillis - node.work;
+        return atRisk < node.dueMillis ? atRisk : NOT_AT_RISK;
+    }
+
+    /**
+     * Whether making the task depend on these prerequisites would close a
+     * cycle, i.e. whether the task is already one of their transitive
+     * prerequisites. Dependencies in pending (such as those set by earlier
+     * operations of a batch) take precedence over the graph's.
+     */
+    public boolean createsCycle(int id, List<Integer> prerequisites, Map<Integer, List<Integer>> pending) {
+        lock.readLock().lock();
+        try {
+            Set<Integer> visited = new HashSet<>();
+            ArrayDeque<Integer> stack = new ArrayDeque<>(prerequisites);
+            while (!stack.isEmpty()) {
+                int current = stack.pop();
+                if (current == id) {
+                    return true;
+                }
+                if (!visited.add(current)) {
+                    continue;
+                }
+                List<Integer> next = pending.get(current);
+                if (next != null) {
+                    stack.addAll(next);
+                } else {
+                    Node node = nodes.get(current);
+                    if (node != null) {
+                        for (int prerequisite : node.prerequisites) {
+                            stack.push(prerequisite);
+                        }
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Pending and waiting for a pending prerequisite
+    public boolean isBlocked(int id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null && node.blocked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tasks that depend on this one; empty if none
+    public int[] dependents(int id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? node.dependents.clone() : NO_IDS;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long atRisk(int id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? node.atRisk : NOT_AT_RISK;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Null for a task without dependencies or dependents, which is ready and never at risk
+    public Status status(int id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node == null) {
+                return null;
+            }
+            List<Node> blockedBy = new ArrayList<>();
+            for (int prerequisiteId : node.prerequisites) {
+                Node prerequisite = nodes.get(prerequisiteId);
+                if (!prerequisite.completed) {
+                    blockedBy.add(prerequisite);
+                }
+            }
+            // Completed prerequisites no longer hold anything up, so the walk stops at them
+            Set<Node> chain = new HashSet<>();
+            ArrayDeque<Node> stack = new ArrayDeque<>(blockedBy);
+            while (!stack.isEmpty()) {
+                Node current = stack.pop();
+                if (!chain.add(current)) {
+                    continue;
+                }
+                for (int prerequisiteId : current.prerequisites) {
+                    Node prerequisite = nodes.get(prerequisiteId);
+                    if (!prerequisite.completed) {
+                        stack.push(prerequisite);
+                    }
+                }
+            }
+            List<Node> ordered = new ArrayList<>(chain);
+            ordered.sort(Comparator.comparingInt((Node n) -> n.depth).thenComparingInt(n -> n.id));
+
+            // Backwards from the task, always through the prerequisite with the most work
+            List<Integer> criticalPath = new ArrayList<>();
+            for (Node current = node.completed ? null : node; current != null; ) {
+                criticalPath.add(current.id);
+                Node longest = null;
+                for (int prerequisiteId : current.prerequisites) {
+                    Node prerequisite = nodes.get(prerequisiteId);
+                    if (!prerequisite.completed && (longest == null || prerequisite.work > longest.work)) {
+                        longest = prerequisite;
+                    }
+                }
+                current = longest;
+            }
+            int[] path = new int[criticalPath.size()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = criticalPath.get(path.length - 1 - i);
+            }
+            return new Status(ids(blockedBy), ids(ordered), path, node.work, node.latestFinish, node.atRisk);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits every task at risk from an instant in [fromMillis, toMillis)
+    public void forEachAtRisk(long fromMillis, long toMillis, RiskVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (Node node : nodes.values()) {
+                if (node.atRisk != NOT_AT_RISK && node.atRisk >= fromMillis && node.atRisk < toMillis) {
+                    visitor.visit(node.id, node.atRisk, node.dueMillis);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit blocked tasks, most urgent first: by the latest instant
+     * their pending chain can start (latest finish minus work), then by id.
+     */
+    public List<Integer> blocked(int limit) {
+        Comparator<Node> urgency = Comparator.comparingLong(DependencyGraph::latestStart)
+                .thenComparingInt(n -> n.id);
+        lock.readLock().lock();
+        try {
+            // The limit most urgent, kept with the least urgent on top
+            PriorityQueue<Node> top = new PriorityQueue<>(urgency.reversed());
+            for (Node node : nodes.values()) {
+                if (!node.blocked) {
+                    continue;
+                }
+                top.add(node);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Node> sorted = new ArrayList<>(top);
+            sorted.sort(urgency);
+            List<Integer> ids = new ArrayList<>(sorted.size());
+            for (Node node : sorted) {
+                ids.add(node.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long latestStart(Node node) {
+        return node.latestFinish == NO_DUE_DATE ? NO_DUE_DATE : node.latestFinish - node.work;
+    }
+
+    // Tasks with a prerequisite or a dependent
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Pending tasks waiting for a pending prerequisite
+    public int blockedCount() {
+        lock.readLock().lock();
+        try {
+            return blocked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] with(int[] ids, int id) {
+        int[] copy = Arrays.copyOf(ids, ids.length + 1);
+        copy[ids.length] = id;
+        return copy;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                int[] copy = new int[ids.length - 1];
+                System.arraycopy(ids, 0, copy, 0, i);
+                System.arraycopy(ids, i + 1, copy, i, ids.length - i - 1);
+                return copy;
+            }
+        }
+        return ids;
+    }
+
+    private static int[] ids(Collection<Node> nodes) {
+        int[] ids = new int[nodes.size()];
+        int i = 0;
+        for (Node node : nodes) {
+            ids[i++] = node.id;
+        }
+        return ids;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,164 @@
+package com.scheduler.index;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Task;
+
+/**
+ * Task ids kept in list order (dueDate, then priority as in {@link Task#compareTo},
+ * then id) so that reads are an ordered traversal instead of a copy and sort.
+ *
+ * Only the sort keys are kept; the tasks themselves are looked up by id.
+ * Callers pass the key a task was indexed under when moving or removing it.
+ * Writers are expected to be serialized by the owner, readers need no locking.
+ */
+public class SortedTaskIndex {
+
+    public static final class TaskKey implements Comparable<TaskKey> {
+        // dueOrder of a task without a due date
+        public static final long NO_DUE_DATE = Long.MAX_VALUE;
+
+        // dueDate as EpochNanos (tasks without one sort last), so a key is three primitives
+        private final long dueOrder;
+        // Ascending rank gives the reversed priority order of Task.compareTo
+        private final int priorityRank;
+        private final int id;
+
+        private TaskKey(long dueOrder, int priorityRank, int id) {
+            this.dueOrder = dueOrder;
+            this.priorityRank = priorityRank;
+            this.id = id;
+        }
+
+        private TaskKey(LocalDateTime dueDate, int priorityRank, int id) {
+            this(dueDate != null ? EpochNanos.of(dueDate) : NO_DUE_DATE, priorityRank, id);
+        }
+
+        public TaskKey(LocalDateTime dueDate, Task.Priority priority, int id) {
+            this(dueDate, priority != null ? -priority.ordinal() : 1, id);
+        }
+
+        public static TaskKey of(Task task) {
+            return new TaskKey(task.getDueDate(), task.getPriority(), task.getId());
+        }
+
+        // Sorts before every task due at or after the given time
+        public static TaskKey lowerBound(LocalDateTime dueDate) {
+            return new TaskKey(dueDate, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        }
+
+        public static TaskKey lowerBound(long dueOrder) {
+            return new TaskKey(dueOrder, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        }
+
+        // Opaque, URL-safe position used as a keyset pagination cursor
+        public String toCursor() {
+            String dueDate = dueOrder != NO_DUE_DATE ? EpochNanos.toDateTime(dueOrder).toString() : "";
+            String raw = dueDate + "|" + priorityRank + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static TaskKey fromCursor(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                LocalDateTime dueDate = parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]);
+                return new TaskKey(dueDate, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        public long getDueOrder() { return dueOrder; }
+        public int getPriorityRank() { return priorityRank; }
+        public int getId() { return id; }
+
+        @Override
+        public int compareTo(TaskKey other) {
+            int dateComparison = Long.compare(dueOrder, other.dueOrder);
+            if (dateComparison != 0) return dateComparison;
+
+            int priorityComparison = Integer.compare(priorityRank, other.priorityRank);
+            if (priorityComparison != 0) return priorityComparison;
+
+            return Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TaskKey)) return false;
+            TaskKey key = (TaskKey) o;
+            return id == key.id && priorityRank == key.priorityRank && dueOrder == key.dueOrder;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dueOrder, priorityRank, id);
+        }
+    }
+
+    private final ConcurrentSkipListSet<TaskKey> ordered = new ConcurrentSkipListSet<>();
+    // The skip list's own size() is a full traversal
+    private final AtomicInteger size = new AtomicInteger();
+
+    public void add(TaskKey key) {
+        if (ordered.add(key)) {
+            size.incrementAndGet();
+        }
+    }
+
+    // Moves a task from the key it was indexed under to its new one
+    public void move(TaskKey previous, TaskKey key) {
+        if (!previous.equals(key)) {
+            remove(previous);
+            add(key);
+        }
+    }
+
+    public void remove(TaskKey key) {
+        if (ordered.remove(key)) {
+            size.decrementAndGet();
+        }
+    }
+
+    // Bulk load at startup, before readers or writers see the index. Inserting
+    // in key order keeps every skip list search on the recently touched tail.
+    public void addAll(List<TaskKey> keys) {
+        keys.sort(null);
+        for (TaskKey key : keys) {
+            add(key);
+        }
+    }
+
+    public void clear() {
+        ordered.clear();
+        size.set(0);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // Live, weakly consistent view in list order
+    public NavigableSet<TaskKey> keys() {
+        return Collections.unmodifiableNavigableSet(ordered);
+    }
+
+    // Live view of the keys strictly after the given one (all keys for null)
+    public NavigableSet<TaskKey> keysAfter(TaskKey key) {
+        return Collections.unmodifiableNavigableSet(key != null ? ordered.tailSet(key, false) : ordered);
+    }
+}
@@ -0,0 +1,560 @@
+package com.scheduler.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.scheduler.model.Task;
+
+/**
+ * Inverted index over task titles and descriptions.
+ *
+ * Each term maps to a posting list: the ids of the tasks that contain it, as
+ * a sorted int array, with a small weight per task (title occurrences count
+ * three times as much as description ones). Terms are lower-cased runs of
+ * letters and digits and are kept in a sorted dictionary, so a prefix query
+ * is a range scan over the dictionary.
+ *
+ * A query is a list of terms that must all match; a term ending in '*'
+ * matches any term with that prefix. Terms are intersected smallest first,
+ * so the cost follows the rarest term rather than the number of tasks.
+ * Results are ranked by the sum of weight times inverse document frequency.
+ *
+ * The terms each task was indexed under are remembered, in an array indexed
+ * by task id, so a re-index can drop the stale ones. Writers are expected to
+ * be serialized by the owner; a read-write lock keeps queries consistent.
+ */
+public class TextIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MAX_WEIGHT = 255;
+
+    // Ids of the tasks containing one term, ascending, with a weight each
+    private static final class Postings {
+        private final String term;
+        private int[] ids = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void put(int id, int weight) {
+            // New tasks get the highest id so far; appending is the common case
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                weights[index] = (byte) weight;
+                return;
+            }
+            index = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = id;
+            weights[index] = (byte) weight;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+                size--;
+            }
+        }
+
+        int weightAt(int index) {
+            return weights[index] & 0xFF;
+        }
+    }
+
+    // One query term, resolved to the posting lists it matches
+    private static final class Match {
+        private final List<Postings> postings;
+        private final long size;
+
+        Match(List<Postings> postings) {
+            this.postings = postings;
+            this.size = postings.stream().mapToLong(p -> p.size).sum();
+        }
+    }
+
+    /** One term of a parsed query; a prefix term matches every term starting with it. */
+    public static final class QueryTerm {
+        private final String term;
+        private final boolean prefix;
+
+        QueryTerm(String term, boolean prefix) {
+            this.term = term;
+            this.prefix = prefix;
+        }
+
+        public String getTerm() { return term; }
+        public boolean isPrefix() { return prefix; }
+    }
+
+    /** Ranked matches of one query: ids and scores, best first. */
+    public static final class Hits {
+        public static final Hits EMPTY = new Hits(0, new int[0], new float[0]);
+
+        private final int total;
+        private final int[] ids;
+        private final float[] scores;
+
+        public Hits(int total, int[] ids, float[] scores) {
+            this.total = total;
+            this.ids = ids;
+            this.scores = scores;
+        }
+
+        // Number of matching tasks, including those beyond the limit
+        public int getTotal() { return total; }
+        public int[] getIds() { return ids; }
+        public float[] getScores() { return scores; }
+    }
+
+    // Exact lookups go through the hash map; the sorted copy only serves prefix scans
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final TreeMap<String, Postings> sortedTerms = new TreeMap<>();
+    // Terms of each indexed task by id; null for ids that are not indexed
+    private String[][] termsById = new String[1024][];
+    private int documents;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Indexes a new task or replaces the terms of a changed one
+    public void index(Task task) {
+        Map<String, Integer> weights = weigh(task);
+        lock.writeLock().lock();
+        try {
+            put(task.getId(), weights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bulk load at startup. Fastest in id order, where every posting list is appended to.
+    public void indexAll(Iterable<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                put(task.getId(), weigh(task));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = terms(id);
+            if (previous != null) {
+                termsById[id] = null;
+                documents--;
+                for (String term : previous) {
+                    removePosting(term, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            sortedTerms.clear();
+            termsById = new String[1024][];
+            documents = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(int id, Map<String, Integer> weights) {
+        String[] previous = terms(id);
+        if (previous != null) {
+            for (String term : previous) {
+                if (!weights.containsKey(term)) {
+                    removePosting(term, id);
+                }
+            }
+        }
+        String[] current = new String[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            String term = entry.getKey();
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings(term);
+                terms.put(term, postings);
+                sortedTerms.put(term, postings);
+            }
+            postings.put(id, entry.getValue());
+            // Share the dictionary's String instead of keeping one per task
+            current[i++] = postings.term;
+        }
+        if (id >= termsById.length) {
+            termsById = Arrays.copyOf(termsById, Math.max(id + 1, termsById.length * 2));
+        }
+        if (previous == null) {
+            documents++;
+        }
+        termsById[id] = current;
+    }
+
+    private String[] terms(int id) {
+        return id >= 0 && id < termsById.length ? termsById[id] : null;
+    }
+
+    private void removePosting(String term, int id) {
+        Postings postings = terms.get(term);
+        if (postings != null) {
+            postings.remove(id);
+            if (postings.size == 0) {
+                terms.remove(term);
+                sortedTerms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Tasks containing every term of the query, best match first.
+     *
+     * @param limit maximum number of ids returned; the total is always counted
+     */
+    public Hits search(String query, int limit) {
+        List<QueryTerm> queryTerms = parseQuery(query);
+        if (queryTerms.isEmpty()) {
+            return Hits.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>(queryTerms.size());
+            for (QueryTerm queryTerm : queryTerms) {
+                String term = queryTerm.term;
+                List<Postings> postings;
+                if (queryTerm.prefix) {
+                    postings = new ArrayList<>(sortedTerms.subMap(term, true, prefixEnd(term), false).values());
+                } else {
+                    Postings exact = terms.get(term);
+                    postings = exact != null ? List.of(exact) : List.of();
+                }
+                if (postings.isEmpty()) {
+                    return Hits.EMPTY;
+                }
+                matches.add(new Match(postings));
+            }
+            matches.sort(Comparator.comparingLong(match -> match.size));
+
+            int documents = this.documents;
+            if (matches.size() == 1 && matches.get(0).postings.size() == 1) {
+                return top(matches.get(0).postings.get(0), idf(documents, matches.get(0).postings.get(0)), limit);
+            }
+            Candidates candidates = materialize(matches.get(0), documents);
+            for (int i = 1; i < matches.size() && candidates.size > 0; i++) {
+                Match match = matches.get(i);
+                if (match.postings.size() == 1) {
+                    candidates.retainIn(match.postings.get(0), idf(documents, match.postings.get(0)));
+                } else {
+                    candidates.retainIn(materialize(match, documents));
+                }
+            }
+            return candidates.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids (ascending) and accumulated scores of the tasks still matching
+    private static final class Candidates {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+
+        Candidates(int[] ids, float[] scores, int size) {
+            this.ids = ids;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        // Keeps the candidates found in the posting list, searching forward from the last hit
+        void retainIn(Postings postings, float idf) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < size && from < postings.size; i++) {
+                int index = Arrays.binarySearch(postings.ids, from, postings.size, ids[i]);
+                if (index >= 0) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + idf * postings.weightAt(index);
+                    kept++;
+                    from = index + 1;
+                } else {
+                    from = -(index + 1);
+                }
+            }
+            size = kept;
+        }
+
+        // Merge-intersects with another sorted candidate set
+        void retainIn(Candidates other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; i++) {
+                while (j < other.size && other.ids[j] < ids[i]) {
+                    j++;
+                }
+                if (j < other.size && other.ids[j] == ids[i]) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + other.scores[j];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        // Best first, ties broken by id; a bounded min-heap keeps this O(n log limit)
+        Hits top(int limit) {
+            int k = Math.min(limit, size);
+            int[] heap = new int[k];
+            int heapSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (heapSize < k) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (k > 0 && better(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+            int[] topIds = new int[heapSize];
+            float[] topScores = new float[heapSize];
+            for (int n = heapSize - 1; n >= 0; n--) {
+                int best = heap[0];
+                topIds[n] = ids[best];
+                topScores[n] = scores[best];
+                heap[0] = heap[n];
+                siftDown(heap, n);
+            }
+            return new Hits(size, topIds, topScores);
+        }
+
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && ids[a] < ids[b]);
+        }
+
+        // The root holds the worst of the kept candidates
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(heap[parent], heap[index])) {
+                    break;
+                }
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int index = 0;
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && better(heap[worst], heap[left])) worst = left;
+                if (right < heapSize && better(heap[worst], heap[right])) worst = right;
+                if (worst == index) {
+                    return;
+                }
+                swap(heap, index, worst);
+                index = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    // One exact term: scores differ only by weight, so counting weights finds the best without sorting
+    private static Hits top(Postings postings, float idf, int limit) {
+        int[] counts = new int[MAX_WEIGHT + 1];
+        for (int i = 0; i < postings.size; i++) {
+            counts[postings.weightAt(i)]++;
+        }
+        int k = Math.min(limit, postings.size);
+        int threshold = MAX_WEIGHT;
+        int above = 0;
+        while (threshold > 0 && above + counts[threshold] < k) {
+            above += counts[threshold--];
+        }
+        // Everything weighing more than the threshold, then the lowest ids at the threshold
+        long[] selected = new long[k];
+        int n = 0;
+        int atThreshold = k - above;
+        for (int i = 0; i < postings.size && n < k; i++) {
+            int weight = postings.weightAt(i);
+            if (weight > threshold || (weight == threshold && atThreshold-- > 0)) {
+                selected[n++] = (long) (MAX_WEIGHT - weight) << 32 | postings.ids[i];
+            }
+        }
+        Arrays.sort(selected, 0, n);
+        int[] ids = new int[n];
+        float[] scores = new float[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = (int) selected[i];
+            scores[i] = idf * (MAX_WEIGHT - (int) (selected[i] >>> 32));
+        }
+        return new Hits(postings.size, ids, scores);
+    }
+
+    // Flattens a match into sorted candidates; a prefix can hit several terms of one task
+    private static Candidates materialize(Match match, int documents) {
+        if (match.postings.size() == 1) {
+            Postings postings = match.postings.get(0);
+            float idf = idf(documents, postings);
+            float[] scores = new float[postings.size];
+            for (int i = 0; i < postings.size; i++) {
+                scores[i] = idf * postings.weightAt(i);
+            }
+            return new Candidates(Arrays.copyOf(postings.ids, postings.size), scores, postings.size);
+        }
+
+        float[] idfs = new float[match.postings.size()];
+        for (int p = 0; p < idfs.length; p++) {
+            idfs[p] = idf(documents, match.postings.get(p));
+        }
+        // Packs (id, posting list, position) so one primitive sort orders by id. List
+        // numbers get 12 bits and positions 20; larger matches fall back to a map.
+        if (idfs.length >= 1 << 12 || match.postings.stream().anyMatch(p -> p.size >= 1 << 20)) {
+            return materializeWithMap(match, idfs);
+        }
+        long[] packed = new long[(int) match.size];
+        int n = 0;
+        for (int p = 0; p < idfs.length; p++) {
+            Postings postings = match.postings.get(p);
+            for (int i = 0; i < postings.size; i++) {
+                packed[n++] = (long) postings.ids[i] << 32 | (long) p << 20 | i;
+            }
+        }
+        Arrays.sort(packed);
+        int[] ids = new int[packed.length];
+        float[] scores = new float[packed.length];
+        int size = 0;
+        for (long entry : packed) {
+            int id = (int) (entry >>> 32);
+            int p = (int) (entry >>> 20) & 0xFFF;
+            int i = (int) entry & 0xFFFFF;
+            float score = idfs[p] * match.postings.get(p).weightAt(i);
+            if (size > 0 && ids[size - 1] == id) {
+                scores[size - 1] += score;
+            } else {
+                ids[size] = id;
+                scores[size] = score;
+                size++;
+            }
+        }
+        return new Candidates(ids, scores, size);
+    }
+
+    private static Candidates materializeWithMap(Match match, float[] idfs) {
+        TreeMap<Integer, Float> merged = new TreeMap<>();
+        for (int p = 0; p < match.postings.size(); p++) {
+            Postings postings = match.postings.get(p);
+            for (int i = 0; i < postings.size; i++) {
+                merged.merge(postings.ids[i], idfs[p] * postings.weightAt(i), Float::sum);
+            }
+        }
+        int[] ids = new int[merged.size()];
+        float[] scores = new float[merged.size()];
+        int size = 0;
+        for (Map.Entry<Integer, Float> entry : merged.entrySet()) {
+            ids[size] = entry.getKey();
+            scores[size++] = entry.getValue();
+        }
+        return new Candidates(ids, scores, size);
+    }
+
+    private static float idf(int documents, Postings postings) {
+        return idf(documents, postings.size);
+    }
+
+    public static float idf(int documents, long matching) {
+        return (float) Math.log(1 + (double) documents / matching);
+    }
+
+    // Terms a query must match, in query order; a '*' ends a prefix term
+    public static List<QueryTerm> parseQuery(String query) {
+        List<QueryTerm> queryTerms = new ArrayList<>();
+        for (String chunk : query.trim().split("\\s+")) {
+            boolean prefix = chunk.endsWith("*");
+            List<String> tokens = tokenize(chunk);
+            for (int i = 0; i < tokens.size(); i++) {
+                queryTerms.add(new QueryTerm(tokens.get(i), prefix && i == tokens.size() - 1));
+            }
+        }
+        return queryTerms;
+    }
+
+    // Exclusive upper bound of the terms starting with prefix
+    public static String prefixEnd(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+
+    // Weight of each term of a task: title occurrences count TITLE_WEIGHT times, capped at MAX_WEIGHT
+    public static Map<String, Integer> weigh(Task task) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(task.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, (a, b) -> Math.min(MAX_WEIGHT, a + b));
+        }
+        for (String term : tokenize(task.getDescription())) {
+            weights.merge(term, 1, (a, b) -> Math.min(MAX_WEIGHT, a + b));
+        }
+        return weights;
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        char[] token = new char[32];
+        int length = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (length == token.length) {
+                    token = Arrays.copyOf(token, length * 2);
+                }
+                token[length++] = Character.toLowerCase(c);
+            } else if (length > 0) {
+                tokens.add(new String(token, 0, length));
+                length = 0;
+            }
+        }
+        return tokens;
+    }
+}
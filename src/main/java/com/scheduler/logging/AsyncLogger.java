@@ -0,0 +1,178 @@
+package com.scheduler.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.MetricsRegistry;
+
+/**
+ * Leveled logger that hands formatted lines to a background thread, so
+ * request threads never block on the console.
+ *
+ * The level is fixed at startup with {@code -Dscheduler.log.level}
+ * (error, warn, info, debug; default info). A disabled call is a single
+ * comparison against a constant; messages built from several parts should
+ * be passed as a {@link Supplier} so nothing is concatenated unless the
+ * level is enabled. When the queue is full, lines are dropped and counted
+ * rather than slowing the caller down.
+ */
+public final class AsyncLogger {
+
+    public enum Level { ERROR, WARN, INFO, DEBUG }
+
+    private static final Level LEVEL = parseLevel(System.getProperty("scheduler.log.level"));
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final Counter DROPPED = MetricsRegistry.getDefault().counter(
+            "scheduler_log_dropped_total", "Log lines dropped because the log queue was full");
+    // Set once the JVM starts exiting; from then on lines are written by the caller
+    private static volatile boolean shuttingDown;
+
+    private static final class Entry {
+        private final LocalDateTime time = LocalDateTime.now();
+        private final Level level;
+        private final String logger;
+        private final String message;
+
+        Entry(Level level, String logger, String message) {
+            this.level = level;
+            this.logger = logger;
+            this.message = message;
+        }
+    }
+
+    static {
+        Thread writer = new Thread(AsyncLogger::writeLoop, "async-logger");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncLogger::drain, "async-logger-drain"));
+    }
+
+    private final String name;
+
+    private AsyncLogger(String name) {
+        this.name = name;
+    }
+
+    public static AsyncLogger get(Class<?> owner) {
+        return new AsyncLogger(owner.getSimpleName());
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() <= LEVEL.ordinal();
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            enqueue(Level.ERROR, error != null ? message + System.lineSeparator() + stackTrace(error) : message);
+        }
+    }
+
+    public void error(String message) {
+        error(message, null);
+    }
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            enqueue(Level.WARN, message);
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            enqueue(Level.INFO, message);
+        }
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            enqueue(Level.INFO, message.get());
+        }
+    }
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            enqueue(Level.DEBUG, message);
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            enqueue(Level.DEBUG, message.get());
+        }
+    }
+
+    private void enqueue(Level level, String message) {
+        Entry entry = new Entry(level, name, message);
+        if (shuttingDown) {
+            write(List.of(entry));
+        } else if (!QUEUE.offer(entry)) {
+            DROPPED.inc();
+        }
+    }
+
+    private static void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // Prints whatever is still queued when the JVM exits
+    private static void drain() {
+        shuttingDown = true;
+        try {
+            // Give the writer thread a moment to finish the batch it holds
+            TimeUnit.MILLISECONDS.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entry> rest = new ArrayList<>();
+        QUEUE.drainTo(rest);
+        write(rest);
+    }
+
+    private static synchronized void write(List<Entry> entries) {
+        for (Entry entry : entries) {
+            PrintStream out = entry.level.ordinal() <= Level.WARN.ordinal() ? System.err : System.out;
+            out.println(entry.time + " " + String.format("%-5s", entry.level) + " [" + entry.logger + "] "
+                    + entry.message);
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter trace = new StringWriter();
+        error.printStackTrace(new PrintWriter(trace));
+        return trace.toString().stripTrailing();
+    }
+
+    private static Level parseLevel(String value) {
+        if (value == null || value.isBlank()) {
+            return Level.INFO;
+        }
+        return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
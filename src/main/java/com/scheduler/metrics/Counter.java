@@ -0,0 +1,23 @@
+package com.scheduler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic count; increments are striped across cells so contended threads don't collide
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void inc() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
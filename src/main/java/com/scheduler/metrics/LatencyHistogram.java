@@ -0,0 +1,96 @@
+package com.scheduler.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HdrHistogram-style log-linear buckets.
+ *
+ * Every power-of-two range of nanoseconds is split into 64 linear
+ * sub-buckets, so any recorded value is known to within about 1.6% while
+ * the whole range up to {@link #MAX_TRACKABLE_NANOS} fits in a fixed array.
+ * Recording is one array increment and two adder updates; quantiles are
+ * computed on read from a non-atomic but monotonic view of the counts.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values above about 18 minutes land in the last bucket
+    static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    LatencyHistogram() {
+    }
+
+    public void recordNanos(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE_NANOS));
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sumNanos.add(value);
+    }
+
+    // Records the time elapsed since a System.nanoTime() reading
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        recordNanos(unit.toNanos(duration));
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    // Approximate value at the quantile (0..1) in nanoseconds, 0 when empty
+    public long valueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return midpointOf(i);
+            }
+        }
+        return midpointOf(BUCKET_COUNT - 1);
+    }
+
+    // Values below SUB_BUCKETS map to themselves; above that, 64 slots per power of two
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int bucket = msb - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (msb - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (bucket - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long midpointOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int bucket = (index - SUB_BUCKETS) / SUB_BUCKETS + 1;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << (bucket - 1);
+        return lower + ((1L << (bucket - 1)) >>> 1);
+    }
+}
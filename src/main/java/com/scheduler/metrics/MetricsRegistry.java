@@ -0,0 +1,171 @@
+package com.scheduler.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named counters, gauges and latency histograms, written out in the
+ * Prometheus text exposition format.
+ *
+ * Classes hold on to the metrics they update (usually in static fields), so
+ * the hot path never touches the registry. Histograms are exposed as
+ * summaries in seconds, with quantiles computed over the process lifetime.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private enum Type { COUNTER, GAUGE, SUMMARY }
+
+    private static final class Family<T> {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final String[] labelNames;
+        private final Supplier<T> factory;
+        // Keyed by label values; sorted so the output is stable between scrapes
+        private final Map<List<String>, T> children = new ConcurrentSkipListMap<>(MetricsRegistry::compareLabels);
+
+        Family(String name, String help, Type type, String[] labelNames, Supplier<T> factory) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames;
+            this.factory = factory;
+        }
+
+        T child(String... labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException(name + " expects labels " + Arrays.toString(labelNames));
+            }
+            return children.computeIfAbsent(List.of(labelValues), key -> factory.get());
+        }
+    }
+
+    // A metric family with labels; children are created on first use
+    public static final class Labeled<T> {
+        private final Family<T> family;
+
+        private Labeled(Family<T> family) {
+            this.family = family;
+        }
+
+        public T labels(String... values) {
+            return family.child(values);
+        }
+    }
+
+    private final Map<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name, String help) {
+        return family(name, help, Type.COUNTER, new String[0], Counter::new).child();
+    }
+
+    public Labeled<Counter> counter(String name, String help, String... labelNames) {
+        return new Labeled<>(family(name, help, Type.COUNTER, labelNames, Counter::new));
+    }
+
+    public LatencyHistogram histogram(String name, String help) {
+        return family(name, help, Type.SUMMARY, new String[0], LatencyHistogram::new).child();
+    }
+
+    public Labeled<LatencyHistogram> histogram(String name, String help, String... labelNames) {
+        return new Labeled<>(family(name, help, Type.SUMMARY, labelNames, LatencyHistogram::new));
+    }
+
+    // Sampled on every scrape; registering the same name again replaces the supplier
+    public void gauge(String name, String help, DoubleSupplier value) {
+        Family<DoubleSupplier> family = family(name, help, Type.GAUGE, new String[0], () -> value);
+        family.children.put(List.of(), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Family<T> family(String name, String help, Type type, String[] labelNames, Supplier<T> factory) {
+        Family<?> family = families.computeIfAbsent(name,
+                key -> new Family<>(name, help, type, labelNames.clone(), factory));
+        if (family.type != type || !Arrays.equals(family.labelNames, labelNames)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered differently");
+        }
+        return (Family<T>) family;
+    }
+
+    public void writePrometheus(Writer out) throws IOException {
+        for (Family<?> family : families.values()) {
+            out.write("# HELP " + family.name + " " + family.help + "\n");
+            out.write("# TYPE " + family.name + " " + family.type.name().toLowerCase(Locale.ROOT) + "\n");
+            for (Map.Entry<List<String>, ?> child : family.children.entrySet()) {
+                String labels = labels(family.labelNames, child.getKey(), null);
+                switch (family.type) {
+                    case COUNTER:
+                        writeSample(out, family.name, labels, ((Counter) child.getValue()).get());
+                        break;
+                    case GAUGE:
+                        writeSample(out, family.name, labels, ((DoubleSupplier) child.getValue()).getAsDouble());
+                        break;
+                    case SUMMARY:
+                        LatencyHistogram histogram = (LatencyHistogram) child.getValue();
+                        for (double quantile : QUANTILES) {
+                            writeSample(out, family.name, labels(family.labelNames, child.getKey(), quantile),
+                                    histogram.valueAtQuantile(quantile) / NANOS_PER_SECOND);
+                        }
+                        writeSample(out, family.name + "_sum", labels, histogram.sumNanos() / NANOS_PER_SECOND);
+                        writeSample(out, family.name + "_count", labels, histogram.count());
+                        break;
+                }
+            }
+        }
+    }
+
+    private static void writeSample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name);
+        out.write(labels);
+        out.write(' ');
+        out.write(value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value) : Double.toString(value));
+        out.write('\n');
+    }
+
+    private static String labels(String[] names, List<String> values, Double quantile) {
+        if (names.length == 0 && quantile == null) {
+            return "";
+        }
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(names[i]).append("=\"").append(escape(values.get(i))).append('"');
+        }
+        if (quantile != null) {
+            if (names.length > 0) {
+                labels.append(',');
+            }
+            labels.append("quantile=\"").append(quantile).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static int compareLabels(List<String> a, List<String> b) {
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+            int comparison = a.get(i).compareTo(b.get(i));
+            if (comparison != 0) return comparison;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.scheduler.model;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// One entry of a POST /api/tasks/batch request
+public class BatchOperation {
+    private Type op;
+    private Integer id;
+    private Task task;
+    private Boolean completed;
+    
+    public enum Type {
+        CREATE, UPDATE, DELETE, COMPLETE;
+        
+        @JsonCreator
+        public static Type fromString(String value) {
+            return value != null ? Type.valueOf(value.trim().toUpperCase(Locale.ROOT)) : null;
+        }
+        
+        @JsonValue
+        public String toJson() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    public BatchOperation() {
+    }
+    
+    public BatchOperation(Type op, Integer id, Task task, Boolean completed) {
+        this.op = op;
+        this.id = id;
+        this.task = task;
+        this.completed = completed;
+    }
+    
+    public Type getOp() { return op; }
+    public void setOp(Type op) { this.op = op; }
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public Task getTask() { return task; }
+    public void setTask(Task task) { this.task = task; }
+    public Boolean getCompleted() { return completed; }
+    public void setCompleted(Boolean completed) { this.completed = completed; }
+}
@@ -0,0 +1,35 @@
+package com.scheduler.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Outcome of one batch entry, with the HTTP status it would have had on its own
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    private final int index;
+    private final BatchOperation.Type op;
+    private final int status;
+    private final Task task;
+    private final String error;
+    
+    private BatchResult(int index, BatchOperation.Type op, int status, Task task, String error) {
+        this.index = index;
+        this.op = op;
+        this.status = status;
+        this.task = task;
+        this.error = error;
+    }
+    
+    public static BatchResult success(int index, BatchOperation.Type op, int status, Task task) {
+        return new BatchResult(index, op, status, task, null);
+    }
+    
+    public static BatchResult failure(int index, BatchOperation.Type op, int status, String error) {
+        return new BatchResult(index, op, status, null, error);
+    }
+    
+    public int getIndex() { return index; }
+    public BatchOperation.Type getOp() { return op; }
+    public int getStatus() { return status; }
+    public Task getTask() { return task; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,51 @@
+package com.scheduler.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Local date-times flattened to nanoseconds since the epoch, read as UTC, as
+ * the store, the list-order index and binary snapshots keep them. A long
+ * only holds about 292 years of nanoseconds, so tasks are limited to
+ * [{@link #MIN}, {@link #MAX}]; both extremes of the long stay free for the
+ * callers' "no date" markers.
+ */
+public final class EpochNanos {
+    public static final LocalDateTime MIN = LocalDateTime.of(1700, 1, 1, 0, 0);
+    public static final LocalDateTime MAX = LocalDateTime.of(2261, 12, 31, 23, 59, 59, 999_999_999);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private EpochNanos() {
+    }
+
+    public static boolean isSupported(LocalDateTime dateTime) {
+        return !dateTime.isBefore(MIN) && !dateTime.isAfter(MAX);
+    }
+
+    // The nearest supported date-time; null stays null
+    public static LocalDateTime clamp(LocalDateTime dateTime) {
+        if (dateTime == null || isSupported(dateTime)) {
+            return dateTime;
+        }
+        return dateTime.isBefore(MIN) ? MIN : MAX;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the date-time is outside [MIN, MAX],
+     *                                  rather than wrapping around
+     */
+    public static long of(LocalDateTime dateTime) {
+        if (!isSupported(dateTime)) {
+            throw new IllegalArgumentException("Date out of range: " + dateTime
+                    + " (supported: " + MIN + " to " + MAX + ")");
+        }
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                dateTime.getNano());
+    }
+
+    public static LocalDateTime toDateTime(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,278 @@
+package com.scheduler.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Repetition rule of a recurring task, written as a subset of an iCalendar
+ * RRULE, e.g. {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=10}.
+ *
+ * <ul>
+ * <li>FREQ: DAILY, WEEKLY or MONTHLY (required)</li>
+ * <li>INTERVAL: repeat every n days, weeks or months (default 1)</li>
+ * <li>BYDAY: weekdays of a WEEKLY rule (default the weekday of the first due date)</li>
+ * <li>UNTIL: last possible occurrence, {@code yyyyMMdd} or {@code yyyyMMdd'T'HHmmss} in local time</li>
+ * <li>COUNT: total number of occurrences; not together with UNTIL</li>
+ * </ul>
+ *
+ * The task's due date is the current occurrence. Occurrences are computed
+ * one at a time from it and never stored, so a series costs the same
+ * whatever its length. A MONTHLY rule skips months without the day of the
+ * first due date, as RRULE does. Instances are immutable.
+ */
+public final class Recurrence implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int MAX_INTERVAL = 1000;
+    // Months to look ahead for one that has the series' day (Feb 29 with a long interval)
+    private static final int MAX_MONTH_STEPS = 100;
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.ofPattern("uuuuMMdd");
+    private static final String[] DAY_CODES = { "MO", "TU", "WE", "TH", "FR", "SA", "SU" };
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    // Bit n set for DayOfWeek value n + 1; 0 when BYDAY is absent
+    private final int byDay;
+    private final LocalDateTime until;
+    // 0 when COUNT is absent
+    private final int count;
+    private final String rule;
+
+    private Recurrence(Frequency frequency, int interval, int byDay, LocalDateTime until, int count) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.until = until;
+        this.count = count;
+        this.rule = format();
+    }
+
+    /**
+     * Parses a rule, with or without a leading "RRULE:".
+     *
+     * @throws IllegalArgumentException if the rule is malformed or uses an unsupported part
+     */
+    @JsonCreator
+    public static Recurrence parse(String rule) {
+        if (rule == null || rule.trim().isEmpty()) {
+            throw new IllegalArgumentException("Recurrence rule is empty");
+        }
+        String text = rule.trim();
+        if (text.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            text = text.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        int byDay = 0;
+        LocalDateTime until = null;
+        int count = 0;
+        for (String part : text.split(";")) {
+            int equals = part.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Invalid recurrence rule part: " + part);
+            }
+            String name = part.substring(0, equals).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(equals + 1).trim().toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ":
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unsupported recurrence frequency: " + value);
+                    }
+                    break;
+                case "INTERVAL":
+                    interval = positive(name, value);
+                    if (interval > MAX_INTERVAL) {
+                        throw new IllegalArgumentException("INTERVAL cannot exceed " + MAX_INTERVAL);
+                    }
+                    break;
+                case "BYDAY":
+                    for (String day : value.split(",")) {
+                        byDay |= 1 << dayIndex(day.trim());
+                    }
+                    break;
+                case "UNTIL":
+                    until = parseUntil(value);
+                    break;
+                case "COUNT":
+                    count = positive(name, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported recurrence rule part: " + name);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule needs a FREQ");
+        }
+        if (byDay != 0 && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (until != null && count != 0) {
+            throw new IllegalArgumentException("UNTIL and COUNT cannot be combined");
+        }
+        return new Recurrence(frequency, interval, byDay, until, count);
+    }
+
+    /**
+     * The occurrence after the given one, or null if the series ends with it.
+     *
+     * @param due        due date of the current occurrence
+     * @param occurrence its number in the series, starting at 1
+     */
+    public LocalDateTime following(LocalDateTime due, int occurrence) {
+        if (count != 0 && occurrence >= count) {
+            return null;
+        }
+        LocalDateTime next = next(due);
+        if (next == null || (until != null && next.isAfter(until))) {
+            return null;
+        }
+        return next;
+    }
+
+    // Up to limit occurrences starting with the given one, computed one by one
+    public List<LocalDateTime> occurrences(LocalDateTime due, int occurrence, int limit) {
+        List<LocalDateTime> occurrences = new ArrayList<>(Math.min(limit, 64));
+        for (LocalDateTime current = due; current != null && occurrences.size() < limit; occurrence++) {
+            occurrences.add(current);
+            current = following(current, occurrence);
+        }
+        return occurrences;
+    }
+
+    private LocalDateTime next(LocalDateTime due) {
+        switch (frequency) {
+            case DAILY:
+                return due.plusDays(interval);
+            case WEEKLY:
+                return nextWeekly(due);
+            case MONTHLY:
+                return nextMonthly(due);
+            default:
+                throw new IllegalStateException("Unknown frequency: " + frequency);
+        }
+    }
+
+    // Later weekdays of the same week first, then the first weekday of the week interval weeks on
+    private LocalDateTime nextWeekly(LocalDateTime due) {
+        if (byDay == 0) {
+            return due.plusWeeks(interval);
+        }
+        int day = due.getDayOfWeek().getValue();
+        for (int later = day + 1; later <= 7; later++) {
+            if ((byDay & (1 << (later - 1))) != 0) {
+                return due.plusDays(later - day);
+            }
+        }
+        LocalDateTime weekStart = due.minusDays(day - 1).plusWeeks(interval);
+        return weekStart.plusDays(Integer.numberOfTrailingZeros(byDay));
+    }
+
+    private LocalDateTime nextMonthly(LocalDateTime due) {
+        int day = due.getDayOfMonth();
+        YearMonth month = YearMonth.from(due);
+        for (int step = 0; step < MAX_MONTH_STEPS; step++) {
+            month = month.plusMonths(interval);
+            if (month.isValidDay(day)) {
+                return LocalDateTime.of(month.atDay(day), due.toLocalTime());
+            }
+        }
+        return null;
+    }
+
+    public Frequency getFrequency() { return frequency; }
+    public int getInterval() { return interval; }
+    public LocalDateTime getUntil() { return until; }
+    public int getCount() { return count; }
+
+    // Canonical rule text, which is also the JSON representation
+    @JsonValue
+    @Override
+    public String toString() {
+        return rule;
+    }
+
+    private String format() {
+        StringBuilder text = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            text.append(";INTERVAL=").append(interval);
+        }
+        if (byDay != 0) {
+            text.append(";BYDAY=");
+            for (int i = 0; i < 7; i++) {
+                if ((byDay & (1 << i)) != 0) {
+                    text.append(DAY_CODES[i]).append(',');
+                }
+            }
+            text.setLength(text.length() - 1);
+        }
+        if (until != null) {
+            text.append(";UNTIL=").append(until.format(UNTIL_DATE_TIME));
+        }
+        if (count != 0) {
+            text.append(";COUNT=").append(count);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Recurrence && rule.equals(((Recurrence) o).rule));
+    }
+
+    @Override
+    public int hashCode() {
+        return rule.hashCode();
+    }
+
+    private static int positive(String name, String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive integer: " + value);
+    }
+
+    private static int dayIndex(String code) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(code)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid BYDAY weekday: " + code
+                + " (use MO, TU, WE, TH, FR, SA or SU)");
+    }
+
+    // Local time; a trailing Z is accepted and ignored, since due dates carry no zone
+    private static LocalDateTime parseUntil(String value) {
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        try {
+            if (local.length() == 8) {
+                return LocalDateTime.of(LocalDate.parse(local, UNTIL_DATE), LocalTime.MAX.withNano(0));
+            }
+            return LocalDateTime.parse(local, UNTIL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid UNTIL: " + value);
+        }
+    }
+}
@@ -3,14 +3,27 @@ package com.scheduler.model;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Objects;
+import java.util.TreeSet;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.scheduler.logging.AsyncLogger;
 
+/**
+ * A task as sent over the API.
+ *
+ * TaskService does not keep Task objects: it stores the fields in columns
+ * and builds a new Task whenever one is read, so every Task is a private
+ * copy that the caller may change. A copy always reflects one version of
+ * the task, never some fields of an update and not others.
+ */
 public class Task implements Serializable, Comparable<Task> {
     private static final long serialVersionUID = 1L;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME; 
+    private static final AsyncLogger log = AsyncLogger.get(Task.class);
     
     private int id;
     private String title;
@@ -19,6 +32,20 @@ public class Task implements Serializable, Comparable<Task> {
     private Priority priority;
     private boolean completed;
     private LocalDateTime createdAt;
+    // Service version of the task's last change; 0 if unchanged since loading, unless the repository stores versions
+    private long version;
+    // Null for a one-off task; otherwise dueDate is the current occurrence of the series
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Recurrence recurrence;
+    // Number of the current occurrence, from 1; 0 for a one-off task
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int occurrence;
+    // Ids of tasks that must be completed first; sorted, distinct and unmodifiable
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Integer> dependsOn = List.of();
+    // Estimated work, used to find tasks whose prerequisites put their due date at risk; 0 if unknown
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int durationMinutes;
     
     public enum Priority {
         HIGH, MEDIUM, LOW
@@ -37,6 +64,35 @@ public class Task implements Serializable, Comparable<Task> {
         this.createdAt = LocalDateTime.now();
     }
     
+    // Every field as stored; used to build views without reading the clock
+    public Task(int id, String title, String description, LocalDateTime dueDate, Priority priority,
+            boolean completed, LocalDateTime createdAt, long version) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.dueDate = dueDate;
+        this.priority = priority;
+        this.completed = completed;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+    
+    // Field-by-field copy, e.g. to build an updated task from the stored one
+    public Task(Task other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.dueDate = other.dueDate;
+        this.priority = other.priority;
+        this.completed = other.completed;
+        this.createdAt = other.createdAt;
+        this.version = other.version;
+        this.recurrence = other.recurrence;
+        this.occurrence = other.occurrence;
+        this.dependsOn = other.dependsOn;
+        this.durationMinutes = other.durationMinutes;
+    }
+    
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -61,10 +117,8 @@ public class Task implements Serializable, Comparable<Task> {
         if (dateString != null && !dateString.isEmpty()) {
             try {
                 this.dueDate = LocalDateTime.parse(dateString, formatter);
-                System.out.println("✅ Successfully parsed date from JSON: " + this.dueDate);
             } catch (Exception e) {
-                System.err.println("❌ Error parsing date from JSON: " + dateString);
-                e.printStackTrace();
+                log.warn("❌ Error parsing date from JSON: " + dateString + " (" + e.getMessage() + ")");
             }
         }
     }
@@ -74,6 +128,38 @@ public class Task implements Serializable, Comparable<Task> {
     public boolean isCompleted() { return completed; }
     public void setCompleted(boolean completed) { this.completed = completed; }
     
+    // Assigned by the service, so a version sent by a client is ignored
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public Recurrence getRecurrence() { return recurrence; }
+    public void setRecurrence(Recurrence recurrence) { this.recurrence = recurrence; }
+    public int getOccurrence() { return occurrence; }
+    public void setOccurrence(int occurrence) { this.occurrence = occurrence; }
+    public List<Integer> getDependsOn() { return dependsOn; }
+    // A list that is already sorted and unmodifiable, like one read back from storage, is kept as is
+    public void setDependsOn(List<Integer> dependsOn) {
+        if (dependsOn == null || dependsOn.isEmpty()) {
+            this.dependsOn = List.of();
+            return;
+        }
+        List<Integer> ids = List.copyOf(dependsOn);
+        for (int i = 1; i < ids.size(); i++) {
+            if (ids.get(i - 1) >= ids.get(i)) {
+                ids = List.copyOf(new TreeSet<>(ids));
+                break;
+            }
+        }
+        this.dependsOn = ids;
+    }
+    public int getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+    
+    @JsonIgnore
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+    
     // Add @JsonIgnore to prevent createdAt array serialization
     @JsonIgnore
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -91,25 +177,22 @@ public class Task implements Serializable, Comparable<Task> {
         if (dateString != null && !dateString.isEmpty()) {
             try {
                 this.createdAt = LocalDateTime.parse(dateString, formatter);
-                System.out.println("✅ Successfully parsed createdAt from JSON: " + this.createdAt);
             } catch (Exception e) {
-                System.err.println("❌ Error parsing createdAt from JSON: " + dateString);
-                e.printStackTrace();
+                log.warn("❌ Error parsing createdAt from JSON: " + dateString + " (" + e.getMessage() + ")");
             }
         }
     }
     
-    // CRITICAL: Add @JsonIgnore to prevent these from being serialized
-    @JsonIgnore
-    public boolean isDueSoon() {
-        return !completed && 
-               LocalDateTime.now().isAfter(dueDate.minusHours(24)) && 
-               LocalDateTime.now().isBefore(dueDate);
+    // Take now from the caller, so one check (or a scan of many tasks) reads the clock once;
+    // with a parameter they are not bean getters, so they are never serialized
+    public boolean isDueSoon(LocalDateTime now) {
+        return !completed && dueDate != null &&
+               now.isAfter(dueDate.minusHours(24)) &&
+               now.isBefore(dueDate);
     }
     
-    @JsonIgnore
-    public boolean isOverdue() {
-        return !completed && LocalDateTime.now().isAfter(dueDate);
+    public boolean isOverdue(LocalDateTime now) {
+        return !completed && dueDate != null && now.isAfter(dueDate);
     }
     
     @Override
@@ -0,0 +1,161 @@
+package com.scheduler.reminder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.scheduler.logging.AsyncLogger;
+
+/**
+ * Which reminders already fired for each task's current due date, so that
+ * every threshold fires once even across restarts. Without it a restart
+ * re-fires the "overdue" reminder of every pending task past its due date.
+ *
+ * Backed by an append-only file of fixed 13-byte records (task id, due date
+ * in epoch millis, bitmask of fired {@link ReminderType}s; a zero mask
+ * forgets the task). The last record of a task wins, and a torn record at
+ * the end is ignored. The file is rewritten at load once most of it is
+ * stale. Appends are buffered until {@link #flush()} and not fsynced: a
+ * record lost in a crash costs one repeated reminder.
+ */
+public class FiredReminders implements AutoCloseable {
+    private static final AsyncLogger log = AsyncLogger.get(FiredReminders.class);
+    private static final int RECORD_SIZE = 4 + 8 + 1;
+    private static final int MIN_COMPACT_RECORDS = 1024;
+
+    private static final class Fired {
+        private final long dueMillis;
+        private final byte types;
+
+        Fired(long dueMillis, byte types) {
+            this.dueMillis = dueMillis;
+            this.types = types;
+        }
+    }
+
+    private final Map<Integer, Fired> fired = new HashMap<>();
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 512);
+
+    private FiredReminders(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // Not persisted; for tests, benchmarks and the in-memory storage mode
+    public static FiredReminders inMemory() {
+        return new FiredReminders(null);
+    }
+
+    public static FiredReminders open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Map<Integer, Fired> loaded = new HashMap<>();
+        long records = load(file, loaded);
+        if (records > MIN_COMPACT_RECORDS && records > 2L * loaded.size()) {
+            compact(file, loaded);
+            log.info("🔔 Compacted " + file + " from " + records + " to " + loaded.size() + " records");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Appending after a torn record would misalign every later one
+        channel.truncate(channel.size() - channel.size() % RECORD_SIZE);
+        channel.position(channel.size());
+        FiredReminders reminders = new FiredReminders(channel);
+        reminders.fired.putAll(loaded);
+        return reminders;
+    }
+
+    public synchronized boolean hasFired(int taskId, long dueMillis, ReminderType type) {
+        Fired entry = fired.get(taskId);
+        return entry != null && entry.dueMillis == dueMillis && (entry.types & bit(type)) != 0;
+    }
+
+    public synchronized void markFired(int taskId, long dueMillis, ReminderType type) throws IOException {
+        Fired entry = fired.get(taskId);
+        byte types = entry != null && entry.dueMillis == dueMillis ? entry.types : 0;
+        types |= bit(type);
+        fired.put(taskId, new Fired(dueMillis, types));
+        append(taskId, dueMillis, types);
+    }
+
+    // Drops a deleted task's entry; a changed due date simply supersedes it
+    public synchronized void forget(int taskId) throws IOException {
+        if (fired.remove(taskId) != null) {
+            append(taskId, 0, (byte) 0);
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        if (channel == null || buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public synchronized int size() {
+        return fired.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            flush();
+            channel.close();
+        }
+    }
+
+    private void append(int taskId, long dueMillis, byte types) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        buffer.putInt(taskId).putLong(dueMillis).put(types);
+    }
+
+    private static byte bit(ReminderType type) {
+        return (byte) (1 << type.ordinal());
+    }
+
+    private static long load(Path file, Map<Integer, Fired> into) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        long records = 0;
+        while (data.remaining() >= RECORD_SIZE) {
+            int taskId = data.getInt();
+            long dueMillis = data.getLong();
+            byte types = data.get();
+            if (types == 0) {
+                into.remove(taskId);
+            } else {
+                into.put(taskId, new Fired(dueMillis, types));
+            }
+            records++;
+        }
+        return records;
+    }
+
+    private static void compact(Path file, Map<Integer, Fired> live) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(live.size() * RECORD_SIZE);
+        for (Map.Entry<Integer, Fired> entry : live.entrySet()) {
+            data.putInt(entry.getKey()).putLong(entry.getValue().dueMillis).put(entry.getValue().types);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, data.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
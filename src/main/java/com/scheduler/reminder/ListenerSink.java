@@ -0,0 +1,36 @@
+package com.scheduler.reminder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Hands reminders to listeners in this process, on the sink's delivery
+ * thread. A listener that throws gets the batch again after a backoff,
+ * as do the listeners registered before it.
+ */
+public class ListenerSink implements ReminderSink {
+    private final List<Consumer<ReminderEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Consumer<ReminderEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ReminderEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public String name() {
+        return "listener";
+    }
+
+    @Override
+    public void deliver(List<ReminderEvent> batch) {
+        for (Consumer<ReminderEvent> listener : listeners) {
+            for (ReminderEvent event : batch) {
+                listener.accept(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.scheduler.reminder;
+
+import java.util.List;
+
+import com.scheduler.logging.AsyncLogger;
+
+// Writes each reminder to the application log; the default sink
+public class LogSink implements ReminderSink {
+    private static final AsyncLogger log = AsyncLogger.get(LogSink.class);
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<ReminderEvent> batch) {
+        for (ReminderEvent event : batch) {
+            if (event.getType() == ReminderType.DUE_SOON) {
+                log.info("⏰ REMINDER: Task '" + event.getTitle() + "' is due soon!");
+            } else if (event.getType() == ReminderType.AT_RISK) {
+                log.info("⚠️ AT RISK: Task '" + event.getTitle() + "' is waiting on prerequisites that put its due date at risk!");
+            } else {
+                log.info("🚨 OVERDUE: Task '" + event.getTitle() + "' is overdue!");
+            }
+        }
+    }
+}
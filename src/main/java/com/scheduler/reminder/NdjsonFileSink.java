@@ -0,0 +1,67 @@
+package com.scheduler.reminder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Appends one JSON object per reminder and line to a file, flushed once per batch
+public class NdjsonFileSink implements ReminderSink {
+    private final Path file;
+    private final ObjectWriter writer = new ObjectMapper().writerFor(ReminderEvent.class);
+    private OutputStream out;
+
+    public NdjsonFileSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<ReminderEvent> batch) throws IOException {
+        if (out == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            out = new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+        }
+        try {
+            for (ReminderEvent event : batch) {
+                out.write(writer.writeValueAsBytes(event));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Reopen on the retry rather than append after a partial write of unknown length
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            out = null;
+        }
+    }
+}
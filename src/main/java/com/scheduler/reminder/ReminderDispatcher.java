@@ -0,0 +1,211 @@
+package com.scheduler.reminder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
+
+/**
+ * Delivers fired reminders to every {@link ReminderSink} without ever
+ * blocking the caller.
+ *
+ * Each sink has its own bounded queue and delivery thread, so a slow or
+ * failing sink only delays itself. The thread takes whatever queued up
+ * while the previous batch was in flight, up to the batch size: a quiet
+ * system delivers each reminder at once, a burst is delivered in large
+ * batches. A failed batch is retried with exponential backoff, and dropped
+ * after the last attempt. When a queue is full, new reminders for that sink
+ * are dropped rather than stalling the scheduler. Drops are counted in
+ * {@code scheduler_reminders_dropped_total}.
+ */
+public class ReminderDispatcher implements AutoCloseable {
+    private static final AsyncLogger log = AsyncLogger.get(ReminderDispatcher.class);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // Queued by close() behind the reminders still waiting, so an idle delivery thread wakes and ends
+    private static final ReminderEvent STOP = new ReminderEvent(null, 0, null, null, 0, 0);
+    private static final MetricsRegistry.Labeled<Counter> delivered = MetricsRegistry.getDefault().counter(
+            "scheduler_reminders_delivered_total", "Reminders delivered", "sink");
+    private static final MetricsRegistry.Labeled<Counter> failures = MetricsRegistry.getDefault().counter(
+            "scheduler_reminder_delivery_failures_total", "Failed reminder batch deliveries", "sink");
+    private static final MetricsRegistry.Labeled<Counter> dropped = MetricsRegistry.getDefault().counter(
+            "scheduler_reminders_dropped_total", "Reminders never delivered", "sink", "reason");
+    private static final MetricsRegistry.Labeled<LatencyHistogram> deliveryDuration =
+            MetricsRegistry.getDefault().histogram("scheduler_reminder_delivery_duration_seconds",
+                    "Time to deliver one batch of reminders", "sink");
+
+    private final List<Delivery> deliveries = new ArrayList<>();
+
+    public ReminderDispatcher(List<ReminderSink> sinks, int queueCapacity, int batchSize, int maxAttempts,
+                              long initialBackoffMillis) {
+        if (queueCapacity < 1 || batchSize < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Queue capacity, batch size and attempts must be positive");
+        }
+        for (ReminderSink sink : sinks) {
+            deliveries.add(new Delivery(sink, queueCapacity, batchSize, maxAttempts, initialBackoffMillis));
+        }
+        for (Delivery delivery : deliveries) {
+            delivery.thread.start();
+        }
+    }
+
+    // Queues the reminder for every sink; never blocks
+    public void publish(ReminderEvent event) {
+        for (Delivery delivery : deliveries) {
+            if (!delivery.queue.offer(event)) {
+                delivery.droppedFull.inc();
+            }
+        }
+    }
+
+    // Reminders queued but not yet delivered, over all sinks
+    public int backlog() {
+        int backlog = 0;
+        for (Delivery delivery : deliveries) {
+            backlog += delivery.queue.size();
+        }
+        return backlog;
+    }
+
+    @Override
+    public void close() {
+        close(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Stops retrying failed batches, gives the sinks up to the timeout to deliver
+     * what is queued, then closes them. Whatever is still queued is dropped.
+     */
+    public void close(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Delivery delivery : deliveries) {
+            delivery.stop();
+        }
+        for (Delivery delivery : deliveries) {
+            try {
+                delivery.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (delivery.thread.isAlive()) {
+                log.warn("🔔 Sink " + delivery.sink.name() + " still busy at shutdown, dropping "
+                        + delivery.queue.size() + " reminders");
+                continue;
+            }
+            try {
+                delivery.sink.close();
+            } catch (IOException e) {
+                log.error("🔔 Failed to close reminder sink " + delivery.sink.name(), e);
+            }
+        }
+    }
+
+    private static final class Delivery implements Runnable {
+        private final ReminderSink sink;
+        private final BlockingQueue<ReminderEvent> queue;
+        private final int batchSize;
+        private final int maxAttempts;
+        private final long initialBackoffMillis;
+        private final Thread thread;
+        private final Counter delivered;
+        private final Counter failures;
+        private final Counter droppedFull;
+        private final Counter droppedFailed;
+        private final LatencyHistogram duration;
+        private volatile boolean closing;
+
+        Delivery(ReminderSink sink, int queueCapacity, int batchSize, int maxAttempts, long initialBackoffMillis) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.batchSize = batchSize;
+            this.maxAttempts = maxAttempts;
+            this.initialBackoffMillis = initialBackoffMillis;
+            this.delivered = ReminderDispatcher.delivered.labels(sink.name());
+            this.failures = ReminderDispatcher.failures.labels(sink.name());
+            this.droppedFull = dropped.labels(sink.name(), "queue_full");
+            this.droppedFailed = dropped.labels(sink.name(), "failed");
+            this.duration = deliveryDuration.labels(sink.name());
+            this.thread = new Thread(this, "reminder-" + sink.name());
+            this.thread.setDaemon(true);
+        }
+
+        // Wakes a backoff wait, and an idle thread through STOP. A full queue has no room for
+        // STOP, but then the thread is not idle and sees closing before it next waits
+        synchronized void stop() {
+            closing = true;
+            notifyAll();
+            queue.offer(STOP);
+        }
+
+        @Override
+        public void run() {
+            List<ReminderEvent> batch = new ArrayList<>(batchSize);
+            while (true) {
+                ReminderEvent first;
+                try {
+                    first = closing ? queue.poll() : queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (first == null || first == STOP) {
+                    return;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                boolean stopped = batch.remove(STOP);
+                deliver(batch);
+                batch.clear();
+                if (stopped) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver(List<ReminderEvent> batch) {
+            long backoff = initialBackoffMillis;
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    sink.deliver(batch);
+                    duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    delivered.add(batch.size());
+                    return;
+                } catch (Exception e) {
+                    failures.inc();
+                    if (attempt >= maxAttempts || closing) {
+                        droppedFailed.add(batch.size());
+                        log.error("🔔 Sink " + sink.name() + " dropped " + batch.size()
+                                + " reminders after " + attempt + " attempts", e);
+                        return;
+                    }
+                    log.warn("🔔 Sink " + sink.name() + " failed (attempt " + attempt + "), retrying in "
+                            + backoff + " ms: " + e);
+                }
+                if (!awaitBackoff(backoff)) {
+                    // Interrupted or closed: one last attempt, then give up
+                    closing = true;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+
+        private synchronized boolean awaitBackoff(long millis) {
+            long deadline = System.currentTimeMillis() + millis;
+            try {
+                for (long left = millis; left > 0 && !closing; left = deadline - System.currentTimeMillis()) {
+                    wait(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return !closing;
+        }
+    }
+}
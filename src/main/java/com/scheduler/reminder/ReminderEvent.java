@@ -0,0 +1,61 @@
+package com.scheduler.reminder;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+// One fired reminder, as handed to every sink; dates use the same formats as Task
+@JsonPropertyOrder({ "type", "taskId", "title", "dueDate", "occurrence", "firedAt" })
+public final class ReminderEvent {
+    private final ReminderType type;
+    private final int taskId;
+    private final String title;
+    private final LocalDateTime dueDate;
+    private final int occurrence;
+    private final long firedAtMillis;
+
+    public ReminderEvent(ReminderType type, int taskId, String title, LocalDateTime dueDate, int occurrence,
+                         long firedAtMillis) {
+        this.type = type;
+        this.taskId = taskId;
+        this.title = title;
+        this.dueDate = dueDate;
+        this.occurrence = occurrence;
+        this.firedAtMillis = firedAtMillis;
+    }
+
+    public ReminderType getType() { return type; }
+    public int getTaskId() { return taskId; }
+    public String getTitle() { return title; }
+
+    @JsonIgnore
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    @JsonProperty("dueDate")
+    public String getFormattedDueDate() {
+        return dueDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    // Occurrence of a recurring task's series; 0 for a one-off task
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int getOccurrence() { return occurrence; }
+
+    @JsonIgnore
+    public long getFiredAtMillis() { return firedAtMillis; }
+
+    // UTC instant, e.g. 2030-01-01T09:00:00.123Z
+    @JsonProperty("firedAt")
+    public String getFormattedFiredAt() {
+        return Instant.ofEpochMilli(firedAtMillis).toString();
+    }
+
+    @Override
+    public String toString() {
+        return type + " reminder for task " + taskId + " '" + title + "' due " + getFormattedDueDate();
+    }
+}
@@ -0,0 +1,26 @@
+package com.scheduler.reminder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for fired reminders. {@link ReminderDispatcher} calls
+ * {@link #deliver} from one thread per sink, with batches of whatever
+ * queued up while the previous batch was being delivered.
+ */
+public interface ReminderSink {
+
+    // Short name used in metrics labels, log lines and thread names
+    String name();
+
+    /**
+     * Delivers a batch, oldest reminder first. Throwing makes the dispatcher
+     * retry the whole batch after a backoff, so a sink that can partially
+     * succeed may see some reminders twice.
+     */
+    void deliver(List<ReminderEvent> batch) throws Exception;
+
+    // Called once after the last delivery
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,10 @@
+package com.scheduler.reminder;
+
+public enum ReminderType {
+    // 24 hours before the due date
+    DUE_SOON,
+    // At the due date
+    OVERDUE,
+    // Once the pending prerequisites can no longer all be done before the due date
+    AT_RISK
+}
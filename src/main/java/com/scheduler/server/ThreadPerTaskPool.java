@@ -0,0 +1,89 @@
+package com.scheduler.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Jetty thread pool that starts a new thread for every job instead of
+ * reusing a fixed set of workers.
+ *
+ * With virtual threads (JDK 21+) a handler blocked on disk I/O or a lock
+ * holds no OS thread, so the number of requests in progress is no longer
+ * bounded by a pool size; the caller limits concurrency instead. The pool
+ * never reports itself low on threads, so Jetty keeps dispatching.
+ */
+public class ThreadPerTaskPool extends AbstractLifeCycle implements ThreadPool {
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger running = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    public ThreadPerTaskPool(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * A pool of virtual threads named name-0, name-1, ..., or null when the
+     * running JDK has none. Looked up reflectively so the code still builds
+     * and runs on JDK 17.
+     */
+    public static ThreadPerTaskPool virtual(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            Method factory = builderType.getMethod("factory");
+            return new ThreadPerTaskPool((ThreadFactory) factory.invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        running.incrementAndGet();
+        try {
+            threadFactory.newThread(() -> {
+                try {
+                    job.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            running.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        stopped.countDown();
+        super.doStop();
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    // Jobs in progress, including Jetty's own acceptor and selector loops
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
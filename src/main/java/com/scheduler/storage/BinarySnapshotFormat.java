@@ -0,0 +1,242 @@
+package com.scheduler.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+/**
+ * Versioned binary snapshot of all tasks, read through a memory-mapped file.
+ *
+ * <pre>
+ * header   magic "TSKS", version, nextId, task count, string count
+ * strings  string count end offsets, then the UTF-8 bytes of every string
+ * records  fixed-width task records (see {@link #RECORD_SIZE})
+ * trailer  CRC32 of everything before it
+ * </pre>
+ *
+ * Titles, descriptions, recurrence rules and dependency lists (such as
+ * "3,7,12") are deduplicated into the string table, dates are
+ * stored as nanoseconds since the epoch (keeping the precision of the JSON
+ * format) and priorities as enum ordinals. Because records have a fixed
+ * width, they are decoded in parallel straight from the mapped buffer.
+ * Version 1 and 2 files, whose records end after the description and the
+ * occurrence, are still read.
+ */
+public final class BinarySnapshotFormat {
+    private static final int MAGIC = 0x54534B53; // "TSKS"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 20;
+    // id, dueDate, createdAt, priority, completed, title, description
+    private static final int RECORD_SIZE_V1 = 4 + 8 + 8 + 1 + 1 + 4 + 4;
+    // Version 2 adds recurrence rule and occurrence
+    private static final int RECORD_SIZE_V2 = RECORD_SIZE_V1 + 4 + 4;
+    // Version 3 adds dependencies and duration
+    private static final int RECORD_SIZE = RECORD_SIZE_V2 + 4 + 4;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    public static final class Snapshot {
+        private final int nextId;
+        private final List<Task> tasks;
+
+        Snapshot(int nextId, List<Task> tasks) {
+            this.nextId = nextId;
+            this.tasks = tasks;
+        }
+
+        public int getNextId() { return nextId; }
+        public List<Task> getTasks() { return tasks; }
+    }
+
+    private BinarySnapshotFormat() {
+    }
+
+    // Writes the tasks in the given order to a temp file, fsyncs it and renames it over the target
+    public static void write(Path target, int nextId, List<Task> tasks) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] titleIds = new int[tasks.size()];
+        int[] descriptionIds = new int[tasks.size()];
+        int[] recurrenceIds = new int[tasks.size()];
+        int[] dependencyIds = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            titleIds[i] = intern(task.getTitle(), stringIds, strings);
+            descriptionIds[i] = intern(task.getDescription(), stringIds, strings);
+            recurrenceIds[i] = task.isRecurring()
+                    ? intern(task.getRecurrence().toString(), stringIds, strings) : NULL_STRING;
+            dependencyIds[i] = intern(ColumnarTaskStore.encodeIds(task.getDependsOn()), stringIds, strings);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nextId);
+            out.writeInt(tasks.size());
+            out.writeInt(strings.size());
+
+            int offset = 0;
+            for (byte[] string : strings) {
+                offset += string.length;
+                out.writeInt(offset);
+            }
+            for (byte[] string : strings) {
+                out.write(string);
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                out.writeInt(task.getId());
+                out.writeLong(toEpochNanos(task.getDueDate()));
+                out.writeLong(toEpochNanos(task.getCreatedAt()));
+                out.writeByte(task.getPriority() != null ? task.getPriority().ordinal() : -1);
+                out.writeByte(task.isCompleted() ? 1 : 0);
+                out.writeInt(titleIds[i]);
+                out.writeInt(descriptionIds[i]);
+                out.writeInt(recurrenceIds[i]);
+                out.writeInt(task.getOccurrence());
+                out.writeInt(dependencyIds[i]);
+                out.writeInt(task.getDurationMinutes());
+            }
+
+            out.flush();
+            // Trailer is outside the checksum it carries
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Snapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            int checksumAt = (int) size - 4;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit(checksumAt));
+            if ((int) crc.getValue() != buffer.getInt(checksumAt)) {
+                throw new IOException("Snapshot checksum mismatch in " + file);
+            }
+
+            int nextId = buffer.getInt(8);
+            int taskCount = buffer.getInt(12);
+            int stringCount = buffer.getInt(16);
+            int offsetsAt = HEADER_SIZE;
+            int stringsAt = offsetsAt + stringCount * 4;
+            int stringsEnd = stringCount > 0 ? stringsAt + buffer.getInt(offsetsAt + (stringCount - 1) * 4) : stringsAt;
+            int recordsAt = stringsEnd;
+            int recordSize = version == 1 ? RECORD_SIZE_V1 : version == 2 ? RECORD_SIZE_V2 : RECORD_SIZE;
+            if ((long) recordsAt + (long) taskCount * recordSize != checksumAt) {
+                throw new IOException("Corrupt snapshot layout in " + file);
+            }
+
+            // Each string is decoded once and shared by every task that uses it
+            String[] strings = new String[stringCount];
+            IntStream.range(0, stringCount).parallel().forEach(i -> {
+                int start = i == 0 ? 0 : buffer.getInt(offsetsAt + (i - 1) * 4);
+                int end = buffer.getInt(offsetsAt + i * 4);
+                byte[] bytes = new byte[end - start];
+                buffer.slice().position(stringsAt + start).get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            });
+
+            Task.Priority[] priorities = Task.Priority.values();
+            // Parsed once per distinct rule and shared by its tasks
+            Map<String, Recurrence> rules = new ConcurrentHashMap<>();
+            Task[] tasks = new Task[taskCount];
+            IntStream.range(0, taskCount).parallel().forEach(i -> {
+                int at = recordsAt + i * recordSize;
+                Task task = new Task();
+                task.setId(buffer.getInt(at));
+                task.setDueDate(fromEpochNanos(buffer.getLong(at + 4)));
+                task.setCreatedAt(fromEpochNanos(buffer.getLong(at + 12)));
+                byte priority = buffer.get(at + 20);
+                task.setPriority(priority >= 0 ? priorities[priority] : null);
+                task.setCompleted(buffer.get(at + 21) != 0);
+                task.setTitle(string(strings, buffer.getInt(at + 22)));
+                task.setDescription(string(strings, buffer.getInt(at + 26)));
+                if (recordSize >= RECORD_SIZE_V2) {
+                    String rule = string(strings, buffer.getInt(at + 30));
+                    if (rule != null) {
+                        task.setRecurrence(rules.computeIfAbsent(rule, Recurrence::parse));
+                        task.setOccurrence(buffer.getInt(at + 34));
+                    }
+                }
+                if (recordSize == RECORD_SIZE) {
+                    task.setDependsOn(ColumnarTaskStore.decodeIds(string(strings, buffer.getInt(at + 38))));
+                    task.setDurationMinutes(buffer.getInt(at + 42));
+                }
+                tasks[i] = task;
+            });
+            return new Snapshot(nextId, Arrays.asList(tasks));
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> stringIds, List<byte[]> strings) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        return stringIds.computeIfAbsent(value, key -> {
+            strings.add(key.getBytes(StandardCharsets.UTF_8));
+            return strings.size() - 1;
+        });
+    }
+
+    private static String string(String[] strings, int id) {
+        return id == NULL_STRING ? null : strings[id];
+    }
+
+    // Local date-times are stored as if they were UTC; only the field values matter
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_DATE;
+        }
+        return EpochNanos.of(dateTime);
+    }
+
+    private static LocalDateTime fromEpochNanos(long nanos) {
+        if (nanos == NULL_DATE) {
+            return null;
+        }
+        return EpochNanos.toDateTime(nanos);
+    }
+}
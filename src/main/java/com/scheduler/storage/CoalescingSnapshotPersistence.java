@@ -0,0 +1,207 @@
+package com.scheduler.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.scheduler.logging.AsyncLogger;
+
+/**
+ * Persistence that only marks the store dirty on each mutation. A single
+ * background thread writes a full snapshot at most once per flush interval,
+ * or as soon as the configured number of changes has piled up, so request
+ * threads never serialize or touch the disk themselves.
+ *
+ * Changes made since the last flush are lost on a crash; callers that need
+ * a guarantee wait on {@link #flush()}.
+ */
+public class CoalescingSnapshotPersistence implements TaskPersistence {
+    private static final AsyncLogger log = AsyncLogger.get(CoalescingSnapshotPersistence.class);
+
+    private static final class FlushWaiter {
+        private final long seq;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        FlushWaiter(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    private final SnapshotWriter snapshotWriter;
+    private final long flushIntervalMillis;
+    private final long flushEveryChanges;
+    // Left behind when switching from the write-ahead log; folded into the first snapshot
+    private final Path legacyLogFile;
+
+    private final Object lock = new Object();
+    private final List<FlushWaiter> waiters = new ArrayList<>();
+    private long changeSeq;
+    private long flushedSeq;
+    private long lastFlushMillis;
+    private boolean flushRequested;
+    private boolean closed;
+    private Thread flusher;
+
+    public CoalescingSnapshotPersistence(SnapshotWriter snapshotWriter, long flushIntervalMillis,
+                                         long flushEveryChanges, Path legacyLogFile) {
+        this.snapshotWriter = snapshotWriter;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushEveryChanges = flushEveryChanges;
+        this.legacyLogFile = legacyLogFile;
+    }
+
+    @Override
+    public int replay(Consumer<String> handler) throws IOException {
+        return WriteAheadLog.replay(legacyLogFile, handler);
+    }
+
+    @Override
+    public void start() throws IOException {
+        Path compacting = WriteAheadLog.compactingSegment(legacyLogFile);
+        if (Files.exists(legacyLogFile) || Files.exists(compacting)) {
+            snapshotWriter.writeSnapshot();
+            Files.deleteIfExists(compacting);
+            Files.deleteIfExists(legacyLogFile);
+        }
+        lastFlushMillis = System.currentTimeMillis();
+
+        flusher = new Thread(this::flushLoop, "snapshot-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public long append(Supplier<byte[]> record) {
+        synchronized (lock) {
+            changeSeq++;
+            long pending = changeSeq - flushedSeq;
+            // Wake the flusher to start the interval clock, or to flush now
+            if (pending == 1 || pending >= flushEveryChanges) {
+                lock.notifyAll();
+            }
+            return changeSeq;
+        }
+    }
+
+    // Writes are acknowledged as soon as they are in memory
+    @Override
+    public void awaitCommit(long ticket) {
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (flushedSeq >= changeSeq) {
+                return CompletableFuture.completedFuture(null);
+            }
+            FlushWaiter waiter = new FlushWaiter(changeSeq);
+            waiters.add(waiter);
+            flushRequested = true;
+            lock.notifyAll();
+            return waiter.future;
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                while (true) {
+                    long pending = changeSeq - flushedSeq;
+                    if (closed || flushRequested || pending >= flushEveryChanges) {
+                        break;
+                    }
+                    long waitMillis = 0;
+                    if (pending > 0) {
+                        waitMillis = lastFlushMillis + flushIntervalMillis - System.currentTimeMillis();
+                        if (waitMillis <= 0) {
+                            break;
+                        }
+                    }
+                    try {
+                        lock.wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (closed && changeSeq == flushedSeq) {
+                    return;
+                }
+                flushRequested = false;
+                // Taking the lock orders every mutation up to target before the snapshot read
+                target = changeSeq;
+            }
+
+            Exception failure = null;
+            try {
+                snapshotWriter.writeSnapshot();
+            } catch (Exception e) {
+                log.error("❌ Error saving tasks: " + e.getMessage(), e);
+                failure = e;
+            }
+
+            List<FlushWaiter> done = new ArrayList<>();
+            synchronized (lock) {
+                lastFlushMillis = System.currentTimeMillis();
+                if (failure == null) {
+                    flushedSeq = target;
+                }
+                for (Iterator<FlushWaiter> it = waiters.iterator(); it.hasNext();) {
+                    FlushWaiter waiter = it.next();
+                    if (failure != null || waiter.seq <= target) {
+                        done.add(waiter);
+                        it.remove();
+                    }
+                }
+            }
+            for (FlushWaiter waiter : done) {
+                if (failure != null) {
+                    waiter.future.completeExceptionally(failure);
+                } else {
+                    waiter.future.complete(null);
+                }
+            }
+
+            if (failure != null) {
+                // Back off instead of retrying a failing disk in a tight loop
+                synchronized (lock) {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        lock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // Writes any unflushed changes before returning
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            if (flusher != null) {
+                flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
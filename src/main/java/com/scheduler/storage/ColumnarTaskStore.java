@@ -0,0 +1,440 @@
+package com.scheduler.storage;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+/**
+ * In-memory task table laid out as one array per field, indexed by task id.
+ *
+ * A task costs a flags byte (present, completed, priority), three longs
+ * (due date, creation time, version) and two String references, about 37
+ * bytes plus its text, instead of a Task object with two LocalDateTime
+ * graphs and a boxed map entry. Dates are nanoseconds since the epoch, with
+ * the local date-time read as UTC, like the binary snapshot format.
+ * Repeated titles and descriptions share one String. The recurrence rule
+ * and occurrence number of recurring tasks, and the dependencies and
+ * duration of tasks that have them, are kept in maps beside the columns, so
+ * other tasks pay nothing for them.
+ *
+ * {@link #get(int)} builds a new Task from the columns on every call, so a
+ * Task is only created where the API needs one and callers may modify it
+ * freely. Writers must be serialized by the owner. Readers take no lock: they
+ * read optimistically and retry under the read lock if a write overlapped,
+ * so a task is never seen half-written.
+ */
+public class ColumnarTaskStore {
+    // Stored for a missing date
+    public static final long NULL_DATE = Long.MIN_VALUE;
+    private static final byte PRESENT = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte RECURRING = 16;
+    private static final byte PLANNED = 32;
+    // Bits 2-3: 0 for no priority, otherwise ordinal + 1
+    private static final int PRIORITY_SHIFT = 2;
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int DEDUP_SLOTS = 4096;
+
+    private static final class Series {
+        final Recurrence recurrence;
+        final int occurrence;
+
+        Series(Recurrence recurrence, int occurrence) {
+            this.recurrence = recurrence;
+            this.occurrence = occurrence;
+        }
+    }
+
+    private static final class Plan {
+        final List<Integer> dependsOn;
+        final int durationMinutes;
+
+        Plan(List<Integer> dependsOn, int durationMinutes) {
+            this.dependsOn = dependsOn;
+            this.durationMinutes = durationMinutes;
+        }
+    }
+
+    // Replaced as a whole when the table grows, so readers never mix arrays of two sizes
+    private static final class Columns {
+        final byte[] flags;
+        final long[] dueDates;
+        final long[] createdAt;
+        final long[] versions;
+        final String[] titles;
+        final String[] descriptions;
+
+        Columns(int capacity) {
+            flags = new byte[capacity];
+            dueDates = new long[capacity];
+            createdAt = new long[capacity];
+            versions = new long[capacity];
+            titles = new String[capacity];
+            descriptions = new String[capacity];
+        }
+
+        Columns(Columns other, int length) {
+            flags = Arrays.copyOf(other.flags, length);
+            dueDates = Arrays.copyOf(other.dueDates, length);
+            createdAt = Arrays.copyOf(other.createdAt, length);
+            versions = Arrays.copyOf(other.versions, length);
+            titles = Arrays.copyOf(other.titles, length);
+            descriptions = Arrays.copyOf(other.descriptions, length);
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    // Recently stored strings by hash; a hit shares the earlier instance
+    private final String[] dedup = new String[DEDUP_SLOTS];
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    // Recurring tasks only, changed under the write lock like the columns
+    private final Map<Integer, Series> series = new ConcurrentHashMap<>();
+    // Tasks with dependencies or a duration, likewise
+    private final Map<Integer, Plan> plans = new ConcurrentHashMap<>();
+    private volatile int size;
+    private volatile int maxId;
+
+    public Task get(int id) {
+        long stamp = lock.tryOptimisticRead();
+        Task task = read(columns, id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                task = read(columns, id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return task;
+    }
+
+    private Task read(Columns c, int id) {
+        if (id <= 0 || id >= c.flags.length) {
+            return null;
+        }
+        byte flags = c.flags[id];
+        if ((flags & PRESENT) == 0) {
+            return null;
+        }
+        Task task = new Task(id, c.titles[id], c.descriptions[id], fromEpochNanos(c.dueDates[id]), priority(flags),
+                (flags & COMPLETED) != 0, fromEpochNanos(c.createdAt[id]), c.versions[id]);
+        if ((flags & RECURRING) != 0) {
+            Series s = series.get(id);
+            if (s != null) {
+                task.setRecurrence(s.recurrence);
+                task.setOccurrence(s.occurrence);
+            }
+        }
+        if ((flags & PLANNED) != 0) {
+            Plan p = plans.get(id);
+            if (p != null) {
+                task.setDependsOn(p.dependsOn);
+                task.setDurationMinutes(p.durationMinutes);
+            }
+        }
+        return task;
+    }
+
+    public boolean contains(int id) {
+        return (flags(id) & PRESENT) != 0;
+    }
+
+    // Not completed; false for a missing task. Allocates nothing.
+    public boolean isPending(int id) {
+        return (flags(id) & (PRESENT | COMPLETED)) == PRESENT;
+    }
+
+    private byte flags(int id) {
+        long stamp = lock.tryOptimisticRead();
+        byte flags = readFlags(columns, id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                flags = readFlags(columns, id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return flags;
+    }
+
+    private static byte readFlags(Columns c, int id) {
+        return id > 0 && id < c.flags.length ? c.flags[id] : 0;
+    }
+
+    // Version of the task's last change, or -1 if there is no such task
+    public long version(int id) {
+        long stamp = lock.tryOptimisticRead();
+        long version = readVersion(columns, id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                version = readVersion(columns, id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return version;
+    }
+
+    private static long readVersion(Columns c, int id) {
+        return id > 0 && id < c.flags.length && (c.flags[id] & PRESENT) != 0 ? c.versions[id] : -1;
+    }
+
+    // Inserts the task or overwrites the stored one with the same id; the task itself is not kept
+    public void put(Task task) {
+        int id = task.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("Task id must be positive: " + id);
+        }
+        String title = dedup(task.getTitle());
+        String description = dedup(task.getDescription());
+        boolean planned = !task.getDependsOn().isEmpty() || task.getDurationMinutes() != 0;
+        byte flags = (byte) (PRESENT | (task.isCompleted() ? COMPLETED : 0) | (task.isRecurring() ? RECURRING : 0)
+                | (planned ? PLANNED : 0)
+                | (task.getPriority() != null ? task.getPriority().ordinal() + 1 : 0) << PRIORITY_SHIFT);
+        long dueDate = toEpochNanos(task.getDueDate());
+        long createdAt = toEpochNanos(task.getCreatedAt());
+
+        long stamp = lock.writeLock();
+        try {
+            Columns c = columns;
+            if (id >= c.flags.length) {
+                c = grow(c, id);
+            }
+            byte previous = c.flags[id];
+            c.flags[id] = flags;
+            c.dueDates[id] = dueDate;
+            c.createdAt[id] = createdAt;
+            c.versions[id] = task.getVersion();
+            c.titles[id] = title;
+            c.descriptions[id] = description;
+            if (task.isRecurring()) {
+                series.put(id, new Series(task.getRecurrence(), task.getOccurrence()));
+            } else if ((previous & RECURRING) != 0) {
+                series.remove(id);
+            }
+            if (planned) {
+                plans.put(id, new Plan(task.getDependsOn(), task.getDurationMinutes()));
+            } else if ((previous & PLANNED) != 0) {
+                plans.remove(id);
+            }
+            if ((previous & PRESENT) == 0) {
+                size++;
+                maxId = Math.max(maxId, id);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(int id) {
+        long stamp = lock.writeLock();
+        try {
+            Columns c = columns;
+            if (id <= 0 || id >= c.flags.length || (c.flags[id] & PRESENT) == 0) {
+                return false;
+            }
+            if ((c.flags[id] & RECURRING) != 0) {
+                series.remove(id);
+            }
+            if ((c.flags[id] & PLANNED) != 0) {
+                plans.remove(id);
+            }
+            c.flags[id] = 0;
+            c.titles[id] = null;
+            c.descriptions[id] = null;
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            columns = new Columns(INITIAL_CAPACITY);
+            series.clear();
+            plans.clear();
+            size = 0;
+            maxId = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Consistent copy of every task as of one moment, sharing the strings; used for snapshots
+    public ColumnarTaskStore copy() {
+        ColumnarTaskStore copy = new ColumnarTaskStore();
+        long stamp = lock.readLock();
+        try {
+            copy.columns = new Columns(columns, maxId + 1);
+            copy.series.putAll(series);
+            copy.plans.putAll(plans);
+            copy.size = size;
+            copy.maxId = maxId;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return copy;
+    }
+
+    public int recurringCount() {
+        return series.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Every task that depends on another, in no particular order; costs nothing for the others
+    public void forEachDependent(Consumer<Task> consumer) {
+        for (Map.Entry<Integer, Plan> entry : plans.entrySet()) {
+            if (!entry.getValue().dependsOn.isEmpty()) {
+                Task task = get(entry.getKey());
+                if (task != null) {
+                    consumer.accept(task);
+                }
+            }
+        }
+    }
+
+    // Highest id ever stored since the last clear, 0 if none
+    public int maxId() {
+        return maxId;
+    }
+
+    // Every task as a view, in id order. Weakly consistent: each task is read as of one moment.
+    public Iterable<Task> tasks() {
+        return () -> new Iterator<Task>() {
+            private int nextId = 1;
+            private Task next = advance();
+
+            private Task advance() {
+                int last = maxId;
+                while (nextId <= last) {
+                    int id = nextId++;
+                    if (contains(id)) {
+                        Task task = get(id);
+                        if (task != null) {
+                            return task;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next;
+                next = advance();
+                return task;
+            }
+        };
+    }
+
+    public void forEach(Consumer<Task> consumer) {
+        for (Task task : tasks()) {
+            consumer.accept(task);
+        }
+    }
+
+    // Caller holds the write lock
+    private Columns grow(Columns old, int id) {
+        int capacity = old.flags.length;
+        while (capacity <= id) {
+            capacity = capacity < (1 << 29) ? capacity * 2 : Integer.MAX_VALUE - 8;
+        }
+        Columns c = new Columns(capacity);
+        int length = old.flags.length;
+        System.arraycopy(old.flags, 0, c.flags, 0, length);
+        System.arraycopy(old.dueDates, 0, c.dueDates, 0, length);
+        System.arraycopy(old.createdAt, 0, c.createdAt, 0, length);
+        System.arraycopy(old.versions, 0, c.versions, 0, length);
+        System.arraycopy(old.titles, 0, c.titles, 0, length);
+        System.arraycopy(old.descriptions, 0, c.descriptions, 0, length);
+        columns = c;
+        return c;
+    }
+
+    // Only called by the single writer
+    private String dedup(String value) {
+        if (value == null) {
+            return null;
+        }
+        int slot = (value.hashCode() ^ (value.hashCode() >>> 16)) & (DEDUP_SLOTS - 1);
+        String cached = dedup[slot];
+        if (value.equals(cached)) {
+            return cached;
+        }
+        dedup[slot] = value;
+        return value;
+    }
+
+    private static Task.Priority priority(byte flags) {
+        int code = (flags >>> PRIORITY_SHIFT) & 3;
+        return code == 0 ? null : PRIORITIES[code - 1];
+    }
+
+    // Dependency ids as stored in snapshots and the database, e.g. "3,7,12"; null for none
+    static String encodeIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int id : ids) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(id);
+        }
+        return text.toString();
+    }
+
+    static List<Integer> decodeIds(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (String id : text.split(",")) {
+            ids.add(Integer.parseInt(id));
+        }
+        return ids;
+    }
+
+    // Local date-times are stored as if they were UTC; only the field values matter
+    public static long toEpochNanos(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_DATE;
+        }
+        return EpochNanos.of(dateTime);
+    }
+
+    public static LocalDateTime fromEpochNanos(long nanos) {
+        if (nanos == NULL_DATE) {
+            return null;
+        }
+        return EpochNanos.toDateTime(nanos);
+    }
+}
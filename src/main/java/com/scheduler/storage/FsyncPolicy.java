@@ -0,0 +1,20 @@
+package com.scheduler.storage;
+
+import java.util.Locale;
+
+// Controls when appended log records are forced to disk
+public enum FsyncPolicy {
+    // fsync every group commit before acknowledging the writers
+    ALWAYS,
+    // fsync at most once per configured interval
+    INTERVAL,
+    // leave flushing to the operating system
+    NEVER;
+
+    public static FsyncPolicy fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return INTERVAL;
+        }
+        return FsyncPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
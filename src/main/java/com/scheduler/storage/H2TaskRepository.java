@@ -0,0 +1,788 @@
+package com.scheduler.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.index.TextIndex;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+/**
+ * Tasks in an embedded H2 database (data/tasks.mv.db), so the data set is
+ * bounded by the disk instead of the heap.
+ *
+ * Each task is a row of the tasks table. B-tree indexes cover list order
+ * (due date, priority rank and id, as in {@link TaskKey}), priority, and
+ * pending tasks by due date. The terms of titles and descriptions are rows
+ * of task_terms, an inverted index keyed by term. Pages, filters, search and
+ * reminder lookups are SQL range scans over those indexes, fetched a chunk
+ * at a time, so only the tasks a request asks for are read into memory.
+ * Search ranks like {@link TextIndex}, except that a prefix term is weighted
+ * by the document frequency of its whole range.
+ *
+ * Writes use one connection, in a transaction per unit that {@link #commit()}
+ * commits and {@link #rollback()} discards. Reads borrow a connection from a
+ * small pool and see committed data only. The one exception is the thread
+ * writing a unit: its {@link #get}, {@link #contains} and {@link #isPending}
+ * also see the unit's own changes, so that a batch can build on them.
+ * A commit reaches the file within H2's write delay (half a second by
+ * default); {@link #flush()} forces it to disk.
+ */
+public class H2TaskRepository implements TaskRepository {
+    private static final AsyncLogger log = AsyncLogger.get(H2TaskRepository.class);
+    private static final LatencyHistogram commitDuration = MetricsRegistry.getDefault().histogram(
+            "scheduler_h2_commit_duration_seconds", "Time to commit one unit of task changes to H2");
+    private static final String COLUMNS =
+            "id, title, description, due_order, priority_rank, completed, created_at, version, recurrence, occurrence, "
+                    + "depends_on, duration_minutes";
+    private static final int MAX_FETCH_SIZE = 1000;
+    private static final int NO_PRIORITY_RANK = 1;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+    // Marks a task deleted by the unit in progress
+    private static final Task DELETED = new Task();
+
+    private final Connection writer;
+    private final BlockingQueue<Connection> readers;
+    private final PreparedStatement upsertTask;
+    private final PreparedStatement deleteTask;
+    private final PreparedStatement insertTerm;
+    private final PreparedStatement deleteTerms;
+    private final PreparedStatement saveNextId;
+    // Tasks changed by the unit in progress, until it is committed; only unitWriter reads or writes it
+    private final Map<Integer, Task> uncommitted = new HashMap<>();
+    // The thread writing the unit in progress, null between units
+    private volatile Thread unitWriter;
+    // Changes of size and recurring made by the unit in progress, applied once it is committed
+    private int unitSize;
+    private int unitRecurring;
+    private final Map<String, Recurrence> rules = new ConcurrentHashMap<>();
+    private final AtomicInteger idCounter = new AtomicInteger(1);
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger recurring = new AtomicInteger();
+    private int committedNextId;
+    // Highest version in the tasks table when it was opened
+    private long storedVersion;
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Opens, or creates, the database tasks.mv.db in dataDir. -Dscheduler.h2.url
+     * replaces the JDBC URL, e.g. to tune H2's cache size or write delay.
+     */
+    public H2TaskRepository(Path dataDir) {
+        String url = System.getProperty("scheduler.h2.url",
+                "jdbc:h2:file:" + dataDir.toAbsolutePath().resolve("tasks") + ";DB_CLOSE_ON_EXIT=FALSE");
+        int readConnections = Integer.getInteger("scheduler.h2.readConnections", 8);
+        long startNanos = System.nanoTime();
+        try {
+            writer = DriverManager.getConnection(url);
+            createSchema(writer);
+            writer.setAutoCommit(false);
+            readers = new ArrayBlockingQueue<>(readConnections);
+            for (int i = 0; i < readConnections; i++) {
+                readers.add(DriverManager.getConnection(url));
+            }
+            upsertTask = writer.prepareStatement("MERGE INTO tasks (" + COLUMNS + ") KEY (id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            deleteTask = writer.prepareStatement("DELETE FROM tasks WHERE id = ?");
+            insertTerm = writer.prepareStatement("INSERT INTO task_terms (term, task_id, weight) VALUES (?, ?, ?)");
+            deleteTerms = writer.prepareStatement("DELETE FROM task_terms WHERE task_id = ?");
+            saveNextId = writer.prepareStatement("MERGE INTO scheduler_meta (name, val) KEY (name) "
+                    + "VALUES ('next_id', ?)");
+            loadCounters();
+        } catch (SQLException e) {
+            throw new UncheckedIOException("Unable to open task database " + url, new IOException(e));
+        }
+        long loadNanos = System.nanoTime() - startNanos;
+        log.info("🗄️ Opened H2 task database with " + size.get() + " tasks in "
+                + loadNanos / 1_000_000 + " ms. Next ID: " + idCounter.get());
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.gauge("scheduler_tasks", "Tasks currently stored", size::get);
+        metrics.gauge("scheduler_recurring_tasks", "Stored tasks that repeat", recurring::get);
+        metrics.gauge("scheduler_load_duration_seconds", "Time taken to load tasks at startup",
+                () -> loadNanos / 1e9);
+    }
+
+    private static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // Dates as in TaskKey: nanoseconds since the epoch with the local time read as UTC
+            statement.execute("CREATE TABLE IF NOT EXISTS tasks ("
+                    + "id INT PRIMARY KEY, "
+                    + "title VARCHAR, "
+                    + "description VARCHAR, "
+                    + "due_order BIGINT NOT NULL, "
+                    + "priority_rank INT NOT NULL, "
+                    + "completed BOOLEAN NOT NULL, "
+                    + "created_at BIGINT, "
+                    + "version BIGINT NOT NULL, "
+                    + "recurrence VARCHAR, "
+                    + "occurrence INT NOT NULL)");
+            // Added after the table first shipped, so older databases gain them here
+            statement.execute("ALTER TABLE tasks ADD COLUMN IF NOT EXISTS depends_on VARCHAR");
+            statement.execute("ALTER TABLE tasks ADD COLUMN IF NOT EXISTS duration_minutes INT NOT NULL DEFAULT 0");
+            statement.execute("CREATE INDEX IF NOT EXISTS tasks_order ON tasks (due_order, priority_rank, id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS tasks_priority ON tasks (priority_rank, due_order, id)");
+            statement.execute(
+                    "CREATE INDEX IF NOT EXISTS tasks_pending ON tasks (completed, due_order, priority_rank, id)");
+            statement.execute("CREATE TABLE IF NOT EXISTS task_terms ("
+                    + "term VARCHAR NOT NULL, "
+                    + "task_id INT NOT NULL, "
+                    + "weight INT NOT NULL, "
+                    + "PRIMARY KEY (term, task_id))");
+            statement.execute("CREATE INDEX IF NOT EXISTS task_terms_task ON task_terms (task_id)");
+            statement.execute("CREATE TABLE IF NOT EXISTS scheduler_meta (name VARCHAR PRIMARY KEY, val BIGINT)");
+        }
+    }
+
+    private void loadCounters() throws SQLException {
+        idCounter.set(count() + 1);
+        try (Statement statement = writer.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT val FROM scheduler_meta WHERE name = 'next_id'")) {
+                if (rows.next()) {
+                    idCounter.set(Math.max(idCounter.get(), (int) rows.getLong(1)));
+                }
+            }
+        }
+        writer.commit();
+        committedNextId = idCounter.get();
+    }
+
+    // Counts the committed tasks into size and recurring, and reads storedVersion; returns the highest id
+    private int count() throws SQLException {
+        try (Statement statement = writer.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT COUNT(*), COUNT(recurrence), MAX(id), MAX(version) FROM tasks")) {
+            rows.next();
+            size.set(rows.getInt(1));
+            recurring.set(rows.getInt(2));
+            storedVersion = rows.getLong(4);
+            return rows.getInt(3);
+        }
+    }
+
+    // The unit in progress, as its writer sees it; null on every other thread
+    private Map<Integer, Task> ownUncommitted() {
+        return Thread.currentThread() == unitWriter ? uncommitted : null;
+    }
+
+    @Override
+    public Task get(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending == DELETED ? null : new Task(pending);
+        }
+        return read(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM tasks WHERE id = ?")) {
+                select.setInt(1, id);
+                try (ResultSet rows = select.executeQuery()) {
+                    return rows.next() ? toTask(rows) : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean contains(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending != DELETED;
+        }
+        return readFlag(id, "SELECT 1 FROM tasks WHERE id = ?");
+    }
+
+    @Override
+    public boolean isPending(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending != DELETED && !pending.isCompleted();
+        }
+        return readFlag(id, "SELECT 1 FROM tasks WHERE id = ? AND NOT completed");
+    }
+
+    private boolean readFlag(int id, String sql) {
+        return read(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(sql)) {
+                select.setInt(1, id);
+                try (ResultSet rows = select.executeQuery()) {
+                    return rows.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Iterable<Task> scan(TaskKey after, LocalDateTime dueBefore, Boolean completed,
+                               Set<Task.Priority> priorities, int fetchSize) {
+        int chunkSize = Math.max(16, Math.min(fetchSize, MAX_FETCH_SIZE));
+        return () -> new Iterator<Task>() {
+            private TaskKey position = after;
+            private List<Task> chunk = List.of();
+            private int index;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index == chunk.size() && !exhausted) {
+                    chunk = scanChunk(position, dueBefore, completed, priorities, chunkSize);
+                    index = 0;
+                    exhausted = chunk.size() < chunkSize;
+                    if (!chunk.isEmpty()) {
+                        position = TaskKey.of(chunk.get(chunk.size() - 1));
+                    }
+                }
+                return index < chunk.size();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(index++);
+            }
+        };
+    }
+
+    // One chunk of a scan, in list order; the connection is back in the pool before the caller sees a task
+    private List<Task> scanChunk(TaskKey after, LocalDateTime dueBefore, Boolean completed,
+                                 Set<Task.Priority> priorities, int limit) {
+        if (priorities != null && priorities.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM tasks WHERE TRUE");
+        List<Object> parameters = new ArrayList<>();
+        if (after != null) {
+            // The leading range lets H2 seek in tasks_order instead of filtering from the start
+            sql.append(" AND due_order >= ? AND (due_order > ? OR (due_order = ?"
+                    + " AND (priority_rank > ? OR (priority_rank = ? AND id > ?))))");
+            parameters.add(after.getDueOrder());
+            parameters.add(after.getDueOrder());
+            parameters.add(after.getDueOrder());
+            parameters.add(after.getPriorityRank());
+            parameters.add(after.getPriorityRank());
+            parameters.add(after.getId());
+        }
+        if (dueBefore != null) {
+            sql.append(" AND due_order < ?");
+            parameters.add(TaskKey.lowerBound(dueBefore).getDueOrder());
+        }
+        if (completed != null) {
+            sql.append(" AND completed = ?");
+            parameters.add(completed);
+        }
+        if (priorities != null) {
+            sql.append(" AND priority_rank IN (").append(String.join(", ", Collections.nCopies(priorities.size(), "?")))
+                    .append(')');
+            for (Task.Priority priority : priorities) {
+                parameters.add(priorityRank(priority));
+            }
+        }
+        // The same list order, spelled to match an index whose leading column the filters fix,
+        // so H2 reads that index in order instead of sorting every matching row
+        if (priorities != null && priorities.size() == 1) {
+            sql.append(" ORDER BY priority_rank, due_order, id LIMIT ?");
+        } else if (completed != null) {
+            sql.append(" ORDER BY completed, due_order, priority_rank, id LIMIT ?");
+        } else {
+            sql.append(" ORDER BY due_order, priority_rank, id LIMIT ?");
+        }
+        parameters.add(limit);
+        return read(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    select.setObject(i + 1, parameters.get(i));
+                }
+                List<Task> tasks = new ArrayList<>(limit);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        tasks.add(toTask(rows));
+                    }
+                }
+                return tasks;
+            }
+        });
+    }
+
+    /**
+     * Sums weight times inverse document frequency per task over one
+     * sub-select per query term; a task must appear in all of them.
+     */
+    @Override
+    public TextIndex.Hits search(String query, int limit) {
+        List<TextIndex.QueryTerm> terms = TextIndex.parseQuery(query);
+        if (terms.isEmpty()) {
+            return TextIndex.Hits.EMPTY;
+        }
+        int documents = size.get();
+        return read(connection -> {
+            double[] idfs = new double[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                TextIndex.QueryTerm term = terms.get(i);
+                try (PreparedStatement count = connection.prepareStatement(
+                        "SELECT COUNT(*) FROM task_terms WHERE " + termCondition(term))) {
+                    bindTerm(count, 1, term);
+                    try (ResultSet rows = count.executeQuery()) {
+                        rows.next();
+                        long matching = rows.getLong(1);
+                        if (matching == 0) {
+                            return TextIndex.Hits.EMPTY;
+                        }
+                        idfs[i] = TextIndex.idf(Math.max(documents, 1), matching);
+                    }
+                }
+            }
+
+            StringBuilder sql = new StringBuilder(
+                    "SELECT task_id, SUM(score) AS total_score, COUNT(*) OVER () AS matches FROM (");
+            for (int i = 0; i < terms.size(); i++) {
+                if (i > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT task_id, SUM(weight) * CAST(? AS DOUBLE PRECISION) AS score FROM task_terms WHERE ")
+                        .append(termCondition(terms.get(i))).append(" GROUP BY task_id");
+            }
+            sql.append(") GROUP BY task_id HAVING COUNT(*) = ? ORDER BY total_score DESC, task_id LIMIT ?");
+            try (PreparedStatement select = connection.prepareStatement(sql.toString())) {
+                int parameter = 1;
+                for (int i = 0; i < terms.size(); i++) {
+                    select.setDouble(parameter++, idfs[i]);
+                    parameter = bindTerm(select, parameter, terms.get(i));
+                }
+                select.setInt(parameter++, terms.size());
+                select.setInt(parameter, Math.max(limit, 1));
+                List<Integer> ids = new ArrayList<>();
+                List<Float> scores = new ArrayList<>();
+                int total = 0;
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        ids.add(rows.getInt(1));
+                        scores.add(rows.getFloat(2));
+                        total = rows.getInt(3);
+                    }
+                }
+                int returned = Math.min(ids.size(), limit);
+                int[] idArray = new int[returned];
+                float[] scoreArray = new float[returned];
+                for (int i = 0; i < returned; i++) {
+                    idArray[i] = ids.get(i);
+                    scoreArray[i] = scores.get(i);
+                }
+                return new TextIndex.Hits(total, idArray, scoreArray);
+            }
+        });
+    }
+
+    private static String termCondition(TextIndex.QueryTerm term) {
+        return term.isPrefix() ? "term >= ? AND term < ?" : "term = ?";
+    }
+
+    private static int bindTerm(PreparedStatement statement, int parameter, TextIndex.QueryTerm term)
+            throws SQLException {
+        statement.setString(parameter++, term.getTerm());
+        if (term.isPrefix()) {
+            statement.setString(parameter++, TextIndex.prefixEnd(term.getTerm()));
+        }
+        return parameter;
+    }
+
+    // Range scan of tasks_pending, a chunk at a time
+    @Override
+    public void forEachPendingDue(long fromNanos, long toNanos, PendingVisitor visitor) {
+        long afterDue = fromNanos;
+        int afterRank = Integer.MIN_VALUE;
+        int afterId = Integer.MIN_VALUE;
+        int[] ids = new int[MAX_FETCH_SIZE];
+        long[] dues = new long[MAX_FETCH_SIZE];
+        int[] ranks = new int[MAX_FETCH_SIZE];
+        while (true) {
+            long fromDue = afterDue;
+            int fromRank = afterRank;
+            int fromId = afterId;
+            int count = read(connection -> {
+                // Ordered like the index, completed included, so H2 reads it without sorting
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT id, due_order, priority_rank FROM tasks WHERE completed = FALSE"
+                                + " AND due_order >= ? AND due_order < ? AND (due_order > ? OR (due_order = ?"
+                                + " AND (priority_rank > ? OR (priority_rank = ? AND id > ?))))"
+                                + " ORDER BY completed, due_order, priority_rank, id LIMIT ?")) {
+                    select.setLong(1, fromDue);
+                    select.setLong(2, toNanos);
+                    select.setLong(3, fromDue);
+                    select.setLong(4, fromDue);
+                    select.setInt(5, fromRank);
+                    select.setInt(6, fromRank);
+                    select.setInt(7, fromId);
+                    select.setInt(8, MAX_FETCH_SIZE);
+                    int rows = 0;
+                    try (ResultSet result = select.executeQuery()) {
+                        while (result.next()) {
+                            ids[rows] = result.getInt(1);
+                            dues[rows] = result.getLong(2);
+                            ranks[rows] = result.getInt(3);
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }
+            });
+            for (int i = 0; i < count; i++) {
+                visitor.visit(ids[i], dues[i]);
+            }
+            if (count < MAX_FETCH_SIZE) {
+                return;
+            }
+            afterId = ids[count - 1];
+            afterDue = dues[count - 1];
+            afterRank = ranks[count - 1];
+        }
+    }
+
+    // Two aggregate queries, so counting costs a pass over the indexes rather than reading every task
+    @Override
+    public void countTasks(TaskCounter counter) {
+        read(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT priority_rank, completed, COUNT(*) FROM tasks GROUP BY priority_rank, completed")) {
+                while (rows.next()) {
+                    counter.tasks(priority(rows.getInt(1)), rows.getBoolean(2), rows.getInt(3));
+                }
+            }
+            // Integer division rounds towards zero, so days before 1970 take one off
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT due_day, COUNT(*) FROM (SELECT due_order / ? - CASE WHEN MOD(due_order, ?) < 0"
+                            + " THEN 1 ELSE 0 END AS due_day FROM tasks WHERE completed = FALSE AND due_order <> ?)"
+                            + " GROUP BY due_day")) {
+                select.setLong(1, NANOS_PER_DAY);
+                select.setLong(2, NANOS_PER_DAY);
+                select.setLong(3, TaskKey.NO_DUE_DATE);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        counter.pendingDueOn(rows.getLong(1), rows.getInt(2));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // Few tasks have dependencies, so one query without an index reads them all
+    @Override
+    public void forEachDependent(Consumer<Task> consumer) {
+        List<Task> tasks = read(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT " + COLUMNS + " FROM tasks WHERE depends_on IS NOT NULL")) {
+                List<Task> dependents = new ArrayList<>();
+                while (rows.next()) {
+                    dependents.add(toTask(rows));
+                }
+                return dependents;
+            }
+        });
+        tasks.forEach(consumer);
+    }
+
+    // In id order, a chunk at a time
+    @Override
+    public void forEach(Consumer<Task> consumer) {
+        int afterId = Integer.MIN_VALUE;
+        while (true) {
+            int from = afterId;
+            List<Task> chunk = read(connection -> {
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT " + COLUMNS + " FROM tasks WHERE id > ? ORDER BY id LIMIT ?")) {
+                    select.setInt(1, from);
+                    select.setInt(2, MAX_FETCH_SIZE);
+                    List<Task> tasks = new ArrayList<>(MAX_FETCH_SIZE);
+                    try (ResultSet rows = select.executeQuery()) {
+                        while (rows.next()) {
+                            tasks.add(toTask(rows));
+                        }
+                    }
+                    return tasks;
+                }
+            });
+            chunk.forEach(consumer);
+            if (chunk.size() < MAX_FETCH_SIZE) {
+                return;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    @Override
+    public int nextId() {
+        return idCounter.get();
+    }
+
+    // Versions are stored with the tasks, so the service carries on above the highest one
+    @Override
+    public long storedVersion() {
+        return storedVersion;
+    }
+
+    @Override
+    public int allocateId() {
+        return idCounter.getAndIncrement();
+    }
+
+    @Override
+    public void insert(Task task) {
+        // Ids may come from elsewhere (a cluster); never hand out one that is stored
+        idCounter.accumulateAndGet(task.getId() + 1, Math::max);
+        write(() -> {
+            upsert(task);
+            indexTerms(task);
+        });
+        uncommitted.put(task.getId(), new Task(task));
+        unitSize++;
+        if (task.isRecurring()) {
+            unitRecurring++;
+        }
+    }
+
+    @Override
+    public void replace(Task previous, Task replacement) {
+        write(() -> {
+            upsert(replacement);
+            if (!Objects.equals(previous.getTitle(), replacement.getTitle())
+                    || !Objects.equals(previous.getDescription(), replacement.getDescription())) {
+                deleteTerms.setInt(1, replacement.getId());
+                deleteTerms.executeUpdate();
+                indexTerms(replacement);
+            }
+        });
+        uncommitted.put(replacement.getId(), new Task(replacement));
+        unitRecurring += (replacement.isRecurring() ? 1 : 0) - (previous.isRecurring() ? 1 : 0);
+    }
+
+    @Override
+    public void delete(Task previous) {
+        write(() -> {
+            deleteTask.setInt(1, previous.getId());
+            deleteTask.executeUpdate();
+            deleteTerms.setInt(1, previous.getId());
+            deleteTerms.executeUpdate();
+        });
+        uncommitted.put(previous.getId(), DELETED);
+        unitSize--;
+        if (previous.isRecurring()) {
+            unitRecurring--;
+        }
+    }
+
+    private void upsert(Task task) throws SQLException {
+        TaskKey key = TaskKey.of(task);
+        upsertTask.setInt(1, task.getId());
+        upsertTask.setString(2, task.getTitle());
+        upsertTask.setString(3, task.getDescription());
+        upsertTask.setLong(4, key.getDueOrder());
+        upsertTask.setInt(5, key.getPriorityRank());
+        upsertTask.setBoolean(6, task.isCompleted());
+        if (task.getCreatedAt() != null) {
+            upsertTask.setLong(7, ColumnarTaskStore.toEpochNanos(task.getCreatedAt()));
+        } else {
+            upsertTask.setNull(7, Types.BIGINT);
+        }
+        upsertTask.setLong(8, task.getVersion());
+        upsertTask.setString(9, task.isRecurring() ? task.getRecurrence().toString() : null);
+        upsertTask.setInt(10, task.getOccurrence());
+        upsertTask.setString(11, ColumnarTaskStore.encodeIds(task.getDependsOn()));
+        upsertTask.setInt(12, task.getDurationMinutes());
+        upsertTask.executeUpdate();
+    }
+
+    private void indexTerms(Task task) throws SQLException {
+        Map<String, Integer> weights = TextIndex.weigh(task);
+        if (weights.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            insertTerm.setString(1, entry.getKey());
+            insertTerm.setInt(2, task.getId());
+            insertTerm.setInt(3, entry.getValue());
+            insertTerm.addBatch();
+        }
+        insertTerm.executeBatch();
+    }
+
+    @Override
+    public long commit() {
+        if (uncommitted.isEmpty()) {
+            endUnit();
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            int nextId = idCounter.get();
+            if (nextId != committedNextId) {
+                saveNextId.setLong(1, nextId);
+                saveNextId.executeUpdate();
+                committedNextId = nextId;
+            }
+            writer.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw failure("Failed to commit task changes", e);
+        }
+        size.addAndGet(unitSize);
+        recurring.addAndGet(unitRecurring);
+        endUnit();
+        commitDuration.recordSince(startNanos);
+        return 0;
+    }
+
+    private void endUnit() {
+        uncommitted.clear();
+        unitSize = 0;
+        unitRecurring = 0;
+        unitWriter = null;
+    }
+
+    // Nothing to wait for: commit() returns once H2 has the changes
+    @Override
+    public void awaitCommit(long ticket) {
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return read(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.commit();
+            for (Connection reader : readers) {
+                reader.close();
+            }
+            // Closing the last connection closes the database
+            writer.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close task database", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlUpdate {
+        void run() throws SQLException;
+    }
+
+    // Called by the single writer; a failed statement discards the whole unit
+    private void write(SqlUpdate update) {
+        unitWriter = Thread.currentThread();
+        try {
+            update.run();
+        } catch (SQLException e) {
+            rollback();
+            throw failure("Failed to write task changes", e);
+        }
+    }
+
+    // Also called by a failed statement or commit; calling it again does nothing more
+    @Override
+    public void rollback() {
+        try {
+            writer.rollback();
+        } catch (SQLException e) {
+            log.error("❌ Rollback failed: " + e.getMessage(), e);
+        } finally {
+            endUnit();
+        }
+    }
+
+    private <T> T read(SqlWork<T> work) {
+        Connection connection;
+        try {
+            connection = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            throw failure("Failed to read tasks", e);
+        } finally {
+            readers.add(connection);
+        }
+    }
+
+    private static UncheckedIOException failure(String message, SQLException e) {
+        return new UncheckedIOException(message, new IOException(e));
+    }
+
+    private Task toTask(ResultSet rows) throws SQLException {
+        long dueOrder = rows.getLong(4);
+        long createdAt = rows.getLong(7);
+        boolean noCreatedAt = rows.wasNull();
+        Task task = new Task(rows.getInt(1), rows.getString(2), rows.getString(3),
+                dueOrder != TaskKey.NO_DUE_DATE ? ColumnarTaskStore.fromEpochNanos(dueOrder) : null,
+                priority(rows.getInt(5)), rows.getBoolean(6),
+                noCreatedAt ? null : ColumnarTaskStore.fromEpochNanos(createdAt), rows.getLong(8));
+        String rule = rows.getString(9);
+        if (rule != null) {
+            task.setRecurrence(rules.computeIfAbsent(rule, Recurrence::parse));
+            task.setOccurrence(rows.getInt(10));
+        }
+        task.setDependsOn(ColumnarTaskStore.decodeIds(rows.getString(11)));
+        task.setDurationMinutes(rows.getInt(12));
+        return task;
+    }
+
+    private static int priorityRank(Task.Priority priority) {
+        return priority != null ? -priority.ordinal() : NO_PRIORITY_RANK;
+    }
+
+    private static Task.Priority priority(int rank) {
+        return rank == NO_PRIORITY_RANK ? null : PRIORITIES[-rank];
+    }
+}
@@ -0,0 +1,50 @@
+package com.scheduler.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps changes in memory only. Existing snapshot and log files are still
+ * loaded at startup, but nothing is ever written back. Meant for benchmarks
+ * and throwaway instances.
+ */
+public class InMemoryPersistence implements TaskPersistence {
+    private final Path logFile;
+    private final AtomicLong changeSeq = new AtomicLong();
+
+    public InMemoryPersistence(Path logFile) {
+        this.logFile = logFile;
+    }
+
+    @Override
+    public int replay(Consumer<String> handler) throws IOException {
+        return WriteAheadLog.replay(logFile, handler);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    // Never serialized
+    @Override
+    public long append(Supplier<byte[]> record) {
+        return changeSeq.incrementAndGet();
+    }
+
+    @Override
+    public void awaitCommit(long ticket) {
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,636 @@
+package com.scheduler.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.index.SortedTaskIndex;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.index.TextIndex;
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Task;
+
+/**
+ * Every task in memory: a {@link ColumnarTaskStore}, a {@link SortedTaskIndex}
+ * for list order and a {@link TextIndex} for search, all rebuilt from disk at
+ * startup. Mutations are made durable by a {@link TaskPersistence} engine
+ * (-Dscheduler.persistence=wal, snapshot or none) as JSON log records, and
+ * the whole state is saved as a binary or JSON snapshot
+ * (-Dscheduler.snapshot.format). Fast, but the data set must fit in the heap.
+ *
+ * Like {@link H2TaskRepository}, a unit of mutations is private to the
+ * thread writing it until {@link #commit()}: that thread's {@link #get},
+ * {@link #contains} and {@link #isPending} see the unit's changes, everyone
+ * else sees the tasks as last committed. The commit applies the whole unit
+ * while holding unitLock exclusively, and every read checks the lock, so no
+ * reader sees part of a unit, and a unit that is rolled back was never seen.
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+    private static final AsyncLogger log = AsyncLogger.get(InMemoryTaskRepository.class);
+    private static final LatencyHistogram snapshotDuration = MetricsRegistry.getDefault().histogram(
+            "scheduler_snapshot_duration_seconds", "Time to write a full snapshot");
+    private static final Counter snapshotBytes = MetricsRegistry.getDefault().counter(
+            "scheduler_snapshot_bytes_written_total", "Bytes written to snapshot files");
+    // Marks a task deleted by the unit in progress
+    private static final Task DELETED = new Task();
+
+    // Tasks by id, one array per field; every read builds a new Task
+    private final ColumnarTaskStore store = new ColumnarTaskStore();
+    private final SortedTaskIndex sortedIndex = new SortedTaskIndex();
+    private final TextIndex textIndex = new TextIndex();
+    private final AtomicInteger idCounter = new AtomicInteger(1);
+    private final ObjectMapper objectMapper;
+    private final TaskPersistence persistence;
+    private final boolean binarySnapshots;
+    private final Path dataFile;
+    private final Path binaryDataFile;
+    private final Path logFile;
+    // Tasks changed by the unit in progress, until it is committed; only unitWriter reads or writes it
+    private final Map<Integer, Task> uncommitted = new HashMap<>();
+    // Changes to the store and indexes made by the unit in progress, in order, run by commit()
+    private final List<Runnable> unitChanges = new ArrayList<>();
+    // Log records of the unit in progress
+    private final List<Map<String, Object>> unitRecords = new ArrayList<>();
+    // The thread writing the unit in progress, null between units
+    private volatile Thread unitWriter;
+    // Held for writing while a committed unit is applied, so readers and snapshots see whole units only
+    private final StampedLock unitLock = new StampedLock();
+    private volatile long loadNanos;
+
+    // All files (snapshot and log) live in dataDir
+    public InMemoryTaskRepository(Path dataDir, ObjectMapper objectMapper) {
+        this.dataFile = dataDir.resolve("tasks.json");
+        this.binaryDataFile = dataDir.resolve("tasks.bin");
+        this.logFile = dataDir.resolve("tasks.wal");
+        this.objectMapper = objectMapper;
+        this.binarySnapshots = !"json".equalsIgnoreCase(System.getProperty("scheduler.snapshot.format", "binary"));
+        this.persistence = createPersistence();
+
+        loadTasks();
+
+        try {
+            persistence.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open task storage", e);
+        }
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.gauge("scheduler_tasks", "Tasks currently stored", store::size);
+        metrics.gauge("scheduler_recurring_tasks", "Stored tasks that repeat", store::recurringCount);
+        metrics.gauge("scheduler_index_entries", "Entries in the sorted due-date index", sortedIndex::size);
+        metrics.gauge("scheduler_text_index_terms", "Distinct terms in the full-text index", textIndex::termCount);
+        metrics.gauge("scheduler_load_duration_seconds", "Time taken to load tasks at startup",
+                () -> loadNanos / 1e9);
+    }
+
+    // -Dscheduler.persistence=wal (default), snapshot or none
+    private TaskPersistence createPersistence() {
+        String mode = System.getProperty("scheduler.persistence", "wal");
+        if ("none".equalsIgnoreCase(mode)) {
+            log.info("💾 Persistence disabled; changes are kept in memory only");
+            return new InMemoryPersistence(logFile);
+        }
+        if ("snapshot".equalsIgnoreCase(mode)) {
+            log.info("💾 Using coalescing snapshot persistence");
+            return new CoalescingSnapshotPersistence(
+                    this::writeSnapshot,
+                    Long.getLong("scheduler.snapshot.flushIntervalMs", 1000),
+                    Long.getLong("scheduler.snapshot.flushEveryChanges", 1000),
+                    logFile);
+        }
+        if (!"wal".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown scheduler.persistence mode: " + mode);
+        }
+        return new WriteAheadLog(
+                logFile,
+                FsyncPolicy.fromString(System.getProperty("scheduler.wal.fsync")),
+                Long.getLong("scheduler.wal.fsyncIntervalMs", 200),
+                Long.getLong("scheduler.wal.compactBytes", 16L * 1024 * 1024),
+                this::writeSnapshot);
+    }
+
+    @Override
+    public Task get(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending == DELETED ? null : new Task(pending);
+        }
+        return committed(() -> store.get(id));
+    }
+
+    @Override
+    public boolean contains(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending != DELETED;
+        }
+        return committed(() -> store.contains(id));
+    }
+
+    @Override
+    public boolean isPending(int id) {
+        Map<Integer, Task> own = ownUncommitted();
+        Task pending = own != null ? own.get(id) : null;
+        if (pending != null) {
+            return pending != DELETED && !pending.isCompleted();
+        }
+        return committed(() -> store.isPending(id));
+    }
+
+    // The unit in progress, as its writer sees it; null on every other thread
+    private Map<Integer, Task> ownUncommitted() {
+        return Thread.currentThread() == unitWriter ? uncommitted : null;
+    }
+
+    // Runs the read again under the read lock if a unit was applied meanwhile; reads of
+    // the store and indexes are safe to run concurrently with one, just not consistent
+    private <T> T committed(Supplier<T> read) {
+        long stamp = unitLock.tryOptimisticRead();
+        T result = read.get();
+        if (!unitLock.validate(stamp)) {
+            stamp = unitLock.readLock();
+            try {
+                result = read.get();
+            } finally {
+                unitLock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return committed(store::size);
+    }
+
+    // Walks the live index, so a long scan can span commits: a task deleted or moved since
+    // its key was read is skipped or seen at its new state, but never as part of a unit
+    @Override
+    public Iterable<Task> scan(TaskKey after, LocalDateTime dueBefore, Boolean completed,
+                               Set<Task.Priority> priorities, int fetchSize) {
+        TaskKey end = dueBefore != null ? TaskKey.lowerBound(dueBefore) : null;
+        return () -> new Iterator<Task>() {
+            private final Iterator<TaskKey> keys = sortedIndex.keysAfter(after).iterator();
+            private Task next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && keys.hasNext()) {
+                    TaskKey key = keys.next();
+                    if (end != null && key.compareTo(end) >= 0) {
+                        return false;
+                    }
+                    Task task = committed(() -> store.get(key.getId()));
+                    if (task != null && (completed == null || task.isCompleted() == completed)
+                            && (priorities == null || priorities.contains(task.getPriority()))) {
+                        next = task;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next;
+                next = null;
+                return task;
+            }
+        };
+    }
+
+    @Override
+    public TextIndex.Hits search(String query, int limit) {
+        return committed(() -> textIndex.search(query, limit));
+    }
+
+    // A range of the sorted index; creates no Task objects
+    @Override
+    public void forEachPendingDue(long fromNanos, long toNanos, PendingVisitor visitor) {
+        TaskKey end = TaskKey.lowerBound(toNanos);
+        for (TaskKey key : sortedIndex.keysAfter(TaskKey.lowerBound(fromNanos))) {
+            if (key.compareTo(end) >= 0) {
+                break;
+            }
+            if (committed(() -> store.isPending(key.getId()))) {
+                visitor.visit(key.getId(), key.getDueOrder());
+            }
+        }
+    }
+
+    // In id order; like scan, each task as committed, but the pass can span commits
+    @Override
+    public void forEach(Consumer<Task> consumer) {
+        for (int id = 1; id <= store.maxId(); id++) {
+            int next = id;
+            Task task = committed(() -> store.get(next));
+            if (task != null) {
+                consumer.accept(task);
+            }
+        }
+    }
+
+    // Few tasks have dependencies, so they are all read under one hold of the read lock
+    @Override
+    public void forEachDependent(Consumer<Task> consumer) {
+        List<Task> dependents = new ArrayList<>();
+        long stamp = unitLock.readLock();
+        try {
+            store.forEachDependent(dependents::add);
+        } finally {
+            unitLock.unlockRead(stamp);
+        }
+        dependents.forEach(consumer);
+    }
+
+    @Override
+    public int nextId() {
+        return idCounter.get();
+    }
+
+    // The log and snapshots leave versions out, so every loaded task is at 0
+    @Override
+    public long storedVersion() {
+        return 0;
+    }
+
+    @Override
+    public int allocateId() {
+        return idCounter.getAndIncrement();
+    }
+
+    // Mutations only record their changes for commit(), with the index keys computed up
+    // front, so a due date the index cannot hold fails here. Tasks are copied, so the
+    // caller may go on changing its own.
+
+    @Override
+    public void insert(Task task) {
+        unitWriter = Thread.currentThread();
+        // Ids may come from elsewhere (a cluster); never hand out one that is stored
+        idCounter.accumulateAndGet(task.getId() + 1, Math::max);
+        Task stored = new Task(task);
+        TaskKey key = TaskKey.of(stored);
+        uncommitted.put(stored.getId(), stored);
+        unitChanges.add(() -> {
+            store.put(stored);
+            sortedIndex.add(key);
+            textIndex.index(stored);
+        });
+        unitRecords.add(putRecord(stored));
+    }
+
+    @Override
+    public void replace(Task previous, Task replacement) {
+        unitWriter = Thread.currentThread();
+        Task stored = new Task(replacement);
+        TaskKey previousKey = TaskKey.of(previous);
+        TaskKey key = TaskKey.of(stored);
+        boolean textChanged = !Objects.equals(previous.getTitle(), stored.getTitle())
+                || !Objects.equals(previous.getDescription(), stored.getDescription());
+        uncommitted.put(stored.getId(), stored);
+        unitChanges.add(() -> {
+            store.put(stored);
+            sortedIndex.move(previousKey, key);
+            if (textChanged) {
+                textIndex.index(stored);
+            }
+        });
+        unitRecords.add(putRecord(stored));
+    }
+
+    @Override
+    public void delete(Task previous) {
+        unitWriter = Thread.currentThread();
+        int id = previous.getId();
+        TaskKey key = TaskKey.of(previous);
+        uncommitted.put(id, DELETED);
+        unitChanges.add(() -> {
+            if (store.remove(id)) {
+                sortedIndex.remove(key);
+                textIndex.remove(id);
+            }
+        });
+        unitRecords.add(deleteRecord(id));
+    }
+
+    // One log record per unit, so a batch is replayed all or nothing. The record is
+    // accepted and the unit applied under one hold of unitLock, so a snapshot copy
+    // is taken either before both or after both. A unit whose record is refused is
+    // not applied, and is then rolled back.
+    @Override
+    public long commit() {
+        if (unitChanges.isEmpty()) {
+            endUnit();
+            return 0;
+        }
+        Map<String, Object> record;
+        if (unitRecords.size() == 1) {
+            record = unitRecords.get(0);
+        } else {
+            record = new LinkedHashMap<>();
+            record.put("op", "batch");
+            record.put("records", new ArrayList<>(unitRecords));
+        }
+        long ticket;
+        long stamp = unitLock.writeLock();
+        try {
+            ticket = appendRecord(record);
+            for (Runnable change : unitChanges) {
+                change.run();
+            }
+        } finally {
+            unitLock.unlockWrite(stamp);
+        }
+        endUnit();
+        return ticket;
+    }
+
+    // Nothing of the unit has reached the store or the indexes, so it is only forgotten
+    @Override
+    public void rollback() {
+        endUnit();
+    }
+
+    private void endUnit() {
+        uncommitted.clear();
+        unitChanges.clear();
+        unitRecords.clear();
+        unitWriter = null;
+    }
+
+    @Override
+    public void awaitCommit(long ticket) {
+        persistence.awaitCommit(ticket);
+    }
+
+    /**
+     * With the default write-ahead log this forces an fsync; with snapshot
+     * persistence it triggers an immediate flush.
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return persistence.flush();
+    }
+
+    // Flushes pending changes; called on shutdown
+    @Override
+    public void close() throws IOException {
+        persistence.close();
+    }
+
+    private void loadTasks() {
+        try {
+            long startNanos = System.nanoTime();
+            Path snapshot = latestSnapshot();
+            if (snapshot == null) {
+                log.info("📁 No existing tasks file found. Starting with empty task list.");
+            } else if (snapshot.equals(binaryDataFile)) {
+                loadBinarySnapshot(snapshot);
+            } else {
+                loadJsonSnapshot(snapshot);
+            }
+
+            int replayed = persistence.replay(this::applyLogRecord);
+            if (replayed > 0) {
+                log.info("🔁 Replayed " + replayed + " log records. Next ID: " + idCounter.get());
+            }
+
+            List<TaskKey> keys = new ArrayList<>(store.size());
+            for (Task task : store.tasks()) {
+                keys.add(TaskKey.of(task));
+            }
+            sortedIndex.clear();
+            sortedIndex.addAll(keys);
+            textIndex.clear();
+            textIndex.indexAll(store.tasks());
+            loadNanos = System.nanoTime() - startNanos;
+            log.info("✅ Loaded " + store.size() + " tasks in "
+                    + loadNanos / 1_000_000 + " ms. Next ID: " + idCounter.get());
+
+            // Convert once so the next start reads the configured format
+            if (snapshot != null && !snapshot.equals(binarySnapshots ? binaryDataFile : dataFile)
+                    && !(persistence instanceof InMemoryPersistence)) {
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            // Starting with part of the tasks would let the next snapshot or compaction overwrite the rest
+            throw new UncheckedIOException("Unable to load tasks", e);
+        }
+    }
+
+    // Whichever snapshot was written last, so switching formats never loads stale data
+    private Path latestSnapshot() throws IOException {
+        Path preferred = binarySnapshots ? binaryDataFile : dataFile;
+        Path other = binarySnapshots ? dataFile : binaryDataFile;
+        if (!Files.exists(other)) {
+            return Files.exists(preferred) ? preferred : null;
+        }
+        if (!Files.exists(preferred)) {
+            return other;
+        }
+        return Files.getLastModifiedTime(other).compareTo(Files.getLastModifiedTime(preferred)) > 0
+                ? other : preferred;
+    }
+
+    private void loadBinarySnapshot(Path file) throws IOException {
+        BinarySnapshotFormat.Snapshot snapshot = BinarySnapshotFormat.read(file);
+        store.clear();
+        for (Task task : snapshot.getTasks()) {
+            store.put(task);
+        }
+        restoreIdCounter(snapshot.getNextId());
+    }
+
+    // Streams the {"nextId", "tasks"} document; also the import path for older data files
+    private void loadJsonSnapshot(Path file) throws IOException {
+        int nextId = 1;
+        store.clear();
+        try (JsonParser parser = objectMapper.getFactory().createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in " + file);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("nextId".equals(field)) {
+                    nextId = parser.getIntValue();
+                } else if ("tasks".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Task task = objectMapper.readValue(parser, Task.class);
+                        store.put(supported(task));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        restoreIdCounter(nextId);
+    }
+
+    /**
+     * Data written before dates were limited to {@link EpochNanos}' range can
+     * hold a task outside it. Rather than fail to start, such a task is loaded
+     * with its dates moved to the nearest supported one, which the next
+     * snapshot then keeps.
+     */
+    private static Task supported(Task task) {
+        LocalDateTime dueDate = EpochNanos.clamp(task.getDueDate());
+        LocalDateTime createdAt = EpochNanos.clamp(task.getCreatedAt());
+        if (dueDate != task.getDueDate() || createdAt != task.getCreatedAt()) {
+            log.warn("⚠️ Task " + task.getId() + " has a date outside " + EpochNanos.MIN + " to " + EpochNanos.MAX
+                    + " (due " + task.getDueDate() + ", created " + task.getCreatedAt() + "); loading it as due "
+                    + dueDate + ", created " + createdAt);
+            task.setDueDate(dueDate);
+            task.setCreatedAt(createdAt);
+        }
+        return task;
+    }
+
+    // A snapshot written while tasks were being added can trail the highest id
+    private void restoreIdCounter(int nextId) {
+        idCounter.set(Math.max(nextId, store.maxId() + 1));
+    }
+
+    // Log records are full-state upserts and deletes, so replay is idempotent
+    private void applyLogRecord(String line) {
+        try {
+            applyLogRecord(objectMapper.readTree(line));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void applyLogRecord(JsonNode record) throws IOException {
+        String op = record.path("op").asText();
+        if ("batch".equals(op)) {
+            for (JsonNode nested : record.path("records")) {
+                applyLogRecord(nested);
+            }
+        } else if ("put".equals(op)) {
+            Task task = objectMapper.treeToValue(record.get("task"), Task.class);
+            store.put(supported(task));
+            idCounter.set(Math.max(idCounter.get(), Math.max(record.path("nextId").asInt(), task.getId() + 1)));
+        } else if ("delete".equals(op)) {
+            store.remove(record.get("id").asInt());
+        } else {
+            throw new IllegalArgumentException("Unknown log operation: " + op);
+        }
+    }
+
+    private Map<String, Object> putRecord(Task task) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", "put");
+        record.put("nextId", idCounter.get());
+        record.put("task", task);
+        return record;
+    }
+
+    private Map<String, Object> deleteRecord(int id) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", "delete");
+        record.put("id", id);
+        return record;
+    }
+
+    // Serialized only if the persistence engine keeps individual records
+    private long appendRecord(Map<String, Object> record) {
+        return persistence.append(() -> {
+            try {
+                return objectMapper.writeValueAsBytes(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Called from the persistence thread; written to a temp file and renamed
+     * into place. The store is copied between two units of mutations, as the
+     * tasks can change while this runs, so the snapshot holds whole units
+     * only. Writers wait for the copy, not for the write.
+     */
+    private void writeSnapshot() throws IOException {
+        long startNanos = System.nanoTime();
+        Path target = binarySnapshots ? binaryDataFile : dataFile;
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        ColumnarTaskStore copy;
+        int nextId;
+        long stamp = unitLock.readLock();
+        try {
+            copy = store.copy();
+            nextId = idCounter.get();
+        } finally {
+            unitLock.unlockRead(stamp);
+        }
+        int count = copy.size();
+        if (binarySnapshots) {
+            BinarySnapshotFormat.write(target, nextId, tasksInIndexOrder(copy));
+        } else {
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                count = TaskRepository.writeJson(out, objectMapper, true, nextId, copy::forEach);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        snapshotDuration.recordSince(startNanos);
+        snapshotBytes.add(Files.size(target));
+        log.debug("💾 Saved snapshot of " + count + " tasks to storage");
+    }
+
+    // Tasks are built from the copy on each access instead of being held for the whole
+    // write. Stored in this order, the bulk index load on the next start sorts in one pass.
+    private static List<Task> tasksInIndexOrder(ColumnarTaskStore copy) {
+        List<TaskKey> keys = new ArrayList<>(copy.size());
+        for (Task task : copy.tasks()) {
+            keys.add(TaskKey.of(task));
+        }
+        keys.sort(null);
+        return new AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                return copy.get(keys.get(index).getId());
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
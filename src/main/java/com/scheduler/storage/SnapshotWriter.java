@@ -0,0 +1,9 @@
+package com.scheduler.storage;
+
+import java.io.IOException;
+
+// Writes the full current state to the snapshot file, atomically replacing the old one
+@FunctionalInterface
+public interface SnapshotWriter {
+    void writeSnapshot() throws IOException;
+}
@@ -0,0 +1,36 @@
+package com.scheduler.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * How task mutations reach the disk. The owner applies a mutation in memory,
+ * calls {@link #append} while still holding its write lock (so records are
+ * ordered like the mutations), releases the lock and then calls
+ * {@link #awaitCommit} with the returned ticket.
+ */
+public interface TaskPersistence extends Closeable {
+
+    // Feeds records persisted beyond the last snapshot to the handler, oldest first
+    int replay(Consumer<String> handler) throws IOException;
+
+    // Called once after replay, before the first append
+    void start() throws IOException;
+
+    /**
+     * Registers one mutation. The record is only serialized by engines that
+     * store individual records.
+     *
+     * @return a ticket for {@link #awaitCommit}
+     */
+    long append(Supplier<byte[]> record);
+
+    // Blocks for as long as the engine's write acknowledgement requires
+    void awaitCommit(long ticket);
+
+    // Completes once everything appended so far is on disk
+    CompletableFuture<Void> flush();
+}
@@ -0,0 +1,169 @@
+package com.scheduler.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.index.TextIndex;
+import com.scheduler.model.Task;
+
+/**
+ * Where tasks live: the tasks themselves, the indexes behind list order,
+ * search and reminders, and their durability. TaskService keeps validation,
+ * versions and listeners on top of it.
+ *
+ * Writers are serialized by the owner. Each unit of mutations (one change,
+ * or a whole batch) ends with {@link #commit()} under the same hold of the
+ * owner's write lock, and the owner then waits for {@link #awaitCommit}
+ * outside it. A unit that fails before it is committed ends with
+ * {@link #rollback()} instead. Until it is committed, a unit is only seen by
+ * the {@link #get}, {@link #contains} and {@link #isPending} of the thread
+ * writing it. Read methods may be called concurrently with everything, and
+ * every Task they return is a new object the caller may modify.
+ */
+public interface TaskRepository extends Closeable {
+
+    // Called with a task's id and due date (see ColumnarTaskStore#toEpochNanos)
+    @FunctionalInterface
+    interface PendingVisitor {
+        void visit(int id, long dueEpochNanos);
+    }
+
+    // Receives tasks in groups, e.g. to seed dashboard counts without reading every task
+    interface TaskCounter {
+        // count tasks with the given priority (null for none) and completion
+        void tasks(Task.Priority priority, boolean completed, int count);
+
+        // count pending tasks due on the given day (local days since the epoch)
+        void pendingDueOn(long epochDay, int count);
+    }
+
+    Task get(int id);
+
+    boolean contains(int id);
+
+    // Stored and not completed
+    boolean isPending(int id);
+
+    int size();
+
+    /**
+     * Tasks in list order (see {@link TaskKey}), starting after the given key
+     * (from the first task for null) and ending before the first task due at
+     * or after dueBefore (at the last task for null). A non-null completed or
+     * priorities restricts the tasks returned. Tasks are fetched lazily, about
+     * fetchSize at a time, so stopping early costs nothing more.
+     */
+    Iterable<Task> scan(TaskKey after, LocalDateTime dueBefore, Boolean completed, Set<Task.Priority> priorities,
+                        int fetchSize);
+
+    // See TextIndex#search for the query syntax and ranking
+    TextIndex.Hits search(String query, int limit);
+
+    // Visits every task that is not completed and is due in [fromNanos, toNanos), in due date order
+    void forEachPendingDue(long fromNanos, long toNanos, PendingVisitor visitor);
+
+    // Every task, in no particular order
+    void forEach(Consumer<Task> consumer);
+
+    // Counts every task into the counter, in no particular order and groups of any size
+    default void countTasks(TaskCounter counter) {
+        forEach(task -> {
+            counter.tasks(task.getPriority(), task.isCompleted(), 1);
+            if (!task.isCompleted() && task.getDueDate() != null) {
+                counter.pendingDueOn(task.getDueDate().toLocalDate().toEpochDay(), 1);
+            }
+        });
+    }
+
+    // Every task whose dependsOn is not empty, in no particular order
+    void forEachDependent(Consumer<Task> consumer);
+
+    // The id the next allocateId() returns
+    int nextId();
+
+    // Highest version of a stored task when the repository was opened; 0 if versions are not stored
+    long storedVersion();
+
+    int allocateId();
+
+    // Mutations take the tasks as stored before the change, so indexes can find their old entries
+
+    void insert(Task task);
+
+    void replace(Task previous, Task replacement);
+
+    void delete(Task previous);
+
+    /**
+     * Ends the current unit of mutations, which becomes durable as a whole.
+     *
+     * @return a ticket for {@link #awaitCommit}
+     */
+    long commit();
+
+    /**
+     * Discards the current unit of mutations: the tasks and indexes are as
+     * they were before it, and nothing of it becomes durable. Ids it allocated
+     * stay used.
+     */
+    void rollback();
+
+    // Blocks for as long as the repository's write acknowledgement requires
+    void awaitCommit(long ticket);
+
+    // Completes once everything committed so far is on disk
+    CompletableFuture<Void> flush();
+
+    /**
+     * Writes every task as a {"nextId", "tasks"} JSON document, the export and
+     * JSON snapshot format.
+     *
+     * @return the number of tasks written
+     */
+    default int writeJson(OutputStream out, ObjectMapper objectMapper, boolean pretty) throws IOException {
+        return writeJson(out, objectMapper, pretty, nextId(), this::forEach);
+    }
+
+    // The same document for the given next id and tasks, e.g. those of a copy of the store
+    static int writeJson(OutputStream out, ObjectMapper objectMapper, boolean pretty, int nextId,
+                         Consumer<Consumer<Task>> tasks) throws IOException {
+        ObjectWriter taskWriter = objectMapper.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int[] count = new int[1];
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("nextId", nextId);
+            generator.writeArrayFieldStart("tasks");
+            try {
+                tasks.accept(task -> {
+                    try {
+                        taskWriter.writeValue(generator, task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,420 @@
+package com.scheduler.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.scheduler.logging.AsyncLogger;
+import com.scheduler.metrics.Counter;
+import com.scheduler.metrics.LatencyHistogram;
+import com.scheduler.metrics.MetricsRegistry;
+
+/**
+ * Append-only log of task mutations, one record per line.
+ *
+ * Writers hand their record to {@link #append(byte[])} and then wait on
+ * {@link #awaitDurable(long)}. A single writer thread drains everything that
+ * queued up in the meantime, writes it in one call and fsyncs according to the
+ * {@link FsyncPolicy}, so concurrent writers share one disk round trip.
+ *
+ * Once the log grows past the compaction threshold it is rotated to a
+ * ".compacting" segment and the {@link SnapshotWriter} is run in the
+ * background; the segment is deleted once the snapshot is safely on disk.
+ * Records must therefore be idempotent (full-state upserts and deletes) so
+ * that replaying snapshot, compacting segment and live log in that order is
+ * always correct.
+ */
+public class WriteAheadLog implements TaskPersistence {
+    private static final AsyncLogger log = AsyncLogger.get(WriteAheadLog.class);
+    private static final Counter bytesWritten = MetricsRegistry.getDefault().counter(
+            "scheduler_wal_bytes_written_total", "Bytes appended to the write-ahead log");
+    private static final LatencyHistogram writeDuration = MetricsRegistry.getDefault().histogram(
+            "scheduler_wal_write_duration_seconds", "Time to write one group-commit batch");
+    private static final LatencyHistogram fsyncDuration = MetricsRegistry.getDefault().histogram(
+            "scheduler_wal_fsync_duration_seconds", "Time spent in fsync of the write-ahead log");
+
+    private final Path logFile;
+    private final Path compactingFile;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long compactThresholdBytes;
+    private final SnapshotWriter snapshotWriter;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private long appendedSeq;
+    private long writtenSeq;
+    private long syncedSeq;
+    private IOException failure;
+    private boolean closed;
+    private boolean syncRequested;
+    private final List<SyncWaiter> syncWaiters = new ArrayList<>();
+
+    private FileChannel channel;
+    private long lastSyncMillis;
+    private volatile boolean compacting;
+    private Thread writer;
+    private final ExecutorService compactor;
+
+    private static final class SyncWaiter {
+        private final long seq;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        SyncWaiter(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    public WriteAheadLog(Path logFile, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+                         long compactThresholdBytes, SnapshotWriter snapshotWriter) {
+        this.logFile = logFile;
+        this.compactingFile = compactingSegment(logFile);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.snapshotWriter = snapshotWriter;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "wal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Feeds every record of the compacting segment and then the live log to the
+     * handler, oldest first. A torn record at the end of a file (crash during
+     * append) ends the replay of that file; any other unreadable record fails
+     * it, as the records after it would be lost.
+     */
+    @Override
+    public int replay(Consumer<String> handler) throws IOException {
+        return replay(logFile, handler);
+    }
+
+    // Replays a log and its compacting segment without opening it for appends
+    public static int replay(Path logFile, Consumer<String> handler) throws IOException {
+        return replayFile(compactingSegment(logFile), handler) + replayFile(logFile, handler);
+    }
+
+    static Path compactingSegment(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + ".compacting");
+    }
+
+    private static int replayFile(Path file, Consumer<String> handler) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    handler.accept(line);
+                    count++;
+                } catch (RuntimeException e) {
+                    if (!isTornTail(reader, file)) {
+                        throw new IOException("Unreadable log record after " + count + " records in " + file
+                                + ": " + e.getMessage(), e);
+                    }
+                    log.warn("⚠️ Skipping torn log record at the end of " + file + ": " + e.getMessage());
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Whether the line just read is the last one and lacks its newline, i.e. was cut short while appended
+    private static boolean isTornTail(BufferedReader reader, Path file) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return false;
+            }
+        }
+        try (FileChannel tail = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            tail.read(last, tail.size() - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    // Opens the log for appending and starts the writer thread
+    @Override
+    public void start() throws IOException {
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        truncateTornTail();
+        channel.position(channel.size());
+        lastSyncMillis = System.currentTimeMillis();
+
+        writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        // A previous compaction did not finish; fold it into a fresh snapshot
+        if (Files.exists(compactingFile)) {
+            scheduleCompaction();
+        }
+    }
+
+    @Override
+    public long append(Supplier<byte[]> record) {
+        return append(record.get());
+    }
+
+    public long append(byte[] record) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            // The writer thread has stopped, so nothing appended now would ever be written
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log " + logFile + " has failed", failure);
+            }
+            pending.add(record);
+            appendedSeq++;
+            lock.notifyAll();
+            return appendedSeq;
+        }
+    }
+
+    @Override
+    public void awaitCommit(long seq) {
+        awaitDurable(seq);
+    }
+
+    /**
+     * Blocks until the record with the given sequence number has been written,
+     * and with {@link FsyncPolicy#ALWAYS} also forced to disk.
+     */
+    public void awaitDurable(long seq) {
+        synchronized (lock) {
+            while (failure == null && (fsyncPolicy == FsyncPolicy.ALWAYS ? syncedSeq : writtenSeq) < seq) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+    }
+
+    // Forces an fsync of everything appended so far, whatever the policy
+    @Override
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if (syncedSeq >= appendedSeq) {
+                return CompletableFuture.completedFuture(null);
+            }
+            SyncWaiter waiter = new SyncWaiter(appendedSeq);
+            syncWaiters.add(waiter);
+            syncRequested = true;
+            lock.notifyAll();
+            return waiter.future;
+        }
+    }
+
+    private void writeLoop() {
+        ByteBuffer newline = ByteBuffer.wrap(new byte[] { '\n' });
+        while (true) {
+            byte[][] batch;
+            long batchEnd;
+            boolean forceSync;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed && !syncRequested) {
+                    long waitMillis = 0;
+                    if (fsyncPolicy == FsyncPolicy.INTERVAL && syncedSeq < writtenSeq) {
+                        waitMillis = lastSyncMillis + fsyncIntervalMillis - System.currentTimeMillis();
+                        if (waitMillis <= 0) {
+                            break;
+                        }
+                    }
+                    try {
+                        lock.wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty() && closed) {
+                    return;
+                }
+                batch = pending.toArray(new byte[0][]);
+                pending.clear();
+                batchEnd = appendedSeq;
+                forceSync = syncRequested;
+                syncRequested = false;
+            }
+
+            try {
+                if (batch.length > 0) {
+                    ByteBuffer[] buffers = new ByteBuffer[batch.length * 2];
+                    for (int i = 0; i < batch.length; i++) {
+                        buffers[i * 2] = ByteBuffer.wrap(batch[i]);
+                        buffers[i * 2 + 1] = newline.duplicate();
+                    }
+                    long remaining = 0;
+                    for (ByteBuffer buffer : buffers) {
+                        remaining += buffer.remaining();
+                    }
+                    bytesWritten.add(remaining);
+                    long writeStart = System.nanoTime();
+                    while (remaining > 0) {
+                        remaining -= channel.write(buffers);
+                    }
+                    writeDuration.recordSince(writeStart);
+                }
+
+                long now = System.currentTimeMillis();
+                boolean sync = forceSync || fsyncPolicy == FsyncPolicy.ALWAYS
+                        || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastSyncMillis >= fsyncIntervalMillis);
+                if (sync) {
+                    long syncStart = System.nanoTime();
+                    channel.force(false);
+                    fsyncDuration.recordSince(syncStart);
+                    lastSyncMillis = now;
+                }
+
+                List<SyncWaiter> synced = new ArrayList<>();
+                synchronized (lock) {
+                    writtenSeq = batchEnd;
+                    if (sync) {
+                        syncedSeq = batchEnd;
+                        for (Iterator<SyncWaiter> it = syncWaiters.iterator(); it.hasNext();) {
+                            SyncWaiter waiter = it.next();
+                            if (waiter.seq <= syncedSeq) {
+                                synced.add(waiter);
+                                it.remove();
+                            }
+                        }
+                    }
+                    lock.notifyAll();
+                }
+                synced.forEach(waiter -> waiter.future.complete(null));
+
+                if (!compacting && channel.size() >= compactThresholdBytes) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                log.error("❌ Error writing to log " + logFile + ": " + e.getMessage(), e);
+                synchronized (lock) {
+                    failure = e;
+                    syncWaiters.forEach(waiter -> waiter.future.completeExceptionally(e));
+                    syncWaiters.clear();
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // Runs on the writer thread, so no append can land in the segment being moved
+    private void rotate() throws IOException {
+        if (!Files.exists(compactingFile)) {
+            channel.force(false);
+            channel.close();
+            Files.move(logFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        scheduleCompaction();
+    }
+
+    private void scheduleCompaction() {
+        compacting = true;
+        compactor.execute(() -> {
+            try {
+                snapshotWriter.writeSnapshot();
+                Files.deleteIfExists(compactingFile);
+                log.info("🗜️ Compacted write-ahead log into snapshot");
+            } catch (Exception e) {
+                log.error("❌ Error compacting log: " + e.getMessage(), e);
+            } finally {
+                compacting = false;
+            }
+        });
+    }
+
+    private void truncateTornTail() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - chunk.capacity());
+            chunk.clear().limit((int) (end - start));
+            channel.read(chunk, start);
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    long keep = start + i + 1;
+                    if (keep < size) {
+                        log.warn("⚠️ Truncating torn record at end of " + logFile);
+                        channel.truncate(keep);
+                    }
+                    return;
+                }
+            }
+            end = start;
+        }
+        channel.truncate(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            if (writer != null) {
+                writer.join();
+            }
+            compactor.shutdown();
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+        synchronized (lock) {
+            syncWaiters.forEach(waiter -> waiter.future.complete(null));
+            syncWaiters.clear();
+        }
+    }
+}
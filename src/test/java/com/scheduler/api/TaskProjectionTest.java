@@ -0,0 +1,62 @@
+package com.scheduler.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+class TaskProjectionTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void allFieldsMatchJackson() throws IOException {
+        Task plain = new Task(3, "Plain", null, LocalDateTime.of(2030, 1, 2, 3, 4), null, false, null, 0);
+        Task full = new Task(4, "Full \"quoted\"", "Line\nbreak", LocalDateTime.of(2030, 1, 2, 3, 4, 5, 60_000_000),
+                Task.Priority.HIGH, true, LocalDateTime.of(1999, 12, 31, 23, 59, 59, 1), 42);
+        full.setRecurrence(Recurrence.parse("FREQ=MONTHLY;COUNT=3"));
+        full.setOccurrence(2);
+        full.setDependsOn(List.of(3, 1));
+        full.setDurationMinutes(90);
+
+        for (Task task : List.of(plain, full)) {
+            // Jackson's property order follows reflection, so only names and values are compared
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(task)),
+                    objectMapper.readTree(write(TaskProjection.all(), task)));
+        }
+    }
+
+    @Test
+    void requestedFieldsAreWrittenInRequestOrderOnce() throws IOException {
+        Task task = new Task(7, "Title", "", LocalDateTime.of(2030, 5, 6, 7, 8), Task.Priority.LOW, false, null, 1);
+
+        assertEquals("{\"dueDate\":\"2030-05-06T07:08:00\",\"id\":7}",
+                write(TaskProjection.parse(" dueDate, id,dueDate,"), task));
+        // A field the task lacks is left out, as Jackson leaves it out
+        assertEquals("{\"id\":7}", write(TaskProjection.parse("id,recurrence,dependsOn"), task));
+    }
+
+    @Test
+    void unknownOrMissingFieldsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TaskProjection.parse("id,owner"));
+        assertThrows(IllegalArgumentException.class, () -> TaskProjection.parse(" , "));
+    }
+
+    private String write(TaskProjection projection, Task task) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            projection.write(generator, task);
+        }
+        return out.toString();
+    }
+}
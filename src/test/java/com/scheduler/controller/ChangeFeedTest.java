@@ -0,0 +1,101 @@
+package com.scheduler.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.model.Task;
+
+class ChangeFeedTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    // Stands in for the service version, which starts from the highest stored one
+    private final AtomicLong version = new AtomicLong(10);
+
+    @Test
+    void readerWithinTheBufferGetsEveryChangeOnce() throws IOException {
+        ChangeFeed feed = new ChangeFeed(objectMapper, 4, version::get);
+        for (int id = 1; id <= 6; id++) {
+            save(feed, id);
+        }
+        assertEquals(16, feed.currentVersion());
+
+        assertEquals(List.of(13L, 14L, 15L, 16L), versions(feed.changesSince(12, 10)));
+        assertEquals(List.of(13L, 14L), versions(feed.changesSince(12, 2)));
+        assertTrue(feed.changesSince(16, 10).isEmpty());
+
+        version.incrementAndGet();
+        feed.taskDeleted(3);
+        List<ChangeFeed.Change> changes = feed.changesSince(16, 10);
+        assertEquals(1, changes.size());
+        assertEquals(ChangeFeed.DELETE, changes.get(0).getType());
+        JsonNode json = objectMapper.readTree(changes.get(0).getJson());
+        assertEquals(17, json.get("version").asLong());
+        assertEquals(3, json.get("id").asInt());
+        assertFalse(json.has("task"));
+    }
+
+    @Test
+    void readerBehindTheBufferOrFromAnotherProcessMustReload() {
+        ChangeFeed feed = new ChangeFeed(objectMapper, 4, version::get);
+        save(feed, 1);
+        // Before the feed was attached
+        assertNull(feed.changesSince(9, 10));
+        assertEquals(List.of(11L), versions(feed.changesSince(10, 10)));
+        // Ahead of the feed, as after a restart that stored fewer changes
+        assertNull(feed.changesSince(12, 10));
+
+        for (int id = 2; id <= 6; id++) {
+            save(feed, id);
+        }
+        // Version 12 was overwritten by 16; a reader at 12 has seen it and still misses nothing
+        assertNull(feed.changesSince(11, 10));
+        assertEquals(List.of(13L, 14L, 15L, 16L), versions(feed.changesSince(12, 10)));
+    }
+
+    @Test
+    void waitingReaderWakesUpForTheNextChange() throws Exception {
+        ChangeFeed feed = new ChangeFeed(objectMapper, 4, version::get);
+        assertTrue(feed.awaitChangesSince(10, 10, 1).isEmpty());
+
+        CompletableFuture<List<ChangeFeed.Change>> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.awaitChangesSince(10, 10, 10_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        save(feed, 1);
+        List<ChangeFeed.Change> changes = waiting.get();
+        assertEquals(List.of(11L), versions(changes));
+        assertEquals(ChangeFeed.UPSERT, changes.get(0).getType());
+        assertEquals(1, changes.get(0).getTaskId());
+    }
+
+    private void save(ChangeFeed feed, int id) {
+        version.incrementAndGet();
+        feed.taskSaved(new Task(id, "Task " + id, "", LocalDateTime.of(2030, 1, id, 9, 0), null, false, null,
+                version.get()));
+    }
+
+    private static List<Long> versions(List<ChangeFeed.Change> changes) {
+        List<Long> versions = new ArrayList<>();
+        for (ChangeFeed.Change change : changes) {
+            versions.add(change.getVersion());
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,273 @@
+package com.scheduler.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.scheduler.index.SortedTaskIndex.TaskKey;
+import com.scheduler.model.BatchOperation;
+import com.scheduler.model.BatchResult;
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+class TaskServiceTest {
+    private static final LocalDateTime DUE = LocalDateTime.of(2030, 6, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void versionsAfterAnH2RestartNeverRepeatAStoredOne() {
+        System.setProperty("scheduler.storage", "h2");
+        try {
+            TaskService service = new TaskService(dir);
+            Task task = new Task("Report", "", DUE, Task.Priority.HIGH);
+            service.addTask(task);
+            service.updateTask(task.getId(), new Task("Report v2", "", DUE, Task.Priority.HIGH));
+            long readBeforeRestart = service.updateTask(task.getId(), new Task("Report v3", "", DUE, null))
+                    .getVersion();
+            service.close();
+
+            service = new TaskService(dir);
+            assertEquals(readBeforeRestart, service.getTaskById(task.getId()).getVersion());
+            // Other changes move the counter to where it stood before the restart
+            Task other = new Task("Other", "", DUE, null);
+            service.addTask(other);
+            while (service.getVersion() < readBeforeRestart - 1) {
+                service.toggleTaskCompletion(other.getId(), true);
+            }
+            Task changed = service.updateTask(task.getId(), new Task("Report v4", "", DUE, null));
+            assertTrue(changed.getVersion() > readBeforeRestart);
+
+            TaskService restarted = service;
+            assertThrows(VersionConflictException.class, () -> restarted.updateTask(task.getId(),
+                    new Task("Stale", "", DUE, null), readBeforeRestart));
+            assertEquals("Report v4", service.getTaskById(task.getId()).getTitle());
+            service.close();
+        } finally {
+            System.clearProperty("scheduler.storage");
+        }
+    }
+
+    @Test
+    void rejectedBatchAppliesNothingAndBlamesOnlyTheInvalidOperations() {
+        TaskService service = new TaskService(dir);
+        Task existing = new Task("Existing", "", DUE, null);
+        service.addTask(existing);
+        long version = service.getVersion();
+
+        List<BatchResult> results = service.applyBatch(List.of(
+                new BatchOperation(BatchOperation.Type.CREATE, null, new Task("New", "", DUE, null), null),
+                new BatchOperation(BatchOperation.Type.DELETE, existing.getId(), null, null),
+                // Deleted by the operation before it
+                new BatchOperation(BatchOperation.Type.COMPLETE, existing.getId(), null, true),
+                new BatchOperation(BatchOperation.Type.UPDATE, 999, new Task("Missing", "", DUE, null), null),
+                new BatchOperation(BatchOperation.Type.CREATE, null, new Task(), null)));
+
+        assertEquals(List.of(424, 424, 404, 404, 400), statuses(results));
+        assertEquals(version, service.getVersion());
+        assertEquals(List.of("Existing"), titles(service.getAllTasks()));
+        service.close();
+    }
+
+    @Test
+    void acceptedBatchIsAppliedAndStoredAsAWhole() {
+        TaskService service = new TaskService(dir);
+        Task existing = new Task("Existing", "", DUE, null);
+        service.addTask(existing);
+        long version = service.getVersion();
+
+        List<BatchResult> results = service.applyBatch(List.of(
+                new BatchOperation(BatchOperation.Type.CREATE, null, new Task("New", "", DUE.plusDays(1), null), null),
+                new BatchOperation(BatchOperation.Type.UPDATE, existing.getId(),
+                        new Task("Renamed", "", DUE, Task.Priority.LOW), null),
+                new BatchOperation(BatchOperation.Type.COMPLETE, existing.getId(), null, true)));
+
+        assertEquals(List.of(201, 200, 200), statuses(results));
+        assertEquals(version + 3, service.getVersion());
+        service.close();
+
+        service = new TaskService(dir);
+        assertEquals(List.of("Renamed", "New"), titles(service.getAllTasks()));
+        assertTrue(service.getTaskById(existing.getId()).isCompleted());
+        service.close();
+    }
+
+    @Test
+    void unitFailingHalfwayIsRolledBack() {
+        TaskService service = new TaskService(dir);
+        Task existing = new Task("Existing", "", DUE, null);
+        service.addTask(existing);
+        long version = service.getVersion();
+
+        Task replacement = new Task("Replaced", "", DUE, null);
+        replacement.setId(existing.getId());
+        Task unstorable = new Task("Too late", "", LocalDateTime.of(2300, 1, 1, 0, 0), null);
+        unstorable.setId(50);
+        assertThrows(IllegalArgumentException.class, () -> service.adoptTasks(List.of(replacement, unstorable)));
+
+        assertEquals(version, service.getVersion());
+        assertEquals("Existing", service.getTaskById(existing.getId()).getTitle());
+        assertNull(service.getTaskById(50));
+        // The next unit publishes only its own change
+        Task next = new Task("Next", "", DUE.plusDays(1), null);
+        service.addTask(next);
+        assertEquals(version + 1, service.getVersion());
+        assertEquals(List.of("Existing", "Next"), titles(service.getAllTasks()));
+        service.close();
+    }
+
+    @Test
+    void completingAnOccurrenceMovesTheSeriesOnUntilItEnds() {
+        TaskService service = new TaskService(dir);
+        Task series = new Task("Water plants", "", DUE, null);
+        series.setRecurrence(Recurrence.parse("FREQ=WEEKLY;COUNT=2"));
+        service.addTask(series);
+
+        Task second = service.toggleTaskCompletion(series.getId(), true);
+        assertEquals(DUE.plusWeeks(1), second.getDueDate());
+        assertEquals(2, second.getOccurrence());
+        assertFalse(second.isCompleted());
+
+        Task last = service.toggleTaskCompletion(series.getId(), true);
+        assertEquals(DUE.plusWeeks(1), last.getDueDate());
+        assertTrue(last.isCompleted());
+        service.close();
+    }
+
+    @Test
+    void onlyTheFirstOfTwoWritesFromTheSameVersionApplies() {
+        TaskService service = new TaskService(dir);
+        Task task = new Task("Draft", "", DUE, null);
+        service.addTask(task);
+        long read = task.getVersion();
+
+        Task stored = service.updateTask(task.getId(), new Task("Mine", "", DUE, null), read);
+        assertTrue(stored.getVersion() > read);
+        VersionConflictException conflict = assertThrows(VersionConflictException.class,
+                () -> service.updateTask(task.getId(), new Task("Theirs", "", DUE, null), read));
+        assertEquals(stored.getVersion(), conflict.getCurrentVersion());
+        assertThrows(VersionConflictException.class, () -> service.toggleTaskCompletion(task.getId(), true, read));
+        assertThrows(VersionConflictException.class, () -> service.deleteTask(task.getId(), read));
+
+        Task current = service.getTaskById(task.getId());
+        assertEquals("Mine", current.getTitle());
+        assertFalse(current.isCompleted());
+        assertTrue(service.deleteTask(task.getId(), current.getVersion()));
+        assertNull(service.getTaskById(task.getId()));
+        service.close();
+    }
+
+    @Test
+    void writeWithoutAnExpectedVersionAlwaysApplies() {
+        TaskService service = new TaskService(dir);
+        Task task = new Task("Draft", "", DUE, null);
+        service.addTask(task);
+        service.updateTask(task.getId(), new Task("First", "", DUE, null));
+
+        Task stored = service.updateTask(task.getId(), new Task("Second", "", DUE, null), TaskService.ANY_VERSION);
+        assertEquals("Second", stored.getTitle());
+        assertEquals(stored.getVersion(), service.getTaskById(task.getId()).getVersion());
+        service.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "h2"})
+    void keysetPagesVisitEveryTaskOnceInListOrder(String storage) {
+        System.setProperty("scheduler.storage", storage);
+        try {
+            TaskService service = new TaskService(dir);
+            // Ties on the due date are broken by priority and then id; no due date sorts last
+            for (Task.Priority priority : Arrays.asList(Task.Priority.LOW, Task.Priority.HIGH, null)) {
+                Task tied = new Task("Tied " + priority, "", DUE, null);
+                tied.setPriority(priority);
+                service.addTask(tied);
+            }
+            service.addTask(new Task("Earlier", "", DUE.minusDays(1), Task.Priority.MEDIUM));
+            Task undated = new Task();
+            undated.setTitle("Undated");
+            service.addTask(undated);
+            Task done = new Task("Done", "", DUE, Task.Priority.HIGH);
+            service.addTask(done);
+            service.toggleTaskCompletion(done.getId(), true);
+
+            List<Task> all = service.getAllTasks();
+            for (int i = 1; i < all.size(); i++) {
+                assertTrue(TaskKey.of(all.get(i - 1)).compareTo(TaskKey.of(all.get(i))) < 0);
+            }
+            assertEquals("Undated", all.get(all.size() - 1).getTitle());
+            assertEquals(ids(all), ids(pages(service, new TaskQuery(), 3)));
+
+            TaskQuery high = new TaskQuery();
+            high.setPriorities(Set.of(Task.Priority.HIGH));
+            high.setCompleted(false);
+            List<Task> pendingHigh = pages(service, high, 1);
+            assertEquals(List.of("Tied HIGH"), titles(pendingHigh));
+
+            // The cursor is a position, not a task: deleting the last task of a page loses nothing
+            TaskQuery first = new TaskQuery();
+            first.setLimit(2);
+            TaskPage page = service.queryTasks(first);
+            service.deleteTask(page.getTasks().get(1).getId());
+            TaskQuery rest = new TaskQuery();
+            rest.setCursor(TaskKey.fromCursor(page.getNextCursor()));
+            assertEquals(ids(all.subList(2, all.size())), ids(service.queryTasks(rest).getTasks()));
+            service.close();
+        } finally {
+            System.clearProperty("scheduler.storage");
+        }
+    }
+
+    // Follows the cursors to the last page
+    private static List<Task> pages(TaskService service, TaskQuery query, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        query.setLimit(limit);
+        while (true) {
+            TaskPage page = service.queryTasks(query);
+            assertTrue(page.getTasks().size() <= limit);
+            tasks.addAll(page.getTasks());
+            if (page.getNextCursor() == null) {
+                return tasks;
+            }
+            query.setCursor(TaskKey.fromCursor(page.getNextCursor()));
+        }
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    private static List<Integer> statuses(List<BatchResult> results) {
+        List<Integer> statuses = new ArrayList<>();
+        for (BatchResult result : results) {
+            statuses.add(result.getStatus());
+        }
+        return statuses;
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task task : tasks) {
+            titles.add(task.getTitle());
+        }
+        return titles;
+    }
+}
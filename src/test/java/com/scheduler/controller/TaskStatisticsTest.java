@@ -0,0 +1,254 @@
+package com.scheduler.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Task;
+import com.scheduler.storage.H2TaskRepository;
+import com.scheduler.storage.InMemoryTaskRepository;
+import com.scheduler.storage.TaskRepository;
+
+class TaskStatisticsTest {
+    private static final Task.Priority[] PRIORITIES = {Task.Priority.LOW, Task.Priority.MEDIUM, Task.Priority.HIGH, null};
+
+    private final Map<Integer, Task> tasks = new TreeMap<>();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void dueAtExactlyNowIsNotOverdueYet() {
+        LocalDateTime due = LocalDateTime.of(2030, 1, 9, 10, 0);
+        TaskStatistics statistics = new TaskStatistics(due.minusHours(1), this::forEachPendingDue);
+        put(statistics, new Task(1, "Now", "", due, null, false, null, 1));
+        put(statistics, new Task(2, "Tomorrow", "", due.plusDays(1), null, false, null, 2));
+
+        assertEquals(0, statistics.overdue(due));
+        assertEquals(1, statistics.dueSoon(due));
+        assertEquals(1, statistics.overdue(due.plusNanos(1)));
+        // A day ahead, so due soon once the clock is past its minute
+        assertEquals(1, statistics.dueSoon(due.plusNanos(1)));
+    }
+
+    @Test
+    void burndownCountsOverdueTasksInTheirOwnPeriodOnly() {
+        // A Wednesday
+        LocalDateTime now = LocalDateTime.of(2030, 1, 9, 12, 0, 0, 500_000_000);
+        TaskStatistics statistics = new TaskStatistics(now, this::forEachPendingDue);
+        put(statistics, new Task(1, "Last week", "", LocalDateTime.of(2030, 1, 6, 9, 0), null, false, null, 1));
+        put(statistics, new Task(2, "Monday", "", LocalDateTime.of(2030, 1, 7, 10, 0), null, false, null, 2));
+        put(statistics, new Task(3, "This morning", "", LocalDateTime.of(2030, 1, 9, 9, 0), null, false, null, 3));
+        put(statistics, new Task(4, "Tonight", "", LocalDateTime.of(2030, 1, 9, 18, 0), null, false, null, 4));
+        put(statistics, new Task(5, "Tomorrow", "", LocalDateTime.of(2030, 1, 10, 8, 0), null, false, null, 5));
+        put(statistics, new Task(6, "Next week", "", LocalDateTime.of(2030, 1, 15, 8, 0), null, false, null, 6));
+        put(statistics, new Task(7, "Undated", "", null, null, false, null, 7));
+        put(statistics, new Task(8, "Done", "", LocalDateTime.of(2030, 1, 10, 8, 0), null, true, null, 8));
+
+        TaskStatistics.Summary summary = statistics.summary(now);
+        assertEquals(8, summary.getTotal());
+        assertEquals(7, summary.getPending());
+        assertEquals(3, summary.getOverdue());
+        assertEquals(2, summary.getDueSoon());
+
+        List<TaskStatistics.BurndownPoint> days = statistics.burndown(now, TaskStatistics.Period.DAY, 3);
+        assertEquals(List.of(LocalDate.of(2030, 1, 9), LocalDate.of(2030, 1, 10), LocalDate.of(2030, 1, 11)),
+                starts(days));
+        assertEquals(List.of(2, 1, 0), dues(days));
+        assertEquals(List.of(3, 2, 2), remainings(days));
+
+        List<TaskStatistics.BurndownPoint> weeks = statistics.burndown(now, TaskStatistics.Period.WEEK, 2);
+        assertEquals(List.of(LocalDate.of(2030, 1, 7), LocalDate.of(2030, 1, 14)), starts(weeks));
+        assertEquals(List.of(4, 1), dues(weeks));
+        assertEquals(List.of(2, 1), remainings(weeks));
+    }
+
+    @Test
+    void countsFollowEveryChangeAndTheClock() {
+        Random random = new Random(42);
+        // Starts just before the epoch, so minutes and days on both sides of it are crossed
+        LocalDateTime now = LocalDateTime.of(1969, 12, 30, 22, 13, 7, 500_000_000);
+        TaskStatistics statistics = new TaskStatistics(now, this::forEachPendingDue);
+        int nextId = 1;
+
+        for (int step = 0; step < 2000; step++) {
+            int action = random.nextInt(10);
+            if (action < 4 || tasks.isEmpty()) {
+                put(statistics, randomTask(random, nextId++, now));
+            } else if (action < 6) {
+                Task previous = pick(random);
+                Task changed = new Task(previous);
+                int field = random.nextInt(3);
+                if (field == 0) {
+                    changed.setDueDate(randomTask(random, 0, now).getDueDate());
+                } else if (field == 1) {
+                    changed.setCompleted(!changed.isCompleted());
+                } else {
+                    changed.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+                }
+                put(statistics, changed);
+            } else if (action < 7) {
+                statistics.update(tasks.remove(pick(random).getId()), null);
+            } else if (random.nextInt(10) == 0) {
+                // More than the due-soon horizon in one step
+                now = now.plusDays(1 + random.nextInt(3)).plusSeconds(random.nextInt(3600));
+            } else {
+                now = now.plusSeconds(random.nextInt(3 * 3600));
+            }
+            assertMatches(statistics, now);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"memory", "h2"})
+    void countsSeededFromTheRepositoryMatchTheTasks(String storage) throws IOException {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.of(1970, 1, 1, 0, 0, 30, 500_000_000);
+        try (TaskRepository repository = storage.equals("h2") ? new H2TaskRepository(dir)
+                : new InMemoryTaskRepository(dir, new ObjectMapper().registerModule(new JavaTimeModule())
+                        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false))) {
+            for (int i = 0; i < 300; i++) {
+                Task task = randomTask(random, repository.allocateId(), now);
+                repository.insert(task);
+                tasks.put(task.getId(), task);
+            }
+            repository.commit();
+
+            TaskStatistics statistics = new TaskStatistics(now, repository);
+            assertMatches(statistics, now);
+            for (int i = 0; i < 50; i++) {
+                now = now.plusSeconds(random.nextInt(6 * 3600));
+                assertMatches(statistics, now);
+            }
+        }
+    }
+
+    // Due on a whole minute from two days before now to four days after, often close to the frontier or
+    // the horizon, or not at all
+    private static Task randomTask(Random random, int id, LocalDateTime now) {
+        LocalDateTime minute = now.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime due;
+        switch (random.nextInt(6)) {
+            case 0:
+                due = null;
+                break;
+            case 1:
+                due = minute.plusMinutes(random.nextInt(5) - 2);
+                break;
+            case 2:
+                due = minute.plusDays(1).plusMinutes(random.nextInt(5) - 2);
+                break;
+            default:
+                due = minute.plusMinutes(random.nextInt(6 * 24 * 60) - 2 * 24 * 60);
+        }
+        return new Task(id, "Task " + id, "", due, PRIORITIES[random.nextInt(PRIORITIES.length)],
+                random.nextInt(5) == 0, null, id);
+    }
+
+    private Task pick(Random random) {
+        List<Task> all = new ArrayList<>(tasks.values());
+        return all.get(random.nextInt(all.size()));
+    }
+
+    private void put(TaskStatistics statistics, Task task) {
+        statistics.update(tasks.put(task.getId(), task), task);
+    }
+
+    private void forEachPendingDue(long fromNanos, long toNanos, TaskRepository.PendingVisitor visitor) {
+        for (Task task : tasks.values()) {
+            if (!task.isCompleted() && task.getDueDate() != null) {
+                long due = EpochNanos.of(task.getDueDate());
+                if (due >= fromNanos && due < toNanos) {
+                    visitor.visit(task.getId(), due);
+                }
+            }
+        }
+    }
+
+    // Compares the counts with ones worked out task by task; now is never on a whole minute
+    private void assertMatches(TaskStatistics statistics, LocalDateTime now) {
+        Collection<Task> all = tasks.values();
+        TaskStatistics.Summary summary = statistics.summary(now);
+        assertEquals(all.size(), summary.getTotal());
+        assertEquals(all.stream().filter(Task::isCompleted).count(), summary.getCompleted());
+        assertEquals(all.stream().filter(task -> task.isOverdue(now)).count(), summary.getOverdue(), now::toString);
+        assertEquals(all.stream().filter(task -> task.isDueSoon(now)).count(), summary.getDueSoon(), now::toString);
+        for (Task.Priority priority : Task.Priority.values()) {
+            assertEquals(all.stream().filter(task -> task.getPriority() == priority && !task.isCompleted()).count(),
+                    summary.getByPriority().get(priority).getPending());
+        }
+
+        LocalDate today = now.toLocalDate();
+        assertBurndown(statistics.burndown(now, TaskStatistics.Period.DAY, 4), today, 1);
+        assertBurndown(statistics.burndown(now, TaskStatistics.Period.WEEK, 2),
+                today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), 7);
+    }
+
+    private void assertBurndown(List<TaskStatistics.BurndownPoint> points, LocalDate start, int days) {
+        for (TaskStatistics.BurndownPoint point : points) {
+            assertEquals(start, point.getStart());
+            LocalDate end = start.plusDays(days);
+            int due = 0;
+            int remaining = 0;
+            for (Task task : tasks.values()) {
+                if (task.isCompleted()) {
+                    continue;
+                }
+                LocalDate day = task.getDueDate() != null ? task.getDueDate().toLocalDate() : null;
+                if (day != null && !day.isBefore(start) && day.isBefore(end)) {
+                    due++;
+                } else if (day == null || !day.isBefore(end)) {
+                    remaining++;
+                }
+            }
+            assertEquals(due, point.getDue(), start::toString);
+            assertEquals(remaining, point.getRemaining(), start::toString);
+            start = end;
+        }
+    }
+
+    private static List<LocalDate> starts(List<TaskStatistics.BurndownPoint> points) {
+        List<LocalDate> starts = new ArrayList<>();
+        for (TaskStatistics.BurndownPoint point : points) {
+            starts.add(point.getStart());
+        }
+        return starts;
+    }
+
+    private static List<Integer> dues(List<TaskStatistics.BurndownPoint> points) {
+        List<Integer> dues = new ArrayList<>();
+        for (TaskStatistics.BurndownPoint point : points) {
+            dues.add(point.getDue());
+        }
+        return dues;
+    }
+
+    private static List<Integer> remainings(List<TaskStatistics.BurndownPoint> points) {
+        List<Integer> remainings = new ArrayList<>();
+        for (TaskStatistics.BurndownPoint point : points) {
+            remainings.add(point.getRemaining());
+        }
+        return remainings;
+    }
+}
@@ -0,0 +1,115 @@
+package com.scheduler.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.scheduler.model.Task;
+
+class DependencyGraphTest {
+    private static final LocalDateTime DUE = LocalDateTime.of(2030, 1, 10, 17, 0);
+
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private DependencyGraph graph;
+
+    // 1 (60 min) and 2 (30 min) come before 3 (10 min), which comes before 4 (5 min, due DUE); 5 stands alone
+    @BeforeEach
+    void setUp() {
+        add(task(1, 60));
+        add(task(2, 30));
+        add(task(3, 10, 1, 2));
+        Task last = task(4, 5, 3);
+        last.setDueDate(DUE);
+        add(last);
+        add(task(5, 15));
+        graph = new DependencyGraph(tasks::get);
+        graph.load(consumer -> tasks.values().stream()
+                .filter(task -> !task.getDependsOn().isEmpty())
+                .forEach(consumer));
+    }
+
+    @Test
+    void detectsDirectAndTransitiveCycles() {
+        assertTrue(graph.createsCycle(1, List.of(1), Map.of()));
+        assertTrue(graph.createsCycle(1, List.of(3), Map.of()));
+        assertTrue(graph.createsCycle(1, List.of(4), Map.of()));
+        assertTrue(graph.createsCycle(2, List.of(5, 4), Map.of()));
+        assertFalse(graph.createsCycle(4, List.of(1), Map.of()));
+        assertFalse(graph.createsCycle(1, List.of(2, 5), Map.of()));
+    }
+
+    @Test
+    void pendingDependenciesTakePrecedenceOverTheGraph() {
+        // Earlier in the same batch, 5 was made to depend on 4, and 3 to depend on 2 only
+        Map<Integer, List<Integer>> pending = Map.of(5, List.of(4), 3, List.of(2));
+        assertTrue(graph.createsCycle(2, List.of(5), pending));
+        assertFalse(graph.createsCycle(1, List.of(5), pending));
+    }
+
+    @Test
+    void ordersTheChainTopologicallyAndFollowsTheLongestWork() {
+        DependencyGraph.Status status = graph.status(4);
+
+        assertArrayEquals(new int[] { 3 }, status.getBlockedBy());
+        assertArrayEquals(new int[] { 1, 2, 3 }, status.getChain());
+        assertArrayEquals(new int[] { 1, 3, 4 }, status.getCriticalPath());
+        assertEquals(minutes(60 + 10 + 5), status.getWorkMillis());
+        assertEquals(millis(DUE), status.getLatestFinishMillis());
+        assertEquals(millis(DUE) - minutes(75), status.getAtRiskMillis());
+        assertFalse(status.isReady());
+    }
+
+    @Test
+    void propagatesTheLatestFinishBackwards() {
+        assertEquals(millis(DUE) - minutes(5), graph.status(3).getLatestFinishMillis());
+        assertEquals(millis(DUE) - minutes(15), graph.status(1).getLatestFinishMillis());
+        assertEquals(millis(DUE) - minutes(15), graph.status(2).getLatestFinishMillis());
+        assertTrue(graph.status(1).isReady());
+        assertNull(graph.status(5));
+    }
+
+    @Test
+    void reroutesTheCriticalPathWhenAPrerequisiteIsCompleted() {
+        Task done = new Task(tasks.get(1));
+        done.setCompleted(true);
+        tasks.put(1, done);
+        graph.apply(Map.of(1, done), (id, atRiskMillis, dueMillis) -> { });
+
+        DependencyGraph.Status status = graph.status(4);
+        assertArrayEquals(new int[] { 2, 3 }, status.getChain());
+        assertArrayEquals(new int[] { 2, 3, 4 }, status.getCriticalPath());
+        assertEquals(minutes(30 + 10 + 5), status.getWorkMillis());
+        assertEquals(millis(DUE) - minutes(45), graph.atRisk(4));
+    }
+
+    private void add(Task task) {
+        tasks.put(task.getId(), task);
+    }
+
+    private static Task task(int id, int durationMinutes, Integer... dependsOn) {
+        Task task = new Task(id, "Task " + id, "", null, Task.Priority.MEDIUM, false, DUE.minusDays(30), 1);
+        task.setDurationMinutes(durationMinutes);
+        task.setDependsOn(List.of(dependsOn));
+        return task;
+    }
+
+    private static long minutes(int minutes) {
+        return TimeUnit.MINUTES.toMillis(minutes);
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
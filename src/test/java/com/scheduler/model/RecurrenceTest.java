@@ -0,0 +1,80 @@
+package com.scheduler.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RecurrenceTest {
+
+    @Test
+    void countEndsTheSeriesAfterThatManyOccurrences() {
+        Recurrence rule = Recurrence.parse("FREQ=DAILY;INTERVAL=2;COUNT=3");
+        LocalDateTime first = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+        assertEquals(List.of(first, first.plusDays(2), first.plusDays(4)), rule.occurrences(first, 1, 10));
+        assertEquals(first.plusDays(4), rule.following(first.plusDays(2), 2));
+        assertNull(rule.following(first.plusDays(4), 3));
+    }
+
+    @Test
+    void untilIsTheLastPossibleOccurrence() {
+        LocalDateTime first = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+        // A date alone covers that whole day
+        Recurrence wholeDay = Recurrence.parse("RRULE:FREQ=WEEKLY;UNTIL=20300115");
+        assertEquals(List.of(first, first.plusWeeks(1), first.plusWeeks(2)), wholeDay.occurrences(first, 1, 10));
+
+        // With a time, an occurrence after it is not part of the series
+        Recurrence beforeNine = Recurrence.parse("FREQ=WEEKLY;UNTIL=20300115T085959Z");
+        assertEquals(List.of(first, first.plusWeeks(1)), beforeNine.occurrences(first, 1, 10));
+        assertEquals(LocalDateTime.of(2030, 1, 15, 8, 59, 59), beforeNine.getUntil());
+    }
+
+    @Test
+    void byDayVisitsTheLaterWeekdaysBeforeSkippingAhead() {
+        Recurrence rule = Recurrence.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=FR,MO,WE");
+        // A Wednesday
+        LocalDateTime first = LocalDateTime.of(2030, 1, 2, 18, 30);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2030, 1, 2, 18, 30),
+                LocalDateTime.of(2030, 1, 4, 18, 30),
+                LocalDateTime.of(2030, 1, 14, 18, 30),
+                LocalDateTime.of(2030, 1, 16, 18, 30),
+                LocalDateTime.of(2030, 1, 18, 18, 30),
+                LocalDateTime.of(2030, 1, 28, 18, 30)), rule.occurrences(first, 1, 6));
+    }
+
+    @Test
+    void monthlySkipsMonthsWithoutTheDayOfTheFirstDueDate() {
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY");
+        LocalDateTime first = LocalDateTime.of(2030, 1, 31, 12, 0);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2030, 1, 31, 12, 0),
+                LocalDateTime.of(2030, 3, 31, 12, 0),
+                LocalDateTime.of(2030, 5, 31, 12, 0),
+                LocalDateTime.of(2030, 7, 31, 12, 0),
+                LocalDateTime.of(2030, 8, 31, 12, 0)), rule.occurrences(first, 1, 5));
+    }
+
+    @Test
+    void monthlyOnLeapDayWaitsForTheNextLeapYear() {
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY;INTERVAL=12");
+
+        assertEquals(LocalDateTime.of(2032, 2, 29, 8, 0), rule.following(LocalDateTime.of(2028, 2, 29, 8, 0), 1));
+    }
+
+    @Test
+    void rejectsUnsupportedCombinations() {
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("FREQ=DAILY;BYDAY=MO"));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("FREQ=DAILY;COUNT=2;UNTIL=20300101"));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("INTERVAL=2"));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("FREQ=WEEKLY;BYDAY=XX"));
+    }
+}
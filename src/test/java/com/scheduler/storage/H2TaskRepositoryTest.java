@@ -0,0 +1,111 @@
+package com.scheduler.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.scheduler.model.Recurrence;
+import com.scheduler.model.Task;
+
+class H2TaskRepositoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyFieldSurvivesReopening() throws IOException {
+        Task prerequisite = new Task(0, "Book venue", null, LocalDateTime.of(1969, 7, 20, 20, 17), null,
+                true, null, 3);
+        Task series = new Task(0, "Stand-up", "Daily sync", LocalDateTime.of(2031, 3, 3, 9, 30),
+                Task.Priority.HIGH, false, LocalDateTime.of(2031, 1, 1, 8, 0, 0, 123_000_000), 7);
+        try (H2TaskRepository repository = new H2TaskRepository(dir)) {
+            prerequisite.setId(repository.allocateId());
+            series.setId(repository.allocateId());
+            series.setRecurrence(Recurrence.parse("FREQ=WEEKLY;BYDAY=MO,WE"));
+            series.setOccurrence(4);
+            series.setDependsOn(List.of(prerequisite.getId()));
+            series.setDurationMinutes(15);
+            repository.insert(prerequisite);
+            repository.insert(series);
+            repository.commit();
+        }
+
+        try (H2TaskRepository repository = new H2TaskRepository(dir)) {
+            assertEquals(2, repository.size());
+            assertEquals(3, repository.nextId());
+            assertEquals(7, repository.storedVersion());
+            assertSameFields(prerequisite, repository.get(prerequisite.getId()));
+            assertSameFields(series, repository.get(series.getId()));
+        }
+    }
+
+    @Test
+    void rolledBackUnitLeavesTheCommittedTasks() throws IOException {
+        Task kept = new Task(0, "Kept", "", LocalDateTime.of(2030, 5, 1, 12, 0), Task.Priority.LOW, false, null, 1);
+        try (H2TaskRepository repository = new H2TaskRepository(dir)) {
+            kept.setId(repository.allocateId());
+            repository.insert(kept);
+            repository.commit();
+
+            Task renamed = new Task(kept);
+            renamed.setTitle("Renamed");
+            renamed.setVersion(2);
+            repository.replace(kept, renamed);
+            Task added = new Task(0, "Added", "", LocalDateTime.of(2030, 5, 2, 12, 0), null, false, null, 3);
+            added.setId(repository.allocateId());
+            repository.insert(added);
+            repository.rollback();
+
+            assertSameFields(kept, repository.get(kept.getId()));
+            assertNull(repository.get(added.getId()));
+            assertEquals(1, repository.size());
+        }
+
+        try (H2TaskRepository repository = new H2TaskRepository(dir)) {
+            assertEquals(1, repository.size());
+            assertEquals("Kept", repository.get(kept.getId()).getTitle());
+            assertEquals(1, repository.storedVersion());
+        }
+    }
+
+    @Test
+    void uncommittedUnitIsOnlyVisibleToItsWriter() throws Exception {
+        try (H2TaskRepository repository = new H2TaskRepository(dir)) {
+            Task task = new Task(0, "Draft", "", LocalDateTime.of(2030, 5, 1, 12, 0), null, false, null, 1);
+            task.setId(repository.allocateId());
+            repository.insert(task);
+
+            assertTrue(repository.contains(task.getId()));
+            assertFalse(CompletableFuture.supplyAsync(() -> repository.contains(task.getId())).get());
+            assertEquals(0, repository.size());
+
+            repository.commit();
+            assertTrue(CompletableFuture.supplyAsync(() -> repository.contains(task.getId())).get());
+            assertEquals(1, repository.size());
+        }
+    }
+
+    private static void assertSameFields(Task expected, Task actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getDueDate(), actual.getDueDate());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.isCompleted(), actual.isCompleted());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(String.valueOf(expected.getRecurrence()), String.valueOf(actual.getRecurrence()));
+        assertEquals(expected.getOccurrence(), actual.getOccurrence());
+        assertEquals(expected.getDependsOn(), actual.getDependsOn());
+        assertEquals(expected.getDurationMinutes(), actual.getDurationMinutes());
+    }
+}
@@ -0,0 +1,118 @@
+package com.scheduler.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.index.TextIndex;
+import com.scheduler.model.EpochNanos;
+import com.scheduler.model.Task;
+
+class InMemoryTaskRepositoryTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storedDatesOutsideTheSupportedRangeAreClampedOnLoad() throws IOException {
+        Files.writeString(dir.resolve("tasks.wal"),
+                "{\"op\":\"put\",\"nextId\":3,\"task\":{\"id\":1,\"title\":\"Far\",\"dueDate\":\"2300-01-01T00:00:00\","
+                        + "\"createdAt\":\"2020-01-01T00:00:00\"}}\n"
+                        + "{\"op\":\"put\",\"nextId\":3,\"task\":{\"id\":2,\"title\":\"Old\",\"dueDate\":\"2020-01-01T00:00:00\","
+                        + "\"createdAt\":\"1600-01-01T00:00:00\"}}\n");
+
+        try (InMemoryTaskRepository repository = new InMemoryTaskRepository(dir, objectMapper)) {
+            assertEquals(2, repository.size());
+            Task far = repository.get(1);
+            assertEquals(EpochNanos.MAX, far.getDueDate());
+            assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), far.getCreatedAt());
+            Task old = repository.get(2);
+            assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), old.getDueDate());
+            assertEquals(EpochNanos.MIN, old.getCreatedAt());
+        }
+    }
+
+    @Test
+    void uncommittedUnitIsOnlyVisibleToItsWriter() throws Exception {
+        try (InMemoryTaskRepository repository = new InMemoryTaskRepository(dir, objectMapper)) {
+            Task kept = task(repository, "Kept");
+            repository.insert(kept);
+            repository.commit();
+
+            Task renamed = new Task(kept);
+            renamed.setTitle("Renamed");
+            repository.replace(kept, renamed);
+            Task added = task(repository, "Added");
+            repository.insert(added);
+
+            assertEquals("Renamed", repository.get(kept.getId()).getTitle());
+            assertTrue(repository.contains(added.getId()));
+            assertEquals(List.of("Kept"), CompletableFuture.supplyAsync(() -> titles(repository)).get());
+            assertFalse(CompletableFuture.supplyAsync(() -> repository.contains(added.getId())).get());
+            assertEquals(0, CompletableFuture.supplyAsync(() -> repository.search("added", 10)).get().getTotal());
+
+            repository.commit();
+            assertEquals(List.of("Renamed", "Added"), titles(repository));
+            TextIndex.Hits hits = repository.search("added", 10);
+            assertEquals(1, hits.getTotal());
+        }
+    }
+
+    @Test
+    void rolledBackUnitLeavesNoTraceAcrossRestarts() throws IOException {
+        try (InMemoryTaskRepository repository = new InMemoryTaskRepository(dir, objectMapper)) {
+            Task kept = task(repository, "Kept");
+            repository.insert(kept);
+            repository.commit();
+
+            Task added = task(repository, "Added");
+            repository.insert(added);
+            repository.delete(kept);
+            assertNull(repository.get(kept.getId()));
+            repository.rollback();
+
+            assertEquals("Kept", repository.get(kept.getId()).getTitle());
+            assertNull(repository.get(added.getId()));
+            assertEquals(List.of("Kept"), titles(repository));
+            assertEquals(0, repository.search("added", 10).getTotal());
+            // Ids handed out to the rolled back unit stay used
+            assertEquals(added.getId() + 1, repository.nextId());
+        }
+
+        try (InMemoryTaskRepository repository = new InMemoryTaskRepository(dir, objectMapper)) {
+            assertEquals(List.of("Kept"), titles(repository));
+        }
+    }
+
+    private static Task task(InMemoryTaskRepository repository, String title) {
+        Task task = new Task(title, "", LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(repository.nextId()), null);
+        task.setId(repository.allocateId());
+        return task;
+    }
+
+    private static List<String> titles(InMemoryTaskRepository repository) {
+        List<String> titles = new ArrayList<>();
+        for (Task task : repository.scan(null, null, null, null, 100)) {
+            titles.add(task.getTitle());
+        }
+        return titles;
+    }
+}
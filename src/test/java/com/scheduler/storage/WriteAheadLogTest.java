@@ -0,0 +1,74 @@
+package com.scheduler.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayStopsAtATornTailAndStartTruncatesIt() throws IOException {
+        Path file = dir.resolve("tasks.wal");
+        write(file, "{\"n\":1}", "{\"n\":2}");
+        // A crash in the middle of the third append
+        Files.write(file, "{\"n\":3,\"ta".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        assertEquals(List.of("{\"n\":1}", "{\"n\":2}"), replay(file));
+
+        write(file, "{\"n\":4}");
+        assertEquals(List.of("{\"n\":1}", "{\"n\":2}", "{\"n\":4}"), replay(file));
+        assertEquals("{\"n\":1}\n{\"n\":2}\n{\"n\":4}\n", Files.readString(file));
+    }
+
+    @Test
+    void unreadableRecordBeforeTheEndFailsTheReplay() throws IOException {
+        Path file = dir.resolve("tasks.wal");
+        Files.writeString(file, "{\"n\":1}\n{\"n\":2,\"ta\n{\"n\":3}\n");
+
+        assertThrows(IOException.class, () -> replay(file));
+    }
+
+    @Test
+    void completeButUnreadableLastRecordFailsTheReplay() throws IOException {
+        Path file = dir.resolve("tasks.wal");
+        Files.writeString(file, "{\"n\":1}\nnot json\n");
+
+        assertThrows(IOException.class, () -> replay(file));
+    }
+
+    // Appends through a log opened on the file, as a restart would
+    private static void write(Path file, String... records) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, FsyncPolicy.ALWAYS, 0, Long.MAX_VALUE, () -> { });
+        log.start();
+        long seq = 0;
+        for (String record : records) {
+            seq = log.append(record.getBytes(StandardCharsets.UTF_8));
+        }
+        log.awaitDurable(seq);
+        log.close();
+    }
+
+    // Accepts whole JSON objects only, standing in for the repository's record parser
+    private static List<String> replay(Path file) throws IOException {
+        List<String> records = new ArrayList<>();
+        WriteAheadLog.replay(file, line -> {
+            if (!line.startsWith("{") || !line.endsWith("}")) {
+                throw new IllegalArgumentException("Not a JSON object: " + line);
+            }
+            records.add(line);
+        });
+        return records;
+    }
+}
@@ -14,6 +14,59 @@ class TaskService {
         }
     }
 
+    // The task list plus the change-feed version it reflects
+    async getTaskSnapshot() {
+        try {
+            const response = await fetch(`${this.baseUrl}/tasks`);
+            if (!response.ok) throw new Error('Failed to fetch tasks');
+            const version = Number(response.headers.get('X-Feed-Version') || 0);
+            return { tasks: await response.json(), version };
+        } catch (error) {
+            console.error('Error fetching tasks:', error);
+            throw error;
+        }
+    }
+
+    // Server-Sent Events with every change after `since`; returns the EventSource
+    openChangeStream(since, { onChange, onReset, onClosed }) {
+        const source = new EventSource(`${this.baseUrl}/tasks/stream?since=${since}`);
+        const handle = (event) => onChange(JSON.parse(event.data));
+        source.addEventListener('upsert', handle);
+        source.addEventListener('delete', handle);
+        source.addEventListener('reset', (event) => onReset(JSON.parse(event.data)));
+        source.onerror = () => {
+            // The browser retries by itself unless the server refused the stream
+            if (source.readyState === EventSource.CLOSED) onClosed();
+        };
+        return source;
+    }
+
+    // Full-text search on the server; resolves to the matching task ids, best first
+    async searchTasks(query, limit = 1000) {
+        try {
+            const params = new URLSearchParams({ q: query, limit });
+            const response = await fetch(`${this.baseUrl}/tasks/search?${params}`);
+            if (!response.ok) throw new Error('Search failed');
+            const result = await response.json();
+            return result.results.map(hit => hit.task.id);
+        } catch (error) {
+            console.error('Error searching tasks:', error);
+            throw error;
+        }
+    }
+
+    // Task counts: total, pending, completed, overdue and due soon
+    async getStats() {
+        try {
+            const response = await fetch(`${this.baseUrl}/stats`);
+            if (!response.ok) throw new Error('Failed to fetch statistics');
+            return await response.json();
+        } catch (error) {
+            console.error('Error fetching statistics:', error);
+            throw error;
+        }
+    }
+
     async createTask(taskData) {
         try {
             const response = await fetch(`${this.baseUrl}/tasks`, {
@@ -84,4 +137,24 @@ class TaskService {
             throw error;
         }
     }
+
+    // operations: [{ op: 'create' | 'update' | 'delete' | 'complete', id, task, completed }]
+    async applyBatch(operations) {
+        try {
+            const response = await fetch(`${this.baseUrl}/tasks/batch`, {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json',
+                },
+                body: JSON.stringify(operations)
+            });
+            
+            const result = await response.json();
+            if (!response.ok) throw new Error(result.message || 'Batch was rejected');
+            return result.results;
+        } catch (error) {
+            console.error('Error applying batch:', error);
+            throw error;
+        }
+    }
 }
\ No newline at end of file
@@ -4,9 +4,18 @@ class UIManager {
         this.currentFilter = 'all';
         this.currentSort = 'dueDate';
         this.tasks = [];
+        this.feedVersion = 0;
+        this.stream = null;
+        this.renderPending = false;
+        // Ids matching the search box, or null when it is empty
+        this.searchTerm = '';
+        this.searchIds = null;
+        this.searchTimer = null;
         
         this.initializeEventListeners();
         this.loadTasks();
+        // Due soon and overdue also change as time passes, without any task changing
+        setInterval(() => this.updateStatistics(), 60000);
     }
 
     initializeEventListeners() {
@@ -29,7 +38,9 @@ class UIManager {
     async loadTasks() {
         try {
             console.log('🔄 Loading tasks from backend...');
-            this.tasks = await this.taskService.getAllTasks();
+            const snapshot = await this.taskService.getTaskSnapshot();
+            this.tasks = snapshot.tasks;
+            this.feedVersion = snapshot.version;
             console.log('✅ Raw tasks from backend:', this.tasks);
             
             // Enhanced Debug: Check what date fields we have with detailed parsing info
@@ -58,16 +69,65 @@ class UIManager {
             
             this.renderTasks();
             this.updateStatistics();
-            this.updateTaskCount();
+            this.subscribeToChanges();
         } catch (error) {
             console.error('❌ Error loading tasks:', error);
             this.showNotification('Error loading tasks. Make sure backend is running on port 8080.', 'error');
         }
     }
 
+    // From here on only changes are downloaded, not the whole list
+    subscribeToChanges() {
+        if (this.stream) this.stream.close();
+        if (typeof EventSource === 'undefined') {
+            this.stream = null;
+            return;
+        }
+        this.stream = this.taskService.openChangeStream(this.feedVersion, {
+            onChange: (change) => this.applyChange(change),
+            // Fell behind the server's change buffer: start over from a fresh list
+            onReset: () => this.loadTasks(),
+            onClosed: () => { this.stream = null; }
+        });
+    }
+
+    applyChange(change) {
+        if (change.version <= this.feedVersion) return;
+        this.feedVersion = change.version;
+
+        const index = this.tasks.findIndex(task => task.id === change.id);
+        if (change.type === 'delete') {
+            if (index >= 0) this.tasks.splice(index, 1);
+        } else if (index >= 0) {
+            this.tasks[index] = change.task;
+        } else {
+            this.tasks.push(change.task);
+        }
+        // A changed title or description can move a task in or out of the results
+        if (this.searchTerm && change.type !== 'delete') this.scheduleSearch();
+        this.scheduleRender();
+    }
+
+    // Bursts of changes are drawn once per frame
+    scheduleRender() {
+        if (this.renderPending) return;
+        this.renderPending = true;
+        requestAnimationFrame(() => {
+            this.renderPending = false;
+            this.renderTasks();
+            this.updateStatistics();
+        });
+    }
+
+    // The change stream delivers our own edits too; only reload without it
+    async refreshAfterChange() {
+        if (!this.stream) await this.loadTasks();
+    }
+
     renderTasks() {
         const container = document.getElementById('tasksContainer');
-        const filteredTasks = this.filterTasks(this.tasks);
+        const searchedTasks = this.searchIds ? this.tasks.filter(task => this.searchIds.has(task.id)) : this.tasks;
+        const filteredTasks = this.filterTasks(searchedTasks);
         const sortedTasks = this.sortTasks(filteredTasks);
 
         if (sortedTasks.length === 0) {
@@ -150,6 +210,8 @@ class UIManager {
                         ${dueDate && !isNaN(dueDate.getTime()) ? 
                             `<br><small>${this.getTimeDifferenceText(dueDate)}</small>` : ''}
                     </div>
+                    ${task.recurrence ? `<div class="task-recurrence"><i class="fas fa-redo"></i> ${task.recurrence}</div>` : ''}
+                    ${task.dependsOn && task.dependsOn.length ? `<div class="task-dependencies"><i class="fas fa-link"></i> After: ${task.dependsOn.join(', ')}</div>` : ''}
                     <div class="task-id">ID: ${task.id}</div>
                 </div>
             </div>
@@ -240,62 +302,20 @@ class UIManager {
         }
     }
 
-    updateStatistics() {
-        console.log('📊 CALCULATING STATISTICS ==============');
-        const now = new Date();
-        let dueSoonCount = 0;
-        let overdueCount = 0;
-        let completedCount = 0;
-
-        this.tasks.forEach(task => {
-            console.log(`Processing: "${task.title}"`, {
-                completed: task.completed,
-                formattedDueDate: task.formattedDueDate
-            });
-            
-            if (task.completed) {
-                completedCount++;
-                console.log(`  ✅ Counted as COMPLETED`);
-                return;
-            }
-
-            const dueDate = this.parseDate(task);
-            if (!dueDate || isNaN(dueDate.getTime())) {
-                console.log(`  ❌ Skipped - invalid date`);
-                return;
-            }
-
-            const timeDiff = dueDate - now;
-            const hoursDiff = timeDiff / (1000 * 60 * 60);
-
-            console.log(`  📅 Date: ${dueDate.toLocaleString()}, Hours diff: ${hoursDiff.toFixed(2)}`);
-
-            if (hoursDiff < 0) {
-                overdueCount++;
-                console.log(`  🚨 Counted as OVERDUE`);
-            } else if (hoursDiff <= 24) {
-                dueSoonCount++;
-                console.log(`  ⏰ Counted as DUE SOON`);
-            } else {
-                console.log(`  📅 Counted as FUTURE`);
-            }
-        });
-
-        console.log(`📊 FINAL COUNTS: Due Soon=${dueSoonCount}, Overdue=${overdueCount}, Completed=${completedCount}`);
-        console.log('=====================================');
-
-        // Update UI
-        document.getElementById('dueSoonCount').textContent = dueSoonCount;
-        document.getElementById('overdueCount').textContent = overdueCount;
-        document.getElementById('completedCount').textContent = completedCount;
-    }
-
-    updateTaskCount() {
-        const totalTasks = this.tasks.length;
-        const pendingTasks = this.tasks.filter(task => !task.completed).length;
-        
-        document.getElementById('totalTasks').textContent = `${totalTasks} task${totalTasks !== 1 ? 's' : ''}`;
-        document.getElementById('pendingTasks').textContent = `${pendingTasks} pending`;
+    // Counts come from the server, which keeps them as tasks change, so this
+    // costs the same however many tasks there are
+    async updateStatistics() {
+        let stats;
+        try {
+            stats = await this.taskService.getStats();
+        } catch (error) {
+            return;
+        }
+        document.getElementById('dueSoonCount').textContent = stats.dueSoon;
+        document.getElementById('overdueCount').textContent = stats.overdue;
+        document.getElementById('completedCount').textContent = stats.completed;
+        document.getElementById('totalTasks').textContent = `${stats.total} task${stats.total !== 1 ? 's' : ''}`;
+        document.getElementById('pendingTasks').textContent = `${stats.pending} pending`;
     }
 
     attachTaskEventListeners() {
@@ -333,6 +353,23 @@ class UIManager {
             dueDate: formattedDueDate,
             priority: formData.get('priority')
         };
+        if (formData.get('recurrence')) {
+            // Completing the task then moves it to its next due date
+            taskData.recurrence = formData.get('recurrence');
+        }
+        const dependsOn = (formData.get('dependsOn') || '').split(',')
+            .map(id => id.trim()).filter(id => id !== '').map(Number);
+        if (dependsOn.some(id => !Number.isInteger(id) || id <= 0)) {
+            this.showNotification('Depends on must list task IDs separated by commas', 'error');
+            return;
+        }
+        if (dependsOn.length > 0) {
+            // The task stays blocked until these are completed
+            taskData.dependsOn = dependsOn;
+        }
+        if (formData.get('durationMinutes')) {
+            taskData.durationMinutes = Number(formData.get('durationMinutes'));
+        }
 
         console.log('📝 Adding task with data:', taskData);
 
@@ -350,7 +387,7 @@ class UIManager {
             await this.taskService.createTask(taskData);
             this.showNotification('Task created successfully!', 'success');
             this.clearForm();
-            await this.loadTasks();
+            await this.refreshAfterChange();
         } catch (error) {
             console.error('Backend error:', error);
             this.showNotification('Error creating task: ' + error.message, 'error');
@@ -364,7 +401,7 @@ class UIManager {
         try {
             await this.taskService.toggleTaskCompletion(taskId, !task.completed);
             this.showNotification(`Task ${!task.completed ? 'completed' : 'marked as pending'}!`, 'success');
-            await this.loadTasks();
+            await this.refreshAfterChange();
         } catch (error) {
             this.showNotification('Error updating task', 'error');
         }
@@ -376,7 +413,7 @@ class UIManager {
         try {
             await this.taskService.deleteTask(taskId);
             this.showNotification('Task deleted successfully!', 'success');
-            await this.loadTasks();
+            await this.refreshAfterChange();
         } catch (error) {
             this.showNotification('Error deleting task', 'error');
         }
@@ -391,19 +428,26 @@ class UIManager {
     }
 
     handleSearch(e) {
-        const searchTerm = e.target.value.toLowerCase();
-        const taskCards = document.querySelectorAll('.task-card');
-        
-        taskCards.forEach(card => {
-            const title = card.querySelector('.task-title').textContent.toLowerCase();
-            const description = card.querySelector('.task-description').textContent.toLowerCase();
-            
-            if (title.includes(searchTerm) || description.includes(searchTerm)) {
-                card.style.display = 'block';
+        this.searchTerm = e.target.value.trim();
+        this.scheduleSearch();
+    }
+
+    // Searched on the server; the last word is treated as a prefix while typing
+    scheduleSearch() {
+        clearTimeout(this.searchTimer);
+        this.searchTimer = setTimeout(async () => {
+            if (!this.searchTerm) {
+                this.searchIds = null;
             } else {
-                card.style.display = 'none';
+                try {
+                    this.searchIds = new Set(await this.taskService.searchTasks(this.searchTerm + '*'));
+                } catch (error) {
+                    this.showNotification('Error searching tasks', 'error');
+                    return;
+                }
             }
-        });
+            this.renderTasks();
+        }, 150);
     }
 
     handleSort() {